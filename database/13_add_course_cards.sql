@@ -0,0 +1,127 @@
+-- =====================================================
+-- Migration Script: Course Card Read Model
+-- Description: Flat course_cards table holding exactly the course list fields
+--              (catalog, search, featured), maintained by triggers
+-- =====================================================
+-- The catalog pages read only from course_cards: no join to users, no entity
+-- graph. Triggers keep it in step inside the writing transaction, including the
+-- changes made by other triggers (enrollment_count, average_rating/total_ratings).
+
+SET search_path TO etms, public;
+
+-- Step 1: Read model table
+CREATE TABLE IF NOT EXISTS etms.course_cards (
+    course_id UUID PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    summary VARCHAR(500),
+    instructor_id UUID NOT NULL,
+    instructor_name VARCHAR(100),
+    category VARCHAR(50) NOT NULL,
+    duration_hours INTEGER NOT NULL,
+    status VARCHAR(50),
+    thumbnail_url VARCHAR(500),
+    is_featured BOOLEAN NOT NULL DEFAULT FALSE,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    enrollment_count INTEGER NOT NULL DEFAULT 0,
+    average_rating DECIMAL(3,2) NOT NULL DEFAULT 0.00,
+    total_ratings INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT fk_course_card_course FOREIGN KEY (course_id)
+        REFERENCES etms.courses(id) ON DELETE CASCADE
+);
+
+-- Catalog: published + active, newest first
+CREATE INDEX IF NOT EXISTS idx_course_cards_catalog
+    ON etms.course_cards (created_at DESC)
+    WHERE status = 'PUBLISHED' AND is_active = TRUE;
+CREATE INDEX IF NOT EXISTS idx_course_cards_category
+    ON etms.course_cards (category, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_course_cards_instructor
+    ON etms.course_cards (instructor_id);
+
+-- Step 2: Upsert one card from its course (and instructor)
+CREATE OR REPLACE FUNCTION etms.refresh_course_card(p_course_id UUID)
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO etms.course_cards (
+        course_id, title, summary, instructor_id, instructor_name, category,
+        duration_hours, status, thumbnail_url, is_featured, is_active,
+        enrollment_count, average_rating, total_ratings, created_at)
+    SELECT c.id, c.title, c.summary, c.instructor_id, u.name, c.category,
+           c.duration_hours, c.status, c.thumbnail_url, COALESCE(c.is_featured, FALSE),
+           COALESCE(c.is_active, TRUE), COALESCE(c.enrollment_count, 0),
+           COALESCE(c.average_rating, 0), COALESCE(c.total_ratings, 0),
+           COALESCE(c.created_at, CURRENT_TIMESTAMP)
+    FROM etms.courses c
+    JOIN etms.users u ON u.id = c.instructor_id
+    WHERE c.id = p_course_id
+    ON CONFLICT (course_id) DO UPDATE SET
+        title = EXCLUDED.title,
+        summary = EXCLUDED.summary,
+        instructor_id = EXCLUDED.instructor_id,
+        instructor_name = EXCLUDED.instructor_name,
+        category = EXCLUDED.category,
+        duration_hours = EXCLUDED.duration_hours,
+        status = EXCLUDED.status,
+        thumbnail_url = EXCLUDED.thumbnail_url,
+        is_featured = EXCLUDED.is_featured,
+        is_active = EXCLUDED.is_active,
+        enrollment_count = EXCLUDED.enrollment_count,
+        average_rating = EXCLUDED.average_rating,
+        total_ratings = EXCLUDED.total_ratings,
+        created_at = EXCLUDED.created_at;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 3: Course insert/update -> refresh its card (delete cascades via FK)
+CREATE OR REPLACE FUNCTION etms.sync_course_card()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- Only card fields matter; view_count, description etc. change far more often
+    IF TG_OP = 'UPDATE' AND
+       (OLD.title, OLD.summary, OLD.instructor_id, OLD.category, OLD.duration_hours, OLD.status,
+        OLD.thumbnail_url, OLD.is_featured, OLD.is_active, OLD.enrollment_count,
+        OLD.average_rating, OLD.total_ratings)
+       IS NOT DISTINCT FROM
+       (NEW.title, NEW.summary, NEW.instructor_id, NEW.category, NEW.duration_hours, NEW.status,
+        NEW.thumbnail_url, NEW.is_featured, NEW.is_active, NEW.enrollment_count,
+        NEW.average_rating, NEW.total_ratings) THEN
+        RETURN NEW;
+    END IF;
+
+    PERFORM etms.refresh_course_card(NEW.id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trigger_sync_course_card ON etms.courses;
+CREATE TRIGGER trigger_sync_course_card
+    AFTER INSERT OR UPDATE ON etms.courses
+    FOR EACH ROW EXECUTE FUNCTION etms.sync_course_card();
+
+-- Step 4: Instructor rename -> update their cards
+CREATE OR REPLACE FUNCTION etms.sync_course_card_instructor()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF OLD.name IS DISTINCT FROM NEW.name THEN
+        UPDATE etms.course_cards
+        SET instructor_name = NEW.name
+        WHERE instructor_id = NEW.id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trigger_sync_course_card_instructor ON etms.users;
+CREATE TRIGGER trigger_sync_course_card_instructor
+    AFTER UPDATE OF name ON etms.users
+    FOR EACH ROW EXECUTE FUNCTION etms.sync_course_card_instructor();
+
+-- Step 5: Backfill existing courses
+SELECT etms.refresh_course_card(id) FROM etms.courses;
+
+-- Step 6: Verify
+SELECT
+    (SELECT COUNT(*) FROM etms.courses) AS courses,
+    (SELECT COUNT(*) FROM etms.course_cards) AS course_cards;
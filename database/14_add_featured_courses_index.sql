@@ -0,0 +1,22 @@
+-- =====================================================
+-- Migration Script: Featured Courses Partial Index
+-- Description: Index for the home page featured feed on the course card read model
+-- =====================================================
+-- The home page asks for featured, published, active courses, newest first, with a
+-- LIMIT. The partial index holds only those rows, already in that order, so the
+-- query reads the first N index entries and stops.
+
+SET search_path TO etms, public;
+
+CREATE INDEX IF NOT EXISTS idx_course_cards_featured
+    ON etms.course_cards (created_at DESC)
+    WHERE is_featured AND status = 'PUBLISHED' AND is_active;
+
+-- Verify (expect an Index Scan using idx_course_cards_featured)
+EXPLAIN
+SELECT course_id, title, summary, category, duration_hours, thumbnail_url,
+       enrollment_count, average_rating, total_ratings
+FROM etms.course_cards
+WHERE is_featured = TRUE AND status = 'PUBLISHED' AND is_active = TRUE
+ORDER BY created_at DESC
+LIMIT 6;
@@ -0,0 +1,104 @@
+-- =====================================================
+-- Migration Script: Incremental Course Rating Aggregates
+-- Description: Replace the AVG() recount in trigger_update_course_rating with
+--              running sum/count deltas, plus a per-course recompute used by the
+--              application's reconciliation job
+-- =====================================================
+-- Before: every feedback insert/update (including hide/show) ran
+--   SELECT AVG(rating), COUNT(*) FROM feedback WHERE course_id = ? AND is_visible
+-- i.e. a scan of all of the course's feedback. Now each row only adds or removes
+-- its own contribution: +rating when it becomes visible, -rating when it is hidden
+-- or deleted. average_rating is derived from rating_sum / total_ratings.
+
+SET search_path TO etms, public;
+
+-- Step 1: Running sum next to the existing count
+ALTER TABLE etms.courses ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+
+-- Step 2: Apply one delta to a course's aggregate
+CREATE OR REPLACE FUNCTION etms.apply_course_rating_delta(p_course_id UUID, p_sum_delta BIGINT, p_count_delta INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE etms.courses
+    SET rating_sum = rating_sum + p_sum_delta,
+        total_ratings = COALESCE(total_ratings, 0) + p_count_delta,
+        average_rating = CASE
+            WHEN COALESCE(total_ratings, 0) + p_count_delta > 0
+            THEN ROUND((rating_sum + p_sum_delta)::DECIMAL / (COALESCE(total_ratings, 0) + p_count_delta), 2)
+            ELSE 0.00
+        END
+    WHERE id = p_course_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 3: Trigger function - remove OLD's contribution, add NEW's
+CREATE OR REPLACE FUNCTION etms.update_course_rating()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND
+       (OLD.course_id, OLD.rating, OLD.is_visible) IS NOT DISTINCT FROM
+       (NEW.course_id, NEW.rating, NEW.is_visible) THEN
+        RETURN NEW;  -- comment edits do not touch the aggregate
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') AND COALESCE(OLD.is_visible, FALSE) THEN
+        PERFORM etms.apply_course_rating_delta(OLD.course_id, -OLD.rating, -1);
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') AND COALESCE(NEW.is_visible, FALSE) THEN
+        PERFORM etms.apply_course_rating_delta(NEW.course_id, NEW.rating, 1);
+    END IF;
+
+    RETURN COALESCE(NEW, OLD);
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trigger_update_course_rating ON etms.feedback;
+CREATE TRIGGER trigger_update_course_rating
+    AFTER INSERT OR UPDATE OR DELETE ON etms.feedback
+    FOR EACH ROW EXECUTE FUNCTION etms.update_course_rating();
+
+-- Step 4: Exact recompute of one course (reconciliation)
+-- The course row is locked first, so the recount runs after any in-flight feedback
+-- write on the course has committed and sees its row (READ COMMITTED: new snapshot
+-- per statement). Returns TRUE if the stored aggregate was wrong.
+CREATE OR REPLACE FUNCTION etms.recompute_course_rating(p_course_id UUID)
+RETURNS BOOLEAN AS $$
+DECLARE
+    v_sum BIGINT;
+    v_count INTEGER;
+    v_fixed INTEGER;
+BEGIN
+    PERFORM 1 FROM etms.courses WHERE id = p_course_id FOR UPDATE;
+
+    SELECT COALESCE(SUM(rating), 0), COUNT(*)
+    INTO v_sum, v_count
+    FROM etms.feedback
+    WHERE course_id = p_course_id AND is_visible = TRUE;
+
+    UPDATE etms.courses
+    SET rating_sum = v_sum,
+        total_ratings = v_count,
+        average_rating = CASE WHEN v_count > 0 THEN ROUND(v_sum::DECIMAL / v_count, 2) ELSE 0.00 END
+    WHERE id = p_course_id
+      AND (rating_sum IS DISTINCT FROM v_sum OR total_ratings IS DISTINCT FROM v_count);
+
+    GET DIAGNOSTICS v_fixed = ROW_COUNT;
+    RETURN v_fixed > 0;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 5: Backfill from the current feedback
+SELECT etms.recompute_course_rating(id) FROM etms.courses;
+
+-- Step 6: Verify (expect 0 drifted courses)
+SELECT COUNT(*) AS drifted_courses
+FROM etms.courses c
+LEFT JOIN (
+    SELECT course_id, SUM(rating) AS rating_sum, COUNT(*) AS total_ratings
+    FROM etms.feedback
+    WHERE is_visible = TRUE
+    GROUP BY course_id
+) a ON a.course_id = c.id
+WHERE c.rating_sum <> COALESCE(a.rating_sum, 0)
+   OR COALESCE(c.total_ratings, 0) <> COALESCE(a.total_ratings, 0);
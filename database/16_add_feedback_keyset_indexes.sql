@@ -0,0 +1,23 @@
+-- =====================================================
+-- Migration Script: Feedback Keyset Indexes
+-- Description: Indexes matching the paged review queries on the course page
+-- =====================================================
+-- Reviews are paged by keyset (no OFFSET): newest first on (created_at, id), or
+-- highest rated first on (rating, created_at, id). Only visible feedback is ever
+-- paged, so both indexes are partial. The rating histogram is a GROUP BY rating
+-- over the same rows and is served by the second index.
+
+SET search_path TO etms, public;
+
+CREATE INDEX IF NOT EXISTS idx_feedback_course_visible_recent
+    ON etms.feedback (course_id, created_at DESC, id DESC)
+    WHERE is_visible = TRUE;
+
+CREATE INDEX IF NOT EXISTS idx_feedback_course_visible_rating
+    ON etms.feedback (course_id, rating DESC, created_at DESC, id DESC)
+    WHERE is_visible = TRUE;
+
+-- Verify
+SELECT indexname, indexdef
+FROM pg_indexes
+WHERE schemaname = 'etms' AND indexname LIKE 'idx_feedback_course_visible_%';
@@ -0,0 +1,17 @@
+-- =====================================================
+-- Migration Script: User Activity Index
+-- Description: Index for "active users in the last N minutes" queries
+-- =====================================================
+-- users.last_activity is written in batches by the application's activity
+-- tracker (one UPDATE ... FROM (VALUES ...) per flush). Activity counts start
+-- from the few recently active users, so they need a range index on it.
+
+SET search_path TO etms, public;
+
+CREATE INDEX IF NOT EXISTS idx_users_last_activity
+    ON etms.users (last_activity DESC);
+
+-- Verify
+SELECT indexname, indexdef
+FROM pg_indexes
+WHERE schemaname = 'etms' AND indexname = 'idx_users_last_activity';
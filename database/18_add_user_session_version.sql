@@ -0,0 +1,18 @@
+-- =====================================================
+-- Migration Script: User Session Version
+-- Description: Session version for the stateless (signed cookie) session mode
+-- =====================================================
+-- With signed-session.enabled=true no HTTP session is kept on the server. Each
+-- sign-in increments users.session_version and the signed cookie carries the new
+-- value; a cookie whose version is no longer current is rejected, which keeps
+-- the "one session per user" rule without a per-node SessionRegistry. Logout
+-- increments it as well. Unused (but harmless) in the default session mode.
+
+SET search_path TO etms, public;
+
+ALTER TABLE etms.users ADD COLUMN IF NOT EXISTS session_version INTEGER NOT NULL DEFAULT 0;
+
+-- Verify
+SELECT column_name, data_type, column_default
+FROM information_schema.columns
+WHERE table_schema = 'etms' AND table_name = 'users' AND column_name = 'session_version';
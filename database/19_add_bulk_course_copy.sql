@@ -0,0 +1,82 @@
+-- =====================================================
+-- Migration Script: Bulk Course Copy
+-- Description: Let set-based course operations (clone) switch off the per-row
+--              section/material triggers for their own transaction
+-- =====================================================
+-- Copying a course inserts its sections and materials with INSERT ... SELECT.
+-- Per row, trigger_course_section_change would UPDATE the course once per section
+-- and trigger_update_section_duration would re-sum the section's materials once
+-- per material (quadratic in the section size). The copy carries the source's
+-- section durations over and sets the course timestamps itself, so both triggers
+-- can skip. They do so only while the transaction-local setting
+--   SELECT set_config('etms.suppress_course_triggers', 'on', true);
+-- is in effect; every other write keeps the old behaviour.
+
+SET search_path TO etms, public;
+
+-- Step 1: Switch read by the triggers (false unless set in this transaction)
+CREATE OR REPLACE FUNCTION etms.course_triggers_suppressed()
+RETURNS BOOLEAN AS $$
+    SELECT COALESCE(current_setting('etms.suppress_course_triggers', true), '') = 'on';
+$$ LANGUAGE sql STABLE;
+
+-- Step 2: Section changes touch the course unless suppressed
+CREATE OR REPLACE FUNCTION etms.update_course_on_section_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF etms.course_triggers_suppressed() THEN
+        RETURN COALESCE(NEW, OLD);
+    END IF;
+
+    UPDATE etms.courses
+    SET updated_at = CURRENT_TIMESTAMP
+    WHERE id = COALESCE(NEW.course_id, OLD.course_id);
+    RETURN COALESCE(NEW, OLD);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 3: Material changes recompute section durations unless suppressed
+CREATE OR REPLACE FUNCTION etms.update_section_duration_on_material_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    affected_section_id UUID;
+BEGIN
+    IF etms.course_triggers_suppressed() THEN
+        RETURN COALESCE(NEW, OLD);
+    END IF;
+
+    -- Determine which section to update
+    IF TG_OP = 'DELETE' THEN
+        affected_section_id := OLD.section_id;
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Update both old and new section if section_id changed
+        IF OLD.section_id IS DISTINCT FROM NEW.section_id THEN
+            IF OLD.section_id IS NOT NULL THEN
+                UPDATE etms.course_sections
+                SET duration_minutes = etms.calculate_section_duration(OLD.section_id)
+                WHERE id = OLD.section_id;
+            END IF;
+            affected_section_id := NEW.section_id;
+        ELSE
+            affected_section_id := NEW.section_id;
+        END IF;
+    ELSE -- INSERT
+        affected_section_id := NEW.section_id;
+    END IF;
+
+    -- Update the affected section's duration
+    IF affected_section_id IS NOT NULL THEN
+        UPDATE etms.course_sections
+        SET duration_minutes = etms.calculate_section_duration(affected_section_id)
+        WHERE id = affected_section_id;
+    END IF;
+
+    RETURN COALESCE(NEW, OLD);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 4: Materials are copied in keyset chunks of (course_id, id)
+CREATE INDEX IF NOT EXISTS idx_materials_course_id_id ON etms.materials(course_id, id);
+
+-- Verify (expect FALSE outside a bulk copy)
+SELECT etms.course_triggers_suppressed() AS suppressed;
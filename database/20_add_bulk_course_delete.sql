@@ -0,0 +1,80 @@
+-- =====================================================
+-- Migration Script: Bulk Course Delete
+-- Description: Extend the trigger switch from 19_add_bulk_course_copy.sql to the
+--              enrollment count and rating triggers, for set-based course deletion
+-- =====================================================
+-- Deleting a course removes its enrollments and feedback in chunks before the course
+-- row itself. Per row, trigger_update_enrollment_count would decrement the course's
+-- enrollment_count and trigger_update_course_rating would subtract the rating, i.e.
+-- one UPDATE of the (doomed) course row per enrollment and per feedback, all
+-- serialized on that row's lock. Both triggers skip while
+--   SELECT set_config('etms.suppress_course_triggers', 'on', true);
+-- is in effect. Only transactions that copy or delete a whole course set it.
+
+SET search_path TO etms, public;
+
+-- Step 1: Enrollment count follows enrollments unless suppressed
+CREATE OR REPLACE FUNCTION etms.update_course_enrollment_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF etms.course_triggers_suppressed() THEN
+        RETURN COALESCE(NEW, OLD);
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        UPDATE etms.courses 
+        SET enrollment_count = enrollment_count + 1 
+        WHERE id = NEW.course_id;
+        RETURN NEW;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE etms.courses 
+        SET enrollment_count = enrollment_count - 1 
+        WHERE id = OLD.course_id;
+        RETURN OLD;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.course_id != NEW.course_id THEN
+            UPDATE etms.courses 
+            SET enrollment_count = enrollment_count - 1 
+            WHERE id = OLD.course_id;
+            UPDATE etms.courses 
+            SET enrollment_count = enrollment_count + 1 
+            WHERE id = NEW.course_id;
+        END IF;
+        RETURN NEW;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Step 2: Rating aggregate follows feedback unless suppressed
+CREATE OR REPLACE FUNCTION etms.update_course_rating()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF etms.course_triggers_suppressed() THEN
+        RETURN COALESCE(NEW, OLD);
+    END IF;
+
+    IF TG_OP = 'UPDATE' AND
+       (OLD.course_id, OLD.rating, OLD.is_visible) IS NOT DISTINCT FROM
+       (NEW.course_id, NEW.rating, NEW.is_visible) THEN
+        RETURN NEW;  -- comment edits do not touch the aggregate
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') AND COALESCE(OLD.is_visible, FALSE) THEN
+        PERFORM etms.apply_course_rating_delta(OLD.course_id, -OLD.rating, -1);
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') AND COALESCE(NEW.is_visible, FALSE) THEN
+        PERFORM etms.apply_course_rating_delta(NEW.course_id, NEW.rating, 1);
+    END IF;
+
+    RETURN COALESCE(NEW, OLD);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Chunks are selected through the existing course_id indexes (idx_enrollments_course,
+-- idx_feedback_course, idx_materials_course, idx_course_sections_course_id) and
+-- idx_material_progress_enrollment; no new index is needed.
+
+-- Verify (expect FALSE outside a bulk copy or delete)
+SELECT etms.course_triggers_suppressed() AS suppressed;
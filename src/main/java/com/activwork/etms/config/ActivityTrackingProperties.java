@@ -0,0 +1,44 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for user activity tracking.
+ * Reads activity tracking settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows how often recorded activity is written to users.last_activity
+ *   and what counts as "active"
+ */
+@Configuration
+@ConfigurationProperties(prefix = "activity")
+@Data
+public class ActivityTrackingProperties {
+
+    /**
+     * Record the last activity of authenticated users on every request
+     */
+    private boolean enabled = true;
+
+    /**
+     * Interval between flushes of recorded activity to the database
+     */
+    private long flushIntervalSeconds = 30L;
+
+    /**
+     * Rows per batched UPDATE statement
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * A user counts as active if seen within this window
+     */
+    private int activeWindowMinutes = 15;
+
+    /**
+     * Most email to user id lookups kept in memory; the cache is cleared when full
+     */
+    private int userIdCacheMaxEntries = 10000;
+}
@@ -0,0 +1,54 @@
+package com.activwork.etms.config;
+
+import com.activwork.etms.service.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Resolves /uploads/** resource requests against the configured BlobStore,
+ * so uploaded files are served the same way from local disk or an object store.
+ */
+public class BlobStoreResourceResolver extends AbstractResourceResolver {
+
+    private final BlobStore blobStore;
+    private final String keyPrefix;
+
+    /**
+     * @param blobStore the active storage backend
+     * @param keyPrefix key folder including trailing slash, e.g. "banners/"
+     */
+    public BlobStoreResourceResolver(BlobStore blobStore, String keyPrefix) {
+        this.blobStore = blobStore;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    @Nullable
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, @NonNull String requestPath,
+                                               @NonNull List<? extends Resource> locations,
+                                               @NonNull ResourceResolverChain chain) {
+        if (!isValidPath(requestPath)) {
+            return null;
+        }
+        Resource resource = blobStore.get(keyPrefix + requestPath);
+        return resource.exists() ? resource : null;
+    }
+
+    @Override
+    @Nullable
+    protected String resolveUrlPathInternal(@NonNull String resourceUrlPath,
+                                            @NonNull List<? extends Resource> locations,
+                                            @NonNull ResourceResolverChain chain) {
+        return isValidPath(resourceUrlPath) ? resourceUrlPath : null;
+    }
+
+    private boolean isValidPath(String path) {
+        return !path.isEmpty() && !path.contains("..") && !path.startsWith("/") && !path.contains("\\");
+    }
+}
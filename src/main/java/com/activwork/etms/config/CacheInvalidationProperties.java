@@ -0,0 +1,45 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for cache invalidation across application instances.
+ * Reads cache invalidation bus settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows which bus carries invalidations between instances and how it reconnects
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cache-invalidation")
+@Data
+public class CacheInvalidationProperties {
+
+    /**
+     * local = this instance only (single node, tests);
+     * postgres = LISTEN/NOTIFY on the application database (several instances)
+     */
+    private String bus = "local";
+
+    /**
+     * NOTIFY channel shared by all instances
+     */
+    private String channel = "etms_cache_invalidation";
+
+    /**
+     * How long the listener waits for notifications before checking its connection
+     */
+    private long pollTimeoutMillis = 1000L;
+
+    /**
+     * Delay before the listener reconnects after losing its connection.
+     * Notifications missed meanwhile are covered by invalidating all local caches
+     */
+    private long reconnectDelaySeconds = 5L;
+
+    /**
+     * Keys whose version is tracked individually; beyond this all keys share one version
+     */
+    private int maxTrackedKeys = 100_000;
+}
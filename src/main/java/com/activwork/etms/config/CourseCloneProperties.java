@@ -0,0 +1,39 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for server-side course copies.
+ * Reads course clone settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows how many copies run at once, how many materials one copy step inserts
+ *   and how long finished copies stay visible
+ */
+@Configuration
+@ConfigurationProperties(prefix = "course-clone")
+@Data
+public class CourseCloneProperties {
+
+    /**
+     * Copies running at the same time
+     */
+    private int threads = 2;
+
+    /**
+     * Copies waiting for a thread; further requests are refused
+     */
+    private int queueCapacity = 20;
+
+    /**
+     * Materials inserted per transaction (bounds lock time on the source course)
+     */
+    private int chunkSize = 500;
+
+    /**
+     * How long a finished copy's progress can still be looked up (default 60 minutes)
+     */
+    private long retainFinishedMinutes = 60L;
+}
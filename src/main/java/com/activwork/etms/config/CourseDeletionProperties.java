@@ -0,0 +1,23 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for course deletion.
+ * Reads course deletion settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows how many child rows one deletion step removes
+ */
+@Configuration
+@ConfigurationProperties(prefix = "course-deletion")
+@Data
+public class CourseDeletionProperties {
+
+    /**
+     * Rows deleted per transaction (bounds lock time per step)
+     */
+    private int chunkSize = 1000;
+}
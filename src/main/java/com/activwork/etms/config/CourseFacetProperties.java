@@ -0,0 +1,34 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the faceted course catalog.
+ * Reads catalog browse settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows the catalog page size and how often the facet index is rebuilt from the database
+ */
+@Configuration
+@ConfigurationProperties(prefix = "course-facets")
+@Data
+public class CourseFacetProperties {
+
+    /**
+     * Courses per catalog page
+     */
+    private int pageSize = 12;
+
+    /**
+     * Largest page a client may ask for
+     */
+    private int maxPageSize = 48;
+
+    /**
+     * Full rebuild interval (default 15 minutes). Catalog changes update the index
+     * immediately; the rebuild only repairs drift from changes made outside the application
+     */
+    private long rebuildIntervalMinutes = 15L;
+}
@@ -0,0 +1,30 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-memory enrollment index.
+ * Reads enrollment index settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows how many learners the index keeps and how long a learner's enrollments are trusted
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment-index")
+@Data
+public class EnrollmentIndexProperties {
+
+    /**
+     * Learners whose enrollments are kept in memory (32 bytes per enrollment plus a map entry per learner)
+     */
+    private int maxLearners = 100_000;
+
+    /**
+     * Reload a learner's enrollments after this many minutes (default 30). Changes made
+     * through the application update the index at once; this only bounds drift from
+     * changes made outside it
+     */
+    private long ttlMinutes = 30L;
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for file storage.
  * Reads file upload settings from application.properties.
@@ -17,6 +20,11 @@ import org.springframework.context.annotation.Configuration;
 @Data
 public class FileStorageProperties {
     
+    /**
+     * Storage backend: "local" (files under uploadDir) or "s3" (S3-compatible object store)
+     */
+    private String storageBackend = "local";
+    
     /**
      * Directory where uploaded files will be stored
      */
@@ -26,5 +34,129 @@ public class FileStorageProperties {
      * Maximum file size in bytes (default 50MB)
      */
     private long maxSize = 52428800L; // 50MB
+    
+    /**
+     * JPEG quality (0-1) used when recompressing banner variants
+     */
+    private float bannerJpegQuality = 0.82f;
+    
+    /**
+     * Largest banner upload accepted, in pixels (width x height), checked before decoding
+     */
+    private long bannerMaxPixels = 40000000L;
+    
+    /**
+     * Cache lifetime for content-hashed banner files (default 365 days)
+     */
+    private long bannerCacheSeconds = 31536000L;
+    
+    /**
+     * Memory-map frequently requested material files (see HotFileCache)
+     */
+    private boolean hotCacheEnabled = true;
+    
+    /**
+     * Total bytes of mapped material files kept in the hot cache (default 512MB)
+     */
+    private long hotCacheMaxBytes = 536870912L;
+    
+    /**
+     * Largest single file admitted to the hot cache (default 128MB)
+     */
+    private long hotCacheMaxFileBytes = 134217728L;
+    
+    /**
+     * Requests for the same file before it is mapped
+     */
+    private int hotCacheAdmissionHits = 3;
+    
+    /**
+     * Material filenames mapped at startup and never evicted
+     */
+    private List<String> hotCachePinned = new ArrayList<>();
+    
+    /**
+     * Move legacy flat material files into the sharded layout in the background at startup
+     */
+    private boolean shardMigrationEnabled = false;
+    
+    /**
+     * Materials moved (and rows updated) per transaction during the shard migration
+     */
+    private int shardMigrationBatchSize = 500;
+    
+    /**
+     * Pause between shard migration batches, to leave I/O for live traffic
+     */
+    private long shardMigrationPauseMs = 200L;
+    
+    /**
+     * Periodically delete uploaded files no course or material references
+     */
+    private boolean gcEnabled = false;
+    
+    /**
+     * Hours between orphaned file collection runs
+     */
+    private long gcIntervalHours = 24L;
+    
+    /**
+     * Files younger than this are never collected (covers uploads whose row is not committed yet)
+     */
+    private long gcGracePeriodHours = 24L;
+    
+    /**
+     * Threads walking the storage folders in parallel
+     */
+    private int gcParallelism = 4;
+    
+    /**
+     * Report orphans without deleting them
+     */
+    private boolean gcDryRun = false;
+    
+    /**
+     * S3-compatible backend settings (used when storageBackend = s3)
+     */
+    private S3 s3 = new S3();
+    
+    @Data
+    public static class S3 {
+        
+        /**
+         * Endpoint override for S3-compatible servers (e.g. http://localhost:9000); empty for AWS
+         */
+        private String endpoint;
+        
+        private String region = "us-east-1";
+        
+        private String bucket = "etms";
+        
+        /**
+         * Static credentials; when empty the AWS default credentials chain is used
+         */
+        private String accessKey;
+        
+        private String secretKey;
+        
+        /**
+         * Use bucket-in-path URLs (required by most MinIO-style servers)
+         */
+        private boolean pathStyleAccess = false;
+        
+        /**
+         * Lifetime of presigned download URLs (default 5 minutes)
+         */
+        private long presignTtlSeconds = 300L;
+        
+        /**
+         * Uploads larger than this use multipart upload (default 16MB)
+         */
+        private long multipartThresholdBytes = 16777216L;
+        
+        /**
+         * Multipart part size (minimum 5MB, default 8MB)
+         */
+        private int partSizeBytes = 8388608;
+    }
 }
-
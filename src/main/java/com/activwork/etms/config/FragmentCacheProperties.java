@@ -0,0 +1,40 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the rendered HTML fragment cache.
+ * Reads fragment cache settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows how much rendered catalog HTML may be kept and for how long
+ */
+@Configuration
+@ConfigurationProperties(prefix = "fragment-cache")
+@Data
+public class FragmentCacheProperties {
+
+    /**
+     * false = render the fragments on every request (e.g. while editing templates)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Total rendered HTML kept in memory (default 8MB)
+     */
+    private long maxBytes = 8L * 1024 * 1024;
+
+    /**
+     * Larger fragments are rendered but not cached (default 256KB)
+     */
+    private long maxEntryBytes = 256L * 1024;
+
+    /**
+     * Upper bound on the age of a cached fragment. Course edits, ratings and enrollment
+     * counts change the key at once; this only bounds drift from data outside the key
+     * (e.g. an instructor renaming their profile)
+     */
+    private long maxAgeSeconds = 300L;
+}
@@ -0,0 +1,29 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the home page feed.
+ * Reads feed settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows how many featured courses the home page shows and how long the feed is cached
+ */
+@Configuration
+@ConfigurationProperties(prefix = "home-feed")
+@Data
+public class HomeFeedProperties {
+
+    /**
+     * Maximum featured courses on the home page
+     */
+    private int featuredLimit = 6;
+
+    /**
+     * Upper bound on feed age (default 5 minutes). Catalog changes invalidate it immediately;
+     * this only bounds drift of counters such as enrollments
+     */
+    private long cacheTtlSeconds = 300L;
+}
@@ -0,0 +1,34 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for operational endpoints (/ops/**).
+ * Reads ops settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows who may read node-wide cache and storage internals
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ops")
+@Data
+public class OpsProperties {
+
+    /**
+     * Emails of the accounts allowed to call /ops/** (any role); empty means nobody
+     */
+    private List<String> emails = new ArrayList<>();
+
+    /**
+     * @param email the signed-in user's email
+     * @return true if the user may call /ops/**
+     */
+    public boolean isOperator(String email) {
+        return email != null && emails.stream().anyMatch(email::equalsIgnoreCase);
+    }
+}
@@ -0,0 +1,54 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for password hashing and sign-in throughput.
+ * Reads BCrypt and login executor settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows the BCrypt work factor (fixed or calibrated) and how many sign-ins may hash at once
+ */
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+@Data
+public class PasswordHashingProperties {
+
+    /**
+     * Fixed BCrypt strength (4-31). 0 = calibrate at startup against targetHashMillis.
+     * Set it explicitly when several instances run on different hardware
+     */
+    private int strength = 0;
+
+    /**
+     * Calibration target: time for one hash on this machine
+     */
+    private long targetHashMillis = 250L;
+
+    /**
+     * Calibration never goes below this strength
+     */
+    private int minStrength = 10;
+
+    /**
+     * Calibration never goes above this strength
+     */
+    private int maxStrength = 14;
+
+    /**
+     * Threads verifying passwords; 0 = half the available processors (at least 1)
+     */
+    private int loginThreads = 0;
+
+    /**
+     * Sign-ins waiting for a login thread; further sign-ins are turned away
+     */
+    private int loginQueueCapacity = 100;
+
+    /**
+     * Longest a sign-in may wait in the queue plus verify before it is turned away
+     */
+    private long loginTimeoutMillis = 5000L;
+}
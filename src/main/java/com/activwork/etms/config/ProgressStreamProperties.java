@@ -0,0 +1,38 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the enrollment progress SSE stream.
+ * Reads stream settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows connection timeout, heartbeat and dispatch limits
+ */
+@Configuration
+@ConfigurationProperties(prefix = "progress-stream")
+@Data
+public class ProgressStreamProperties {
+
+    /**
+     * How long an SSE connection stays open before the browser reconnects (default 30 minutes)
+     */
+    private long timeoutMs = 1800000L;
+
+    /**
+     * Interval between heartbeat comments used to detect dead connections (default 25 seconds)
+     */
+    private long heartbeatMs = 25000L;
+
+    /**
+     * Number of threads writing events to emitters
+     */
+    private int dispatchThreads = 2;
+
+    /**
+     * Maximum pending dispatch tasks; further deltas are dropped (clients refetch on reconnect)
+     */
+    private int dispatchQueueCapacity = 10000;
+}
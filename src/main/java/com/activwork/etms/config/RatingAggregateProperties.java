@@ -0,0 +1,28 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for course rating aggregates.
+ * Reads rating reconciliation settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows whether and how often the incremental rating aggregates are checked against feedback
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ratings")
+@Data
+public class RatingAggregateProperties {
+
+    /**
+     * Periodically compare each course's running rating sum/count with its feedback
+     */
+    private boolean reconcileEnabled = true;
+
+    /**
+     * Interval between reconciliation runs (default 6 hours)
+     */
+    private long reconcileIntervalMinutes = 360L;
+}
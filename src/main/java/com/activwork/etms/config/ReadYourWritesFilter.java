@@ -0,0 +1,192 @@
+package com.activwork.etms.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they write.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Bridges the user's session (HTTP session or cookie) and ReplicaRoutingContext (per thread)
+ *
+ * Design Notes:
+ * 1. Before the request: a user still inside its window pins the thread to the primary
+ * 2. After a read-write transaction, the window is (re)started, so the redirect/next page
+ *    after a form post reads its own write
+ * 3. With HTTP sessions the end of the window is a session attribute; requests without a
+ *    session are never pinned
+ * 4. With signed-cookie sessions there is no HTTP session, so the end of the window travels
+ *    in its own cookie. It is set before the response commits (a redirect commits it
+ *    inside the chain). It only chooses which database serves the user's reads, so it is
+ *    not signed, but a value beyond one window from now is ignored
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Session attribute holding the end of the window (epoch millis)
+     */
+    public static final String PRIMARY_UNTIL_ATTRIBUTE = "etms.replica.primaryUntil";
+
+    /**
+     * Cookie holding the end of the window (epoch millis) in signed-cookie session mode
+     */
+    public static final String PRIMARY_UNTIL_COOKIE = "ETMS_PRIMARY_UNTIL";
+
+    private final long windowMs;
+    private final boolean cookieMode;
+    private final boolean secureCookie;
+
+    /**
+     * @param windowMs how long reads stay on the primary after a write
+     * @param cookieMode true to keep the window in a cookie (no HTTP sessions)
+     * @param secureCookie send the cookie over HTTPS only
+     */
+    public ReadYourWritesFilter(long windowMs, boolean cookieMode, boolean secureCookie) {
+        this.windowMs = windowMs;
+        this.cookieMode = cookieMode;
+        this.secureCookie = secureCookie;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        long until = cookieMode ? cookieUntil(request, now) : sessionUntil(request);
+        ReplicaRoutingContext.beginRequest();
+        if (now < until) {
+            ReplicaRoutingContext.pinToPrimary();
+        }
+
+        MarkingResponse markingResponse = cookieMode ? new MarkingResponse(response) : null;
+        try {
+            filterChain.doFilter(request, markingResponse != null ? markingResponse : response);
+        } finally {
+            if (ReplicaRoutingContext.hasWritten()) {
+                if (markingResponse != null) {
+                    markingResponse.markIfWritten();
+                } else {
+                    markSession(request);
+                }
+            }
+            ReplicaRoutingContext.clear();
+        }
+    }
+
+    private static long sessionUntil(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null && session.getAttribute(PRIMARY_UNTIL_ATTRIBUTE) instanceof Long until) {
+            return until;
+        }
+        return 0L;
+    }
+
+    private long cookieUntil(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0L;
+        }
+        for (Cookie cookie : cookies) {
+            if (PRIMARY_UNTIL_COOKIE.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    return until <= now + windowMs ? until : 0L;
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return 0L;
+    }
+
+    private void markSession(HttpServletRequest request) {
+        // The session may have been created or replaced (login) during the request
+        HttpSession current = request.getSession(false);
+        if (current != null) {
+            try {
+                current.setAttribute(PRIMARY_UNTIL_ATTRIBUTE, System.currentTimeMillis() + windowMs);
+            } catch (IllegalStateException ex) {
+                // Session invalidated during the request (logout) - nothing to pin
+            }
+        }
+    }
+
+    /**
+     * Adds the window cookie at the last moment headers can still change, if the
+     * request has written by then.
+     */
+    private final class MarkingResponse extends HttpServletResponseWrapper {
+
+        private boolean marked;
+
+        MarkingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void markIfWritten() {
+            if (marked || isCommitted() || !ReplicaRoutingContext.hasWritten()) {
+                return;
+            }
+            marked = true;
+            addHeader(HttpHeaders.SET_COOKIE, ResponseCookie
+                    .from(PRIMARY_UNTIL_COOKIE, Long.toString(System.currentTimeMillis() + windowMs))
+                    .path("/")
+                    .httpOnly(true)
+                    .secure(secureCookie)
+                    .sameSite("Lax")
+                    .maxAge(Duration.ofMillis(windowMs).toSeconds() + 1)
+                    .build()
+                    .toString());
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            markIfWritten();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            markIfWritten();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            markIfWritten();
+            super.sendError(sc);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            markIfWritten();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            markIfWritten();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            markIfWritten();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.activwork.etms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+
+/**
+ * Read-replica routing configuration (datasource.replica.enabled=true).
+ *
+ * GRASP Pattern: Creator
+ * - Builds the primary and replica pools and the routing DataSource JPA runs on
+ *
+ * Design Notes:
+ * 1. Replaces Boot's single DataSource; the primary pool still binds spring.datasource.*
+ *    and spring.datasource.hikari.*, so profiles (e.g. prod) apply unchanged
+ * 2. The replica pool copies the primary's driver properties (statement cache etc.)
+ *    and opens read-only connections, so a misrouted write fails loudly
+ * 3. Without datasource.replica.url the replica pool connects to the primary database:
+ *    a stand-in that exercises routing locally without a second server
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+                                              ReplicaDataSourceProperties replicaProperties,
+                                              @Qualifier("primaryDataSource") HikariDataSource primaryDataSource) {
+        String url = StringUtils.hasText(replicaProperties.getUrl())
+                ? replicaProperties.getUrl() : dataSourceProperties.determineUrl();
+        String username = replicaProperties.getUsername() != null
+                ? replicaProperties.getUsername() : dataSourceProperties.determineUsername();
+        String password = replicaProperties.getPassword() != null
+                ? replicaProperties.getPassword() : dataSourceProperties.determinePassword();
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("etms-replica-pool");
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+        replica.setMaxLifetime(primaryDataSource.getMaxLifetime());
+        replica.setReadOnly(true);
+        Properties driverProperties = new Properties();
+        driverProperties.putAll(primaryDataSource.getDataSourceProperties());
+        replica.setDataSourceProperties(driverProperties);
+
+        log.info("Read replica routing enabled (replica: {})",
+                StringUtils.hasText(replicaProperties.getUrl()) ? url : "stand-in on the primary database");
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                               ReplicaDataSourceProperties replicaProperties,
+                                               TaskScheduler taskScheduler) {
+        return new ReplicaLagMonitor(replicaDataSource, replicaProperties.getMaxLagMs(),
+                replicaProperties.getLagCheckIntervalMs(), taskScheduler);
+    }
+
+    /**
+     * The DataSource used by JPA, JdbcTemplate and transactions.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor::isAvailable));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaDataSourceProperties replicaProperties,
+                                                     SignedSessionProperties signedSessionProperties) {
+        // Signed-cookie sessions have no HTTP session to keep the window in
+        return new ReadYourWritesFilter(replicaProperties.getReadYourWritesMs(),
+                signedSessionProperties.isEnabled(), signedSessionProperties.isSecure());
+    }
+}
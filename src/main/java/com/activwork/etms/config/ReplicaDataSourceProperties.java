@@ -0,0 +1,58 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for read-replica routing.
+ * Reads replica settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows the replica connection, lag tolerance and read-your-writes window
+ */
+@Configuration
+@ConfigurationProperties(prefix = "datasource.replica")
+@Data
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Route read-only transactions to the replica (off = everything uses spring.datasource)
+     */
+    private boolean enabled = false;
+
+    /**
+     * Replica JDBC URL; empty points the replica pool at the primary (stand-in for local testing)
+     */
+    private String url;
+
+    /**
+     * Replica username (defaults to spring.datasource.username)
+     */
+    private String username;
+
+    /**
+     * Replica password (defaults to spring.datasource.password)
+     */
+    private String password;
+
+    /**
+     * Maximum connections in the replica pool
+     */
+    private int maximumPoolSize = 20;
+
+    /**
+     * Reads fall back to the primary while replication lag is above this (default 5 seconds)
+     */
+    private long maxLagMs = 5000L;
+
+    /**
+     * How often replication lag is measured (default 1 second)
+     */
+    private long lagCheckIntervalMs = 1000L;
+
+    /**
+     * After a user's write, their reads stay on the primary for this long (default 5 seconds)
+     */
+    private long readYourWritesMs = 5000L;
+}
@@ -0,0 +1,86 @@
+package com.activwork.etms.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Measures replication lag on the replica and decides whether reads may use it.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows the replica's health; ReplicaRoutingDataSource asks it before every read
+ *
+ * Design Notes:
+ * 1. Polled on the shared task scheduler, so routing costs a volatile read, not a query
+ * 2. Lag is 0 when the replica has replayed everything it received; otherwise the age of
+ *    the last replayed transaction. A stand-in that is not in recovery reports 0
+ * 3. Unreachable or lagging beyond the limit = unavailable; reads fall back to the primary
+ *    until a later check succeeds
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMs;
+    private final ScheduledFuture<?> checks;
+
+    private volatile boolean available;
+    private volatile long lagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMs, long checkIntervalMs, TaskScheduler taskScheduler) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.maxLagMs = maxLagMs;
+        this.checks = taskScheduler.scheduleWithFixedDelay(this::check, Duration.ofMillis(Math.max(100, checkIntervalMs)));
+    }
+
+    /**
+     * @return true if reads may go to the replica
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @return last measured lag in millis, or -1 if the replica could not be reached
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    void check() {
+        boolean wasAvailable = available;
+        try {
+            Number lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Number.class);
+            lagMs = lag != null ? lag.longValue() : 0L;
+            available = lagMs <= maxLagMs;
+        } catch (RuntimeException ex) {
+            lagMs = -1;
+            available = false;
+            if (wasAvailable) {
+                log.warn("Replica unreachable, reads fall back to the primary", ex);
+            }
+        }
+
+        if (available && !wasAvailable) {
+            log.info("✅ Replica available for reads (lag {} ms)", lagMs);
+        } else if (!available && wasAvailable && lagMs >= 0) {
+            log.warn("⚠️ Replica lag {} ms above {} ms, reads fall back to the primary", lagMs, maxLagMs);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checks.cancel(true);
+    }
+}
@@ -0,0 +1,92 @@
+package com.activwork.etms.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-thread routing hints for ReplicaRoutingDataSource.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Carries the read-your-writes state of the current request to the DataSource
+ *
+ * Design Notes:
+ * 1. Pinned: read-only transactions on this thread use the primary
+ *    (set by ReadYourWritesFilter for sessions inside their window)
+ * 2. Wrote: a read-write transaction ran on this thread; also pins,
+ *    so reads later in the same request see the write
+ * 3. Inside a request (ReadYourWritesFilter) the hints last until the request ends and
+ *    are cleared there
+ * 4. Outside a request (scheduler and executor threads) there is no end of request to
+ *    clear them, so a write only pins until its transaction completes; a pooled thread
+ *    never carries the pin into its next job
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> IN_REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> WROTE = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * Start a request: hints now last until clear().
+     */
+    public static void beginRequest() {
+        IN_REQUEST.set(Boolean.TRUE);
+    }
+
+    /**
+     * Send this thread's read-only transactions to the primary.
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * @return true if read-only transactions must use the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    /**
+     * Record that this thread ran a read-write transaction.
+     * Outside a request the record ends with the current transaction; without
+     * transaction synchronization there is nothing to scope it to, so it is not kept.
+     */
+    public static void markWrite() {
+        if (hasWritten()) {
+            return;
+        }
+        if (IN_REQUEST.get() == null) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+        WROTE.set(Boolean.TRUE);
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * @return true if this thread ran a read-write transaction
+     */
+    public static boolean hasWritten() {
+        return WROTE.get() != null;
+    }
+
+    /**
+     * Reset the hints (end of request, or end of the writing transaction outside one).
+     */
+    public static void clear() {
+        IN_REQUEST.remove();
+        PINNED_TO_PRIMARY.remove();
+        WROTE.remove();
+    }
+}
@@ -0,0 +1,71 @@
+package com.activwork.etms.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * DataSource that sends read-only transactions to a replica and everything else to the primary.
+ *
+ * GRASP Pattern: Indirection
+ * - Services keep using @Transactional(readOnly = true); routing needs no code changes
+ *
+ * Design Notes:
+ * 1. Must be wrapped in a LazyConnectionDataSourceProxy: the transaction manager asks for
+ *    a connection before the read-only flag is visible, the proxy defers the real
+ *    lookup to the first statement
+ * 2. Replica only when: a read-only transaction is active, the thread is not pinned by
+ *    read-your-writes, and the replica is healthy and within the lag limit
+ * 3. Work outside a transaction goes to the primary (safe default)
+ * 4. Read-write transactions mark the thread, so later reads in the request see the write
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Lookup keys
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final BooleanSupplier replicaAvailable;
+
+    /**
+     * @param primary the read-write DataSource
+     * @param replica the read-only DataSource
+     * @param replicaAvailable false while the replica is down or lagging
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    /**
+     * @return where a connection requested now would go
+     */
+    public Route currentRoute() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReplicaRoutingContext.markWrite();
+            return Route.PRIMARY;
+        }
+        if (ReplicaRoutingContext.isPinnedToPrimary() || !replicaAvailable.getAsBoolean()) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+}
@@ -0,0 +1,105 @@
+package com.activwork.etms.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Background job configuration.
+ * Periodic jobs are @Scheduled methods on one shared scheduler; work handed off by
+ * requests runs on the bounded executors below.
+ *
+ * Design Notes:
+ * 1. The scheduler is sized by spring.task.scheduling.pool.size (default 4); most periodic
+ *    jobs are short (a rebuild, a flush, a heartbeat), so a few threads serve all of them
+ * 2. Each executor keeps its own pool and queue, so a burst of one kind of work cannot
+ *    delay another
+ * 3. All pools are Spring-managed: they stop with the application context instead of
+ *    relying on daemon threads
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * The scheduler behind every @Scheduled method (and ReplicaLagMonitor).
+     * Several threads, so a long orphaned file GC run does not hold up heartbeats.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder,
+                                                 @Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        return builder.poolSize(Math.max(1, poolSize)).build();
+    }
+
+    /**
+     * Course copies (CourseCloneService); a full queue refuses new copies.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor courseCloneExecutor(CourseCloneProperties courseCloneProperties) {
+        int threads = Math.max(1, courseCloneProperties.getThreads());
+        return executor("course-clone-", threads, Math.max(1, courseCloneProperties.getQueueCapacity()));
+    }
+
+    /**
+     * Material files of deleted courses (CourseDeletionService), one course at a time.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor courseFileCleanupExecutor() {
+        return executor("course-file-cleanup-", 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The flat-to-shard material file migration (MaterialStorageMigrationService), one run at a time.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor materialMigrationExecutor() {
+        return executor("material-shard-migration-", 1, 1);
+    }
+
+    /**
+     * Sweep partitions of the orphaned file GC (OrphanFileCollector): file.gc-parallelism
+     * threads; the queue holds every partition of one run (banners, flat materials, 256 shards).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orphanFileGcExecutor(FileStorageProperties fileStorageProperties) {
+        return executor("orphan-file-gc-", Math.max(1, fileStorageProperties.getGcParallelism()), 512);
+    }
+
+    /**
+     * Progress pushes to open SSE streams (ProgressStreamService); a full queue drops deltas.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor progressDispatchExecutor(ProgressStreamProperties progressStreamProperties) {
+        int threads = Math.max(1, progressStreamProperties.getDispatchThreads());
+        return executor("progress-sse-", threads, Math.max(1, progressStreamProperties.getDispatchQueueCapacity()));
+    }
+
+    /**
+     * Password checks of sign-ins (BoundedLoginAuthenticationProvider); a full queue turns
+     * sign-ins away. login-threads 0 means half the cores.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor(PasswordHashingProperties passwordHashingProperties) {
+        int threads = passwordHashingProperties.getLoginThreads() > 0
+                ? passwordHashingProperties.getLoginThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int queueCapacity = Math.max(1, passwordHashingProperties.getLoginQueueCapacity());
+        log.info("Login executor: {} threads, queue {}", threads, queueCapacity);
+        return executor("login-", threads, queueCapacity);
+    }
+
+    private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+}
@@ -0,0 +1,54 @@
+package com.activwork.etms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the stateless (signed cookie) session mode.
+ * Reads signed-session settings from application.properties.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows whether sign-ins are kept in HTTP sessions or in a signed cookie,
+ *   and how that cookie is signed, named and expired
+ */
+@Configuration
+@ConfigurationProperties(prefix = "signed-session")
+@Data
+public class SignedSessionProperties {
+
+    /**
+     * false = container HTTP sessions (default); true = no server-side session,
+     * authentication travels in an HMAC-signed cookie
+     */
+    private boolean enabled = false;
+
+    /**
+     * HMAC-SHA256 key, at least 32 bytes (base64 or plain text).
+     * Must be the same on every instance behind the load balancer
+     */
+    private String secret;
+
+    private String cookieName = "ETMS_SESSION";
+
+    /**
+     * Sign-in lifetime without activity; the cookie is re-issued once half of it has passed
+     */
+    private long ttlMinutes = 30L;
+
+    /**
+     * Send the cookie over HTTPS only
+     */
+    private boolean secure = false;
+
+    /**
+     * How long a node trusts its cached session version before re-reading it.
+     * A sign-in on another node (or a logout there) takes effect here within this time
+     */
+    private long versionCacheSeconds = 10L;
+
+    /**
+     * Upper bound on cached users per node
+     */
+    private int versionCacheMaxEntries = 10_000;
+}
@@ -0,0 +1,33 @@
+package com.activwork.etms.config;
+
+import com.activwork.etms.service.UserActivityTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Records the last activity of the authenticated user on every handled request.
+ * Only touches UserActivityTracker's in-memory map; the database write is batched.
+ */
+@RequiredArgsConstructor
+public class UserActivityInterceptor implements HandlerInterceptor {
+
+    private final UserActivityTracker userActivityTracker;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            userActivityTracker.recordByEmail(authentication.getName());
+        }
+        return true;
+    }
+}
@@ -1,17 +1,27 @@
 package com.activwork.etms.config;
 
+import com.activwork.etms.service.BlobStore;
+import com.activwork.etms.service.UserActivityTracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Web MVC Configuration.
- * Configures resource handlers for serving uploaded files.
+ * Configures resource handlers for serving uploaded files and static assets,
+ * and the user activity interceptor.
  * 
  * Security Notes:
  * - Files are served via controlled endpoints
@@ -21,30 +31,102 @@ import java.nio.file.Paths;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    /**
+     * Static asset folders under classpath:/static/ served with fingerprinted URLs
+     */
+    private static final String[] STATIC_ASSET_FOLDERS = {"css", "js", "images"};
+
+    /**
+     * Fingerprinted assets never change under the same URL, so cache them for a year
+     */
+    private static final long STATIC_ASSET_CACHE_DAYS = 365;
+
     @Autowired
     private FileStorageProperties fileStorageProperties;
 
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private UserActivityTracker userActivityTracker;
+
+    @Autowired
+    private ActivityTrackingProperties activityTrackingProperties;
+
+    /**
+     * Track the last activity of authenticated users (not for static assets or uploads).
+     */
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        if (activityTrackingProperties.isEnabled()) {
+            registry.addInterceptor(new UserActivityInterceptor(userActivityTracker))
+                    .excludePathPatterns("/css/**", "/js/**", "/images/**", "/uploads/**");
+        }
+    }
+
     /**
      * Configure resource handlers to serve uploaded files.
      * 
      * Endpoints:
-     * - /uploads/banners/** → serves course banner images
+     * - /uploads/banners/** → serves course banner images (content-hashed names, cached as immutable)
      * - /uploads/materials/** → serves course materials
+     * - /css/**, /js/**, /images/** → static assets with content-hash URLs (e.g. /css/layout-3f2a...css)
      */
     @Override
     public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
-        String uploadLocation = "file:" + uploadPath.toString() + "/";
+        // Uploads are resolved through the BlobStore (local disk or S3-compatible store)
         
-        // Serve banner images
+        // Serve banner images - names are content hashes or UUIDs and never overwritten
         registry.addResourceHandler("/uploads/banners/**")
-                .addResourceLocations(uploadLocation + "banners/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCacheControl(CacheControl
+                        .maxAge(fileStorageProperties.getBannerCacheSeconds(), TimeUnit.SECONDS)
+                        .cachePublic()
+                        .immutable())
+                .resourceChain(false)
+                .addResolver(new BlobStoreResourceResolver(blobStore, "banners/"));
         
         // Serve course materials
         registry.addResourceHandler("/uploads/materials/**")
-                .addResourceLocations(uploadLocation + "materials/")
-                .setCachePeriod(3600);
+                .setCachePeriod(3600)
+                .resourceChain(false)
+                .addResolver(new BlobStoreResourceResolver(blobStore, "materials/"));
+
+        // Serve static assets - the URL carries an MD5 of the content, so it is safe to cache forever.
+        // EncodedResourceResolver picks the .br / .gz sibling produced at build time when the
+        // client accepts it; VersionResourceResolver maps /css/layout-<hash>.css back to layout.css.
+        for (String folder : STATIC_ASSET_FOLDERS) {
+            registry.addResourceHandler("/" + folder + "/**")
+                    .addResourceLocations("classpath:/static/" + folder + "/")
+                    .setCacheControl(CacheControl
+                            .maxAge(STATIC_ASSET_CACHE_DAYS, TimeUnit.DAYS)
+                            .cachePublic()
+                            .immutable())
+                    .setUseLastModified(true)
+                    .setEtagGenerator(WebMvcConfig::versionEtag)
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /**
+     * Rewrites URLs produced by {@code @{/css/...}} in templates (via response.encodeURL)
+     * to their fingerprinted form, so every page references versioned assets.
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    /**
+     * Use the content version as ETag so If-None-Match revalidation answers 304.
+     * Only fingerprinted requests resolve to an HttpResource carrying a version ETag.
+     */
+    private static String versionEtag(Resource resource) {
+        if (resource instanceof HttpResource httpResource) {
+            return httpResource.getResponseHeaders().getETag();
+        }
+        return null;
     }
 }
 
@@ -47,6 +47,7 @@ public class AuthController {
      * 
      * @param error login error parameter
      * @param logout logout success parameter
+     * @param busy sign-in turned away under load
      * @param model the model for view
      * @return login view name
      */
@@ -54,12 +55,17 @@ public class AuthController {
     public String showLoginPage(
             @RequestParam(required = false) String error,
             @RequestParam(required = false) String logout,
+            @RequestParam(required = false) String busy,
             Model model) {
         
         if (error != null) {
             model.addAttribute("error", "Invalid email or password");
         }
         
+        if (busy != null) {
+            model.addAttribute("error", "Too many sign-ins right now. Please try again in a few seconds.");
+        }
+        
         if (logout != null) {
             model.addAttribute("message", "You have been logged out successfully");
         }
@@ -1,13 +1,21 @@
 package com.activwork.etms.controller;
 
+import com.activwork.etms.config.CourseFacetProperties;
+import com.activwork.etms.dto.CourseBrowseDto;
 import com.activwork.etms.dto.CourseListDto;
-import com.activwork.etms.dto.FeedbackResponseDto;
+import com.activwork.etms.dto.FeedbackPageDto;
+import com.activwork.etms.dto.RatingHistogramDto;
 import com.activwork.etms.model.CourseCategory;
 import com.activwork.etms.security.CustomUserDetailsService;
 import com.activwork.etms.service.CourseService;
 import com.activwork.etms.service.FeedbackService;
+import com.activwork.etms.service.FragmentCache;
+import com.activwork.etms.service.HomeFeedService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
@@ -15,10 +23,11 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Controller for public home and course browsing pages.
@@ -27,38 +36,54 @@ import java.util.stream.Collectors;
  * - Routes public requests (homepage, course browsing)
  * - Delegates to CourseService for data
  * - No authentication required
+ * - User-independent card grids are spliced in as cached HTML (FragmentCache)
  * 
  * Endpoints:
  * - GET / - Homepage
- * - GET /courses - Browse all courses
+ * - GET /courses - Browse courses by facets
+ * - GET /courses/browse - Faceted catalog page (JSON)
  * - GET /courses/search - Search courses
  * - GET /courses/{id} - View course details
+ * - GET /courses/{id}/feedback - Page through course reviews (JSON)
  */
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 public class HomeController {
 
+    private static final int REVIEWS_PER_PAGE = 5;
+
     private final CourseService courseService;
     private final CustomUserDetailsService customUserDetailsService;
     private final FeedbackService feedbackService;
+    private final HomeFeedService homeFeedService;
+    private final CourseFacetProperties courseFacetProperties;
+    private final FragmentCache fragmentCache;
 
     /**
      * Display homepage.
      * 
      * @param userDetails optional authenticated user details
      * @param model the model for view
+     * @param request the HTTP request
+     * @param response the HTTP response
      * @return homepage view name
      */
     @GetMapping("/")
     public String showHomePage(
             @AuthenticationPrincipal UserDetails userDetails,
-            Model model) {
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         log.info("Displaying homepage");
         
-        // Get featured courses for homepage
-        List<CourseListDto> featuredCourses = courseService.getFeaturedCourses();
+        // Get featured courses for homepage (cached feed, cached HTML)
+        long catalogVersion = fragmentCache.catalogVersion();
+        List<CourseListDto> featuredCourses = homeFeedService.getFeaturedCourses();
         model.addAttribute("featuredCourses", featuredCourses);
+        model.addAttribute("featuredGridHtml", fragmentCache.render("featuredGrid",
+                fragmentCache.courseListKey(featuredCourses), catalogVersion,
+                Map.of("featuredCourses", featuredCourses), request, response));
         
         // Add user info if authenticated
         if (userDetails != null) {
@@ -70,51 +95,94 @@ public class HomeController {
     }
 
     /**
-     * Browse all available courses.
+     * Browse available courses by facets (category, duration, rating).
      * 
      * @param category optional category filter
+     * @param duration optional duration filter
+     * @param rating optional rating filter
+     * @param cursor optional cursor of the previous page
      * @param model the model for view
+     * @param request the HTTP request
+     * @param response the HTTP response
      * @return courses browse view name
      */
     @GetMapping("/courses")
     public String browseCourses(
             @RequestParam(required = false) CourseCategory category,
-            Model model) {
-        
-        log.info("Browsing courses - category: {}", category);
+            @RequestParam(required = false) CourseBrowseDto.DurationBucket duration,
+            @RequestParam(required = false) CourseBrowseDto.RatingBucket rating,
+            @RequestParam(required = false) String cursor,
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         
-        List<CourseListDto> courses;
+        log.info("Browsing courses - category: {}, duration: {}, rating: {}", category, duration, rating);
         
-        if (category != null) {
-            courses = courseService.getCoursesByCategory(category);
-        } else {
-            courses = courseService.getAvailableCourses();
-        }
+        long catalogVersion = fragmentCache.catalogVersion();
+        CourseBrowseDto browse = courseService.browseCourses(
+                category, duration, rating, cursor, courseFacetProperties.getPageSize());
         
-        model.addAttribute("courses", courses);
+        model.addAttribute("browse", browse);
+        model.addAttribute("courses", browse.getCourses());
+        model.addAttribute("courseGridHtml", renderCourseGrid(browse.getCourses(), catalogVersion, request, response));
         model.addAttribute("categories", CourseCategory.values());
+        model.addAttribute("durations", CourseBrowseDto.DurationBucket.values());
+        model.addAttribute("ratings", CourseBrowseDto.RatingBucket.values());
         model.addAttribute("selectedCategory", category);
+        model.addAttribute("selectedDuration", duration);
+        model.addAttribute("selectedRating", rating);
         
         return "courses/browse";
     }
 
+    /**
+     * Faceted catalog page as JSON (same selection as the browse page).
+     * 
+     * @param category optional category filter
+     * @param duration optional duration filter
+     * @param rating optional rating filter
+     * @param cursor optional cursor of the previous page
+     * @param size optional page size (capped)
+     * @return the page of courses with facet counts and the next cursor
+     */
+    @GetMapping("/courses/browse")
+    @ResponseBody
+    public CourseBrowseDto browseCoursesJson(
+            @RequestParam(required = false) CourseCategory category,
+            @RequestParam(required = false) CourseBrowseDto.DurationBucket duration,
+            @RequestParam(required = false) CourseBrowseDto.RatingBucket rating,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        
+        int pageSize = size != null
+                ? Math.max(1, Math.min(size, courseFacetProperties.getMaxPageSize()))
+                : courseFacetProperties.getPageSize();
+        return courseService.browseCourses(category, duration, rating, cursor, pageSize);
+    }
+
     /**
      * Search courses by keyword.
      * 
      * @param keyword the search keyword
      * @param model the model for view
+     * @param request the HTTP request
+     * @param response the HTTP response
      * @return courses browse view name
      */
     @GetMapping("/courses/search")
     public String searchCourses(
             @RequestParam String keyword,
-            Model model) {
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         
         log.info("Searching courses with keyword: {}", keyword);
         
+        long catalogVersion = fragmentCache.catalogVersion();
         List<CourseListDto> courses = courseService.searchCoursesByTitle(keyword);
         
         model.addAttribute("courses", courses);
+        model.addAttribute("courseGridHtml", renderCourseGrid(courses, catalogVersion, request, response));
         model.addAttribute("keyword", keyword);
         model.addAttribute("categories", CourseCategory.values());
         
@@ -126,29 +194,70 @@ public class HomeController {
      * 
      * @param id the course UUID
      * @param model the model for view
+     * @param request the HTTP request
+     * @param response the HTTP response
      * @return course details view name
      */
     @GetMapping("/courses/{id}")
-    public String viewCourse(@PathVariable UUID id, Model model) {
+    public String viewCourse(@PathVariable UUID id, Model model,
+                             HttpServletRequest request, HttpServletResponse response) {
         log.info("Viewing course details: {}", id);
         
+        long catalogVersion = fragmentCache.catalogVersion();
         var course = courseService.getCourseById(id);
         
         // Increment view count
         courseService.incrementViewCount(id);
         
-        // Load course feedback (first 5 visible feedback)
-        List<FeedbackResponseDto> feedback = feedbackService.getVisibleFeedbackByCourse(id);
-        List<FeedbackResponseDto> displayedFeedback = feedback.stream()
-                .limit(5)
-                .collect(Collectors.toList());
+        // Load only the reviews shown (first page) and the rating histogram
+        FeedbackPageDto feedbackPage = feedbackService.getVisibleFeedbackPage(
+                id, FeedbackPageDto.Sort.NEWEST, null, REVIEWS_PER_PAGE);
+        RatingHistogramDto ratingHistogram = feedbackService.getRatingHistogram(id);
         
         model.addAttribute("course", course);
-        model.addAttribute("feedback", displayedFeedback);
-        model.addAttribute("totalFeedbackCount", feedback.size());
-        model.addAttribute("hasMoreFeedback", feedback.size() > 5);
+        model.addAttribute("courseOverviewHtml", fragmentCache.render("courseOverview",
+                fragmentCache.courseKey(id), catalogVersion, Map.of("course", course), request, response));
+        model.addAttribute("feedback", feedbackPage.getFeedback());
+        model.addAttribute("ratingHistogram", ratingHistogram);
+        model.addAttribute("totalFeedbackCount", ratingHistogram.getTotal());
+        model.addAttribute("hasMoreFeedback", feedbackPage.getNextCursor() != null);
+        model.addAttribute("nextFeedbackCursor", feedbackPage.getNextCursor());
         
         return "courses/details";
     }
-}
 
+    /**
+     * Page through a course's visible reviews (JSON, used by "See More Reviews").
+     * 
+     * @param id the course UUID
+     * @param sort feedback ordering (default newest)
+     * @param cursor optional cursor of the previous page
+     * @param size optional page size (capped)
+     * @return the page of reviews, or 400 for a malformed cursor
+     */
+    @GetMapping("/courses/{id}/feedback")
+    @ResponseBody
+    public ResponseEntity<FeedbackPageDto> getCourseFeedback(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "NEWEST") FeedbackPageDto.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        
+        try {
+            int pageSize = size != null ? size : REVIEWS_PER_PAGE;
+            return ResponseEntity.ok(feedbackService.getVisibleFeedbackPage(id, sort, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad feedback page request for course {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Catalog card grid as cached HTML (same cards for browse and search results).
+     */
+    private String renderCourseGrid(List<CourseListDto> courses, long catalogVersion,
+                                    HttpServletRequest request, HttpServletResponse response) {
+        return fragmentCache.render("courseGrid", fragmentCache.courseListKey(courses), catalogVersion,
+                Map.of("courses", courses), request, response);
+    }
+}
@@ -1,13 +1,18 @@
 package com.activwork.etms.controller;
 
+import com.activwork.etms.config.ActivityTrackingProperties;
 import com.activwork.etms.dto.*;
+import com.activwork.etms.exception.ResourceNotFoundException;
 import com.activwork.etms.model.MaterialType;
 import com.activwork.etms.security.CustomUserDetailsService;
+import com.activwork.etms.service.CourseCloneService;
 import com.activwork.etms.service.CourseService;
+import com.activwork.etms.service.EnrollmentExportService;
 import com.activwork.etms.service.EnrollmentService;
 import com.activwork.etms.service.FeedbackService;
 import com.activwork.etms.service.FileStorageService;
 import com.activwork.etms.service.MaterialService;
+import com.activwork.etms.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,13 +23,15 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.http.ResponseEntity;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Controller for instructor-specific operations.
@@ -49,7 +56,10 @@ import java.util.stream.Collectors;
  * - POST /instructor/courses/{id}/publish - Publish course
  * - POST /instructor/courses/{id}/archive - Archive course
  * - POST /instructor/courses/{id}/delete - Delete course
+ * - POST /instructor/courses/{id}/clone - Copy course with sections and materials (background)
+ * - GET  /instructor/courses/clone-jobs/{jobId} - Course copy progress (AJAX)
  * - GET  /instructor/courses/{id}/enrollments - View course enrollments
+ * - GET  /instructor/courses/{id}/enrollments/export - Stream enrollments as CSV or NDJSON
  * - GET  /instructor/courses/{id}/feedback - View course feedback
  */
 @Slf4j
@@ -59,12 +69,16 @@ import java.util.stream.Collectors;
 public class InstructorController {
 
     private final CourseService courseService;
+    private final CourseCloneService courseCloneService;
     private final EnrollmentService enrollmentService;
     private final FeedbackService feedbackService;
     private final MaterialService materialService;
     private final FileStorageService fileStorageService;
     private final CustomUserDetailsService userDetailsService;
     private final com.activwork.etms.service.CourseSectionService courseSectionService;
+    private final EnrollmentExportService enrollmentExportService;
+    private final UserService userService;
+    private final ActivityTrackingProperties activityTrackingProperties;
 
     /**
      * Display instructor dashboard.
@@ -98,6 +112,8 @@ public class InstructorController {
         model.addAttribute("totalCourses", courses.size());
         model.addAttribute("publishedCount", publishedCount);
         model.addAttribute("draftCount", draftCount);
+        model.addAttribute("activeLearners", userService.countActiveLearnersByInstructor(user.getId()));
+        model.addAttribute("activeWindowMinutes", activityTrackingProperties.getActiveWindowMinutes());
         
         return "instructor/dashboard";
     }
@@ -134,6 +150,8 @@ public class InstructorController {
         model.addAttribute("publishedCount", publishedCount);
         model.addAttribute("draftCount", draftCount);
         model.addAttribute("archivedCount", archivedCount);
+        // Running and recently finished course copies (progress is polled by the page)
+        model.addAttribute("cloneJobs", courseCloneService.getJobs(user.getId()));
         
         return "instructor/courses";
     }
@@ -466,6 +484,60 @@ public class InstructorController {
         return "redirect:/instructor/courses";
     }
 
+    /**
+     * Copy a course with its sections and materials.
+     * The copy runs in the background and appears as an inactive draft until complete.
+     * 
+     * @param id the course UUID
+     * @param title title of the copy (optional, defaults to "&lt;title&gt; (Copy)")
+     * @param userDetails the authenticated user
+     * @param redirectAttributes attributes for redirect
+     * @return redirect to courses list
+     */
+    @PostMapping("/courses/{id}/clone")
+    public String cloneCourse(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String title,
+            @AuthenticationPrincipal UserDetails userDetails,
+            RedirectAttributes redirectAttributes) {
+        
+        try {
+            var user = userDetailsService.getUserByEmail(userDetails.getUsername());
+            CourseCloneJobDto job = courseCloneService.startClone(id, user.getId(), title);
+            
+            log.info("Course copy started: {} (job {})", id, job.getJobId());
+            redirectAttributes.addFlashAttribute("success",
+                    "Copying course as \"" + job.getTitle() + "\". It will appear as a draft when complete.");
+            
+        } catch (Exception e) {
+            log.error("Course copy failed to start", e);
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        
+        return "redirect:/instructor/courses";
+    }
+
+    /**
+     * Get the progress of a course copy (AJAX endpoint).
+     * 
+     * @param jobId the copy job UUID
+     * @param userDetails the authenticated user
+     * @return the copy progress, or 404 if unknown
+     */
+    @GetMapping("/courses/clone-jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<CourseCloneJobDto> getCloneJob(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        try {
+            var user = userDetailsService.getUserByEmail(userDetails.getUsername());
+            return ResponseEntity.ok(courseCloneService.getJob(jobId, user.getId()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Preview course as learners see it.
      * 
@@ -489,18 +561,10 @@ public class InstructorController {
             directMaterials = materialService.getActiveMaterialsByCourse(id);
         }
         
-        // Load course feedback (first 5 visible feedback)
-        List<FeedbackResponseDto> feedback = feedbackService.getVisibleFeedbackByCourse(id);
-        List<FeedbackResponseDto> displayedFeedback = feedback.stream()
-                .limit(5)
-                .collect(Collectors.toList());
-        
+        // The preview page shows no reviews, so none are loaded
         model.addAttribute("course", course);
         model.addAttribute("sections", sections);
         model.addAttribute("directMaterials", directMaterials);
-        model.addAttribute("feedback", displayedFeedback);
-        model.addAttribute("totalFeedbackCount", feedback.size());
-        model.addAttribute("hasMoreFeedback", feedback.size() > 5);
         model.addAttribute("isPreview", true); // Flag to show instructor controls
         
         return "instructor/course-preview";
@@ -530,20 +594,27 @@ public class InstructorController {
                 return ResponseEntity.status(403).build();
             }
             
-            // Load file resource
-            org.springframework.core.io.Resource resource = fileStorageService.loadFileAsResource(material.getFilename(), "material");
-            
             // Determine content type
             String contentType = material.getMimeType();
             if (contentType == null) {
                 contentType = "application/octet-stream";
             }
+            String contentDisposition = "inline; filename=\"" + material.getOriginalFilename() + "\"";
+            
+            // Remote storage: let the client fetch the file directly
+            Optional<URI> directUrl = fileStorageService.getPresignedMaterialUrl(
+                    material.getFilename(), contentType, contentDisposition);
+            if (directUrl.isPresent()) {
+                return ResponseEntity.status(org.springframework.http.HttpStatus.FOUND).location(directUrl.get()).build();
+            }
+            
+            // Load file resource
+            org.springframework.core.io.Resource resource = fileStorageService.loadFileAsResource(material.getFilename(), "material");
             
             // Return file
             return ResponseEntity.ok()
                     .contentType(org.springframework.http.MediaType.parseMediaType(contentType))
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, 
-                            "inline; filename=\"" + material.getOriginalFilename() + "\"")
+                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
                     .body(resource);
                     
         } catch (Exception e) {
@@ -552,6 +623,50 @@ public class InstructorController {
         }
     }
     
+    /**
+     * Export enrollments for a course, streamed row by row.
+     * 
+     * @param id the course UUID
+     * @param format csv (default) or ndjson
+     * @param userDetails the authenticated user
+     * @return streaming download
+     */
+    @GetMapping("/courses/{id}/enrollments/export")
+    public ResponseEntity<StreamingResponseBody> exportCourseEnrollments(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "csv") String format,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        try {
+            var user = userDetailsService.getUserByEmail(userDetails.getUsername());
+            
+            // Verify instructor owns the course
+            CourseResponseDto course = courseService.getCourseById(id);
+            if (!course.getInstructorId().equals(user.getId())) {
+                return ResponseEntity.status(403).build();
+            }
+            
+            EnrollmentExportService.Format exportFormat =
+                    EnrollmentExportService.Format.valueOf(format.toUpperCase(java.util.Locale.ROOT));
+            String filename = "enrollments-" + id + "." + exportFormat.getExtension();
+            
+            StreamingResponseBody body = out -> enrollmentExportService.exportCourseEnrollments(id, exportFormat, out);
+            
+            return ResponseEntity.ok()
+                    .contentType(org.springframework.http.MediaType.parseMediaType(
+                            exportFormat.getContentType() + ";charset=UTF-8"))
+                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + filename + "\"")
+                    .body(body);
+                    
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Failed to export enrollments for course: {}", id, e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
     /**
      * View enrollments for a course.
      * 
@@ -961,4 +1076,3 @@ public class InstructorController {
         }
     }
 }
-
@@ -4,9 +4,16 @@ import com.activwork.etms.dto.*;
 import com.activwork.etms.security.CustomUserDetailsService;
 import com.activwork.etms.service.CourseService;
 import com.activwork.etms.service.EnrollmentService;
+import com.activwork.etms.service.EnrollmentVersionService;
+import com.activwork.etms.service.EnrollmentVersionService.EnrollmentVersion;
 import com.activwork.etms.service.FeedbackService;
 import com.activwork.etms.service.MaterialService;
 import com.activwork.etms.service.FileStorageService;
+import com.activwork.etms.service.ProgressStreamService;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,13 +23,19 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -42,7 +55,10 @@ import java.util.UUID;
  * - GET  /learner/dashboard - Learner dashboard with enrollments
  * - POST /courses/{id}/enroll - Enroll in a course
  * - GET  /learner/enrollments - List all enrollments
- * - GET  /learner/enrollments/{id} - View enrollment details
+ * - GET  /learner/enrollments/{id} - View enrollment details (ETag / 304)
+ * - GET  /learner/enrollments/{id}/progress - Enrollment progress JSON (ETag / 304)
+ * - GET  /learner/enrollments/{id}/materials/progress - Material progress JSON (ETag / 304)
+ * - GET  /learner/enrollments/{id}/progress/stream - SSE stream of progress deltas
  * - POST /learner/enrollments/{id}/cancel - Cancel enrollment
  * - GET  /courses/{id}/feedback/submit - Feedback form
  * - POST /courses/{id}/feedback/submit - Submit feedback
@@ -53,6 +69,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class LearnerController {
 
+    // Revalidate on every use; private because the content is the learner's own
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // CSRF cookie of the stateless (signed-session) mode
+    private static final String CSRF_COOKIE = "XSRF-TOKEN";
+
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
     private final FeedbackService feedbackService;
@@ -60,6 +82,8 @@ public class LearnerController {
     private final FileStorageService fileStorageService;
     private final CustomUserDetailsService userDetailsService;
     private final com.activwork.etms.service.CourseSectionService courseSectionService;
+    private final ProgressStreamService progressStreamService;
+    private final EnrollmentVersionService enrollmentVersionService;
 
     /**
      * Display learner dashboard.
@@ -161,15 +185,39 @@ public class LearnerController {
 
     /**
      * View enrollment details.
+     * Answers 304 Not Modified, before loading anything, if the learner's cached copy is current.
      * 
      * @param id the enrollment UUID
+     * @param userDetails the authenticated user
+     * @param webRequest the request, for the If-None-Match check
+     * @param request the servlet request
+     * @param response the servlet response
      * @param model the model for view
-     * @return enrollment details view
+     * @return enrollment details view, or null when not modified
      */
     @GetMapping("/enrollments/{id}")
-    public String viewEnrollment(@PathVariable UUID id, Model model) {
+    public String viewEnrollment(
+            @PathVariable UUID id,
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Model model) {
         log.info("Viewing enrollment: {}", id);
         
+        // The page embeds the CSRF token, so a copy is only reusable within the same session
+        String viewer = viewerOf(request);
+        if (userDetails != null && viewer != null) {
+            Optional<EnrollmentVersion> version = enrollmentVersionService.getVersion(id, userDetails.getUsername());
+            if (version.isPresent()) {
+                String eTag = version.get().detailsETag(viewer);
+                if (webRequest.checkNotModified(eTag)) {
+                    return null;
+                }
+                response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+            }
+        }
+        
         EnrollmentResponseDto enrollment = enrollmentService.getEnrollmentById(id);
         
         // Get course sections with materials
@@ -187,18 +235,29 @@ public class LearnerController {
     
     /**
      * Get enrollment progress as JSON (for AJAX updates).
+     * Answers 304 Not Modified, before loading anything, if the client's copy is current.
      * 
      * @param id the enrollment UUID
      * @param userDetails the authenticated user
+     * @param webRequest the request, for the If-None-Match check
      * @return enrollment data as JSON
      */
     @GetMapping("/enrollments/{id}/progress")
     @ResponseBody
     public ResponseEntity<EnrollmentResponseDto> getEnrollmentProgress(
             @PathVariable UUID id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
         
         try {
+            // A stamp only exists for the owner's own enrollment
+            String eTag = enrollmentVersionService.getVersion(id, userDetails.getUsername())
+                    .map(EnrollmentVersion::progressETag)
+                    .orElse(null);
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+            }
+            
             var user = userDetailsService.getUserByEmail(userDetails.getUsername());
             EnrollmentResponseDto enrollment = enrollmentService.getEnrollmentById(id);
             
@@ -207,7 +266,10 @@ public class LearnerController {
                 return ResponseEntity.status(403).build();
             }
             
-            return ResponseEntity.ok(enrollment);
+            if (eTag == null) {
+                return ResponseEntity.ok(enrollment);
+            }
+            return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(enrollment);
             
         } catch (Exception e) {
             log.error("Failed to fetch enrollment progress", e);
@@ -217,18 +279,29 @@ public class LearnerController {
 
     /**
      * Get all material progress for an enrollment.
+     * Answers 304 Not Modified, before loading anything, if the client's copy is current.
      * 
      * @param id the enrollment UUID
      * @param userDetails the authenticated user
+     * @param webRequest the request, for the If-None-Match check
      * @return list of material progress
      */
     @GetMapping("/enrollments/{id}/materials/progress")
     @ResponseBody
     public ResponseEntity<List<MaterialProgressDto>> getEnrollmentMaterialProgress(
             @PathVariable UUID id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest webRequest) {
         
         try {
+            // A stamp only exists for the owner's own enrollment
+            String eTag = enrollmentVersionService.getVersion(id, userDetails.getUsername())
+                    .map(EnrollmentVersion::materialProgressETag)
+                    .orElse(null);
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+            }
+            
             var user = userDetailsService.getUserByEmail(userDetails.getUsername());
             EnrollmentResponseDto enrollment = enrollmentService.getEnrollmentById(id);
             
@@ -238,7 +311,10 @@ public class LearnerController {
             }
             
             List<MaterialProgressDto> progressList = materialService.getMaterialProgressByEnrollment(id);
-            return ResponseEntity.ok(progressList);
+            if (eTag == null) {
+                return ResponseEntity.ok(progressList);
+            }
+            return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(progressList);
             
         } catch (Exception e) {
             log.error("Failed to fetch material progress for enrollment: {}", id, e);
@@ -246,6 +322,39 @@ public class LearnerController {
         }
     }
 
+    /**
+     * Open a Server-Sent Events stream of progress deltas for an enrollment.
+     * Replaces polling of the progress endpoints after each save.
+     * 
+     * @param id the enrollment UUID
+     * @param userDetails the authenticated user
+     * @return SSE emitter, or 403/404 if the enrollment is not the learner's
+     */
+    @GetMapping(value = "/enrollments/{id}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEnrollmentProgress(
+            @PathVariable UUID id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        try {
+            var user = userDetailsService.getUserByEmail(userDetails.getUsername());
+            EnrollmentResponseDto enrollment = enrollmentService.getEnrollmentById(id);
+            
+            // Verify user owns this enrollment
+            if (!enrollment.getLearnerId().equals(user.getId())) {
+                return ResponseEntity.status(403).build();
+            }
+            
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                    .header("X-Accel-Buffering", "no") // Disable proxy buffering (nginx)
+                    .body(progressStreamService.subscribe(id));
+            
+        } catch (Exception e) {
+            log.error("Failed to open progress stream for enrollment: {}", id, e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Cancel learner enrollment.
      * Completely removes the enrollment from the system.
@@ -358,28 +467,36 @@ public class LearnerController {
             var user = userDetailsService.getUserByEmail(userDetails.getUsername());
             MaterialResponseDto material = materialService.getMaterialById(id);
             
-            // Verify user is enrolled in the course
-            boolean isEnrolled = enrollmentService.isLearnerEnrolled(user.getId(), material.getCourseId());
-            if (!isEnrolled) {
+            // Verify user is enrolled in the course (in-memory enrollment index)
+            Optional<UUID> enrollmentId = enrollmentService.findEnrollmentId(user.getId(), material.getCourseId());
+            if (enrollmentId.isEmpty()) {
                 return ResponseEntity.status(403).build();
             }
             
-            // Load file resource
-            Resource resource = fileStorageService.loadFileAsResource(material.getFilename(), "material");
-            
-            // Increment view count
-            materialService.incrementViewCount(id);
-            
             // Determine content type
             String contentType = material.getMimeType();
             if (contentType == null || contentType.isEmpty()) {
                 contentType = "application/octet-stream";
             }
+            String contentDisposition = "inline; filename=\"" + material.getOriginalFilename() + "\"";
+            
+            // Remote storage: let the client fetch the file directly
+            Optional<URI> directUrl = fileStorageService.getPresignedMaterialUrl(
+                    material.getFilename(), contentType, contentDisposition);
+            if (directUrl.isPresent()) {
+                materialService.incrementViewCount(id);
+                return ResponseEntity.status(HttpStatus.FOUND).location(directUrl.get()).build();
+            }
+            
+            // Load file resource
+            Resource resource = fileStorageService.loadFileAsResource(material.getFilename(), "material");
+            
+            // Increment view count (only once the file was found)
+            materialService.incrementViewCount(id);
             
             return ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "inline; filename=\"" + material.getOriginalFilename() + "\"")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
                     .body(resource);
                     
         } catch (Exception e) {
@@ -404,9 +521,9 @@ public class LearnerController {
             var user = userDetailsService.getUserByEmail(userDetails.getUsername());
             MaterialResponseDto material = materialService.getMaterialById(id);
             
-            // Verify user is enrolled in the course
-            boolean isEnrolled = enrollmentService.isLearnerEnrolled(user.getId(), material.getCourseId());
-            if (!isEnrolled) {
+            // Verify user is enrolled in the course (in-memory enrollment index)
+            Optional<UUID> enrollmentId = enrollmentService.findEnrollmentId(user.getId(), material.getCourseId());
+            if (enrollmentId.isEmpty()) {
                 return ResponseEntity.status(403).build();
             }
             
@@ -421,22 +538,30 @@ public class LearnerController {
                 return ResponseEntity.status(403).build();
             }
             
-            // Load file resource
-            Resource resource = fileStorageService.loadFileAsResource(material.getFilename(), "material");
-            
-            // Increment download count
-            materialService.incrementDownloadCount(id);
-            
             // Determine content type
             String contentType = material.getMimeType();
             if (contentType == null || contentType.isEmpty()) {
                 contentType = "application/octet-stream";
             }
+            String contentDisposition = "attachment; filename=\"" + material.getOriginalFilename() + "\"";
+            
+            // Remote storage: let the client fetch the file directly
+            Optional<URI> directUrl = fileStorageService.getPresignedMaterialUrl(
+                    material.getFilename(), contentType, contentDisposition);
+            if (directUrl.isPresent()) {
+                materialService.incrementDownloadCount(id);
+                return ResponseEntity.status(HttpStatus.FOUND).location(directUrl.get()).build();
+            }
+            
+            // Load file resource
+            Resource resource = fileStorageService.loadFileAsResource(material.getFilename(), "material");
+            
+            // Increment download count (only once the file was found)
+            materialService.incrementDownloadCount(id);
             
             return ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + material.getOriginalFilename() + "\"")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
                     .body(resource);
                     
         } catch (Exception e) {
@@ -461,17 +586,14 @@ public class LearnerController {
             var user = userDetailsService.getUserByEmail(userDetails.getUsername());
             MaterialResponseDto material = materialService.getMaterialById(materialId);
             
-            // Verify user is enrolled in the course
-            boolean isEnrolled = enrollmentService.isLearnerEnrolled(user.getId(), material.getCourseId());
-            if (!isEnrolled) {
+            // Verify user is enrolled in the course (in-memory enrollment index)
+            Optional<UUID> enrollmentId = enrollmentService.findEnrollmentId(user.getId(), material.getCourseId());
+            if (enrollmentId.isEmpty()) {
                 return ResponseEntity.status(403).build();
             }
             
             // Get or create material progress
-            MaterialProgressDto progress = materialService.getOrCreateMaterialProgress(
-                enrollmentService.getEnrollmentByLearnerAndCourse(user.getId(), material.getCourseId()).getId(),
-                materialId
-            );
+            MaterialProgressDto progress = materialService.getOrCreateMaterialProgress(enrollmentId.get(), materialId);
             
             return ResponseEntity.ok(progress);
             
@@ -497,17 +619,14 @@ public class LearnerController {
             var user = userDetailsService.getUserByEmail(userDetails.getUsername());
             MaterialResponseDto material = materialService.getMaterialById(progressDto.getMaterialId());
             
-            // Verify user is enrolled in the course
-            boolean isEnrolled = enrollmentService.isLearnerEnrolled(user.getId(), material.getCourseId());
-            if (!isEnrolled) {
+            // Verify user is enrolled in the course (in-memory enrollment index)
+            Optional<UUID> enrollmentId = enrollmentService.findEnrollmentId(user.getId(), material.getCourseId());
+            if (enrollmentId.isEmpty()) {
                 return ResponseEntity.status(403).build();
             }
             
             // Update material progress
-            MaterialProgressDto updatedProgress = materialService.updateMaterialProgress(
-                enrollmentService.getEnrollmentByLearnerAndCourse(user.getId(), material.getCourseId()).getId(),
-                progressDto
-            );
+            MaterialProgressDto updatedProgress = materialService.updateMaterialProgress(enrollmentId.get(), progressDto);
             
             return ResponseEntity.ok(updatedProgress);
             
@@ -516,5 +635,25 @@ public class LearnerController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
 
+    /**
+     * Identify the viewer's session: the HTTP session, or in stateless mode the CSRF cookie.
+     * 
+     * @param request the servlet request
+     * @return session discriminator, or null if there is none yet
+     */
+    private String viewerOf(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return session.getId();
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (CSRF_COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.activwork.etms.controller;
+
+import com.activwork.etms.dto.FragmentCacheStatsDto;
+import com.activwork.etms.dto.HotFileCacheStatsDto;
+import com.activwork.etms.dto.OrphanFileReportDto;
+import com.activwork.etms.service.FileStorageService;
+import com.activwork.etms.service.FragmentCache;
+import com.activwork.etms.service.OrphanFileCollector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Controller for node-wide operational metrics.
+ *
+ * GRASP Pattern: Controller
+ * - Routes ops requests to the services that own the metrics
+ * - Only accessible by the accounts listed in ops.emails (see SecurityConfig)
+ *
+ * Design Notes:
+ * 1. The metrics describe this node's caches and storage, not any one course, so they
+ *    are kept away from instructors and learners
+ * 2. Every endpoint returns JSON; there is no ops UI
+ *
+ * Endpoints:
+ * - GET  /ops/storage/hot-cache - Hot material cache metrics
+ * - GET  /ops/cache/fragments - Rendered catalog fragment cache metrics
+ * - GET  /ops/storage/gc - Last orphaned file collection report
+ */
+@Controller
+@RequestMapping("/ops")
+@RequiredArgsConstructor
+public class OpsController {
+
+    private final FileStorageService fileStorageService;
+    private final FragmentCache fragmentCache;
+    private final OrphanFileCollector orphanFileCollector;
+
+    /**
+     * Get hot material cache metrics.
+     * 
+     * @return hit ratio, evictions and mapped bytes
+     */
+    @GetMapping("/storage/hot-cache")
+    @ResponseBody
+    public ResponseEntity<HotFileCacheStatsDto> getHotCacheStats() {
+        return ResponseEntity.ok(fileStorageService.getHotCacheStats());
+    }
+
+    /**
+     * Get rendered catalog fragment cache metrics.
+     * 
+     * @return hit ratio, render time and cached bytes
+     */
+    @GetMapping("/cache/fragments")
+    @ResponseBody
+    public ResponseEntity<FragmentCacheStatsDto> getFragmentCacheStats() {
+        return ResponseEntity.ok(fragmentCache.getStats());
+    }
+
+    /**
+     * Get the last orphaned file collection report.
+     * 
+     * @return the report, or 204 if no collection has run yet
+     */
+    @GetMapping("/storage/gc")
+    @ResponseBody
+    public ResponseEntity<OrphanFileReportDto> getOrphanFileReport() {
+        OrphanFileReportDto report = orphanFileCollector.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+}
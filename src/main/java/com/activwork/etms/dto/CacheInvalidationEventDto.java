@@ -0,0 +1,51 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for a cache invalidation delivered on this node.
+ * Published by CacheKeyVersions (synchronously, outside any transaction) for changes
+ * committed on this node or received from another node over the CacheInvalidationBus.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationEventDto {
+
+    /**
+     * What changed; the key is the course id for COURSE, SECTIONS, FEEDBACK and
+     * MATERIALS, the user id for USER and the learner id for ENROLLMENT
+     */
+    public enum Region {
+        COURSE,
+        SECTIONS,
+        FEEDBACK,
+        MATERIALS,
+        USER,
+        ENROLLMENT
+    }
+
+    // Null: every region (e.g. after the bus connection was lost)
+    private Region region;
+
+    // Null: every key of the region
+    private UUID key;
+
+    // This node's version of the key after the invalidation
+    private long version;
+
+    // True if the change was committed on another node
+    private boolean remote;
+
+    /**
+     * @param region a region
+     * @return true if this invalidation covers (some keys of) the region
+     */
+    public boolean covers(Region region) {
+        return this.region == null || this.region == region;
+    }
+}
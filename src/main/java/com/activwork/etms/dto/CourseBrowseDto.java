@@ -0,0 +1,103 @@
+package com.activwork.etms.dto;
+
+import com.activwork.etms.model.CourseCategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for one page of the faceted course catalog.
+ * Carries the page of courses, the facet counts for the current selection and
+ * the keyset cursor of the next page (null on the last page).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseBrowseDto {
+
+    /**
+     * Course length facet
+     */
+    public enum DurationBucket {
+        UNDER_5_HOURS("Under 5 hours"),
+        FROM_5_TO_10_HOURS("5 - 10 hours"),
+        FROM_11_TO_20_HOURS("11 - 20 hours"),
+        OVER_20_HOURS("Over 20 hours");
+
+        private final String displayName;
+
+        DurationBucket(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public static DurationBucket of(Integer durationHours) {
+            int hours = durationHours != null ? durationHours : 0;
+            if (hours < 5) {
+                return UNDER_5_HOURS;
+            }
+            if (hours <= 10) {
+                return FROM_5_TO_10_HOURS;
+            }
+            if (hours <= 20) {
+                return FROM_11_TO_20_HOURS;
+            }
+            return OVER_20_HOURS;
+        }
+    }
+
+    /**
+     * Average rating facet; buckets are disjoint so their counts add up to the total
+     */
+    public enum RatingBucket {
+        FOUR_AND_UP("4.0 & up"),
+        THREE_TO_FOUR("3.0 - 3.9"),
+        BELOW_THREE("Below 3.0"),
+        NOT_RATED("Not yet rated");
+
+        private static final BigDecimal FOUR = BigDecimal.valueOf(4);
+        private static final BigDecimal THREE = BigDecimal.valueOf(3);
+
+        private final String displayName;
+
+        RatingBucket(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public static RatingBucket of(BigDecimal averageRating, Integer totalRatings) {
+            if (totalRatings == null || totalRatings == 0 || averageRating == null) {
+                return NOT_RATED;
+            }
+            if (averageRating.compareTo(FOUR) >= 0) {
+                return FOUR_AND_UP;
+            }
+            if (averageRating.compareTo(THREE) >= 0) {
+                return THREE_TO_FOUR;
+            }
+            return BELOW_THREE;
+        }
+    }
+
+    private List<CourseListDto> courses;
+
+    // Courses matching all selected facets
+    private long totalCount;
+
+    // Per facet value: courses matching the other selected facets
+    private Map<CourseCategory, Long> categoryCounts;
+    private Map<DurationBucket, Long> durationCounts;
+    private Map<RatingBucket, Long> ratingCounts;
+
+    private String nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for course catalog change events published inside the application.
+ * After commit it is forwarded to the cache invalidation bus (CatalogCacheInvalidationForwarder),
+ * which invalidates catalog-derived caches (home page feed, facet index) on every instance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCatalogEventDto {
+
+    /**
+     * Kind of catalog change
+     */
+    public enum Change {
+        FEATURED,
+        UNFEATURED,
+        PUBLISHED,
+        ARCHIVED,
+        UPDATED,
+        RATED,
+        DELETED
+    }
+
+    private UUID courseId;
+    private Change change;
+}
@@ -0,0 +1,43 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO reporting the progress of one server-side course copy.
+ * The copy is usable (and active) once its status is COMPLETED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCloneJobDto {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private UUID jobId;
+    private UUID sourceCourseId;
+
+    // Null until the course row of the copy exists
+    private UUID courseId;
+    private String title;
+    private Status status;
+
+    private long totalSections;
+    private long copiedSections;
+    private long totalMaterials;
+    private long copiedMaterials;
+    private int progressPercent;
+
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -1,6 +1,7 @@
 package com.activwork.etms.dto;
 
 import com.activwork.etms.model.*;
+import com.activwork.etms.util.BannerVariants;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,7 +30,9 @@ public class CourseListDto {
     private Integer durationHours;
     private CourseStatus status;
     
+    // Card-sized banner variant, plus srcset of all variants for responsive images
     private String thumbnailUrl;
+    private String thumbnailSrcset;
     
     private Boolean isFeatured;
     
@@ -57,7 +60,8 @@ public class CourseListDto {
         dto.setDurationHours(course.getDurationHours());
         dto.setStatus(course.getStatus());
         
-        dto.setThumbnailUrl(course.getThumbnailUrl());
+        dto.setThumbnailUrl(BannerVariants.resolve(course.getThumbnailUrl(), BannerVariants.CARD_WIDTH));
+        dto.setThumbnailSrcset(BannerVariants.srcset(course.getThumbnailUrl()));
         dto.setIsFeatured(course.getIsFeatured());
         
         dto.setEnrollmentCount(course.getEnrollmentCount());
@@ -66,5 +70,31 @@ public class CourseListDto {
         
         return dto;
     }
-}
 
+    /**
+     * Static factory method to create CourseListDto from the course card read model.
+     * Same fields as fromEntity, without loading the Course entity or its instructor.
+     */
+    public static CourseListDto fromCard(CourseCard card) {
+        CourseListDto dto = new CourseListDto();
+        dto.setId(card.getCourseId());
+        dto.setTitle(card.getTitle());
+        dto.setSummary(card.getSummary());
+        dto.setInstructorName(card.getInstructorName());
+        
+        dto.setCategory(card.getCategory());
+        dto.setCategoryDisplayName(card.getCategory().getDisplayName());
+        dto.setDurationHours(card.getDurationHours());
+        dto.setStatus(card.getStatus());
+        
+        dto.setThumbnailUrl(BannerVariants.resolve(card.getThumbnailUrl(), BannerVariants.CARD_WIDTH));
+        dto.setThumbnailSrcset(BannerVariants.srcset(card.getThumbnailUrl()));
+        dto.setIsFeatured(card.getIsFeatured());
+        
+        dto.setEnrollmentCount(card.getEnrollmentCount());
+        dto.setAverageRating(card.getAverageRating());
+        dto.setTotalRatings(card.getTotalRatings());
+        
+        return dto;
+    }
+}
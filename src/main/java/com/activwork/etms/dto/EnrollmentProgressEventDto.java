@@ -0,0 +1,59 @@
+package com.activwork.etms.dto;
+
+import com.activwork.etms.model.Enrollment;
+import com.activwork.etms.model.EnrollmentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for enrollment progress deltas pushed over Server-Sent Events.
+ * Carries only the fields the learner page needs to refresh its progress bars,
+ * so each event stays a few dozen bytes instead of a full EnrollmentResponseDto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EnrollmentProgressEventDto {
+
+    private UUID enrollmentId;
+
+    // Course-level progress (null when only a material changed)
+    private BigDecimal progressPercent;
+    private Integer completedMaterials;
+    private Integer totalMaterials;
+    private EnrollmentStatus status;
+
+    // Material-level change (null for course-level deltas)
+    private UUID materialId;
+    private Boolean materialCompleted;
+
+    /**
+     * Static factory method for a course-level delta from an Enrollment entity.
+     */
+    public static EnrollmentProgressEventDto fromEntity(Enrollment enrollment) {
+        EnrollmentProgressEventDto dto = new EnrollmentProgressEventDto();
+        dto.setEnrollmentId(enrollment.getId());
+        dto.setProgressPercent(enrollment.getProgressPercent());
+        dto.setCompletedMaterials(enrollment.getCompletedMaterials());
+        dto.setTotalMaterials(enrollment.getTotalMaterials());
+        dto.setStatus(enrollment.getStatus());
+        return dto;
+    }
+
+    /**
+     * Static factory method for a material-level delta.
+     */
+    public static EnrollmentProgressEventDto forMaterial(UUID enrollmentId, UUID materialId, Boolean completed) {
+        EnrollmentProgressEventDto dto = new EnrollmentProgressEventDto();
+        dto.setEnrollmentId(enrollmentId);
+        dto.setMaterialId(materialId);
+        dto.setMaterialCompleted(completed);
+        return dto;
+    }
+}
@@ -2,6 +2,7 @@ package com.activwork.etms.dto;
 
 import com.activwork.etms.model.Enrollment;
 import com.activwork.etms.model.EnrollmentStatus;
+import com.activwork.etms.util.BannerVariants;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -58,7 +59,8 @@ public class EnrollmentResponseDto {
         if (enrollment.getCourse() != null) {
             dto.setCourseId(enrollment.getCourse().getId());
             dto.setCourseTitle(enrollment.getCourse().getTitle());
-            dto.setCourseThumbnailUrl(enrollment.getCourse().getThumbnailUrl());
+            dto.setCourseThumbnailUrl(BannerVariants.resolve(
+                    enrollment.getCourse().getThumbnailUrl(), BannerVariants.CARD_WIDTH));
         }
         
         // Learner info
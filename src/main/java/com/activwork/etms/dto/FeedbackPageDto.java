@@ -0,0 +1,29 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a course's visible feedback.
+ * The next page is requested with nextCursor (null on the last page) and the same sort.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackPageDto {
+
+    /**
+     * Feedback ordering
+     */
+    public enum Sort {
+        NEWEST,
+        HIGHEST_RATED
+    }
+
+    private List<FeedbackResponseDto> feedback;
+    private Sort sort;
+    private String nextCursor;
+}
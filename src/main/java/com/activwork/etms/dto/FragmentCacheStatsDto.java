@@ -0,0 +1,28 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for rendered HTML fragment cache metrics.
+ * Snapshot of counters since application start.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FragmentCacheStatsDto {
+
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+
+    // Renders not stored because the catalog changed while they ran
+    private long discardedRenders;
+
+    private double averageRenderMicros;
+    private int entries;
+    private long cachedBytes;
+    private long maxBytes;
+}
@@ -0,0 +1,24 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for hot material file cache metrics.
+ * Snapshot of counters since application start.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotFileCacheStatsDto {
+
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+    private int entries;
+    private int pinnedEntries;
+    private long cachedBytes;
+    private long maxBytes;
+}
@@ -0,0 +1,33 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO summarizing one orphaned file collection run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrphanFileReportDto {
+
+    private LocalDateTime startedAt;
+    private long durationMs;
+    private boolean dryRun;
+
+    // Mark phase
+    private long referenceCount;
+    private long bloomFilterBytes;
+
+    // Sweep phase
+    private long scannedFiles;
+    private long referencedFiles;
+    private long withinGracePeriod;
+    private long verifiedReferenced;   // Not in the filter but referenced in the DB (added during the run)
+    private long deletedFiles;
+    private long reclaimedBytes;
+    private long failedDeletes;
+}
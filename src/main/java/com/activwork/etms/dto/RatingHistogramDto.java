@@ -0,0 +1,30 @@
+package com.activwork.etms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO for the rating distribution of a course's visible feedback.
+ * Counts holds every star value 5..1 (0 when no feedback has that rating).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingHistogramDto {
+
+    private Map<Integer, Long> counts;
+    private long total;
+
+    /**
+     * Share of feedback with the given rating, in percent (0 if there is no feedback).
+     */
+    public int percentOf(int rating) {
+        if (total == 0) {
+            return 0;
+        }
+        return (int) Math.round(100.0 * counts.getOrDefault(rating, 0L) / total);
+    }
+}
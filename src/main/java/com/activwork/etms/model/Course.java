@@ -99,11 +99,12 @@ public class Course {
 
     @DecimalMin(value = "0.0", message = "Average rating must be non-negative")
     @DecimalMax(value = "5.0", message = "Average rating must not exceed 5.0")
-    @Column(name = "average_rating", precision = 3, scale = 2)
+    @Column(name = "average_rating", precision = 3, scale = 2, insertable = false, updatable = false)
     private BigDecimal averageRating = BigDecimal.ZERO;
 
+    // Rating aggregate is maintained by trigger_update_course_rating; never written from here
     @Min(value = 0, message = "Total ratings must be non-negative")
-    @Column(name = "total_ratings")
+    @Column(name = "total_ratings", insertable = false, updatable = false)
     private Integer totalRatings = 0;
 
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -0,0 +1,80 @@
+package com.activwork.etms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Course card read model: the flat list fields of one course.
+ * Maps to the 'course_cards' table in the 'etms' schema.
+ *
+ * GRASP Patterns:
+ * - Pure Fabrication: denormalized copy of Course + instructor name for list pages
+ * - Protected Variations: catalog pages never touch the Course entity graph
+ *
+ * Design Notes:
+ * - Read-only from the application; rows are maintained by database triggers on
+ *   courses and users (see database/13_add_course_cards.sql), in the writing transaction
+ * - Rating and enrollment counts are themselves trigger-maintained on courses,
+ *   so they reach the card without application code
+ */
+@Entity
+@Immutable
+@Table(name = "course_cards", schema = "etms")
+@Data
+@NoArgsConstructor
+public class CourseCard {
+
+    @Id
+    @Column(name = "course_id", columnDefinition = "UUID")
+    private UUID courseId;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(length = 500)
+    private String summary;
+
+    @Column(name = "instructor_id", nullable = false, columnDefinition = "UUID")
+    private UUID instructorId;
+
+    @Column(name = "instructor_name", length = 100)
+    private String instructorName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private CourseCategory category;
+
+    @Column(name = "duration_hours", nullable = false)
+    private Integer durationHours;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private CourseStatus status;
+
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Column(name = "is_featured", nullable = false)
+    private Boolean isFeatured;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive;
+
+    @Column(name = "enrollment_count", nullable = false)
+    private Integer enrollmentCount;
+
+    @Column(name = "average_rating", nullable = false, precision = 3, scale = 2)
+    private BigDecimal averageRating;
+
+    @Column(name = "total_ratings", nullable = false)
+    private Integer totalRatings;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+}
@@ -0,0 +1,71 @@
+package com.activwork.etms.repository;
+
+import com.activwork.etms.model.CourseCard;
+import com.activwork.etms.model.CourseCategory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for the course card read model.
+ *
+ * Provides the catalog, search and featured listings, and the page reads of the faceted catalog.
+ * Rows are written by database triggers only; never save through this repository.
+ */
+@Repository
+public interface CourseCardRepository extends JpaRepository<CourseCard, UUID> {
+
+    /**
+     * Find cards of published and active courses, newest first.
+     *
+     * @return list of available course cards
+     */
+    @Query("SELECT c FROM CourseCard c WHERE c.status = 'PUBLISHED' AND c.isActive = true ORDER BY c.createdAt DESC")
+    List<CourseCard> findAvailable();
+
+    /**
+     * Search cards of published and active courses by title containing keyword (case-insensitive).
+     *
+     * @param keyword the search keyword
+     * @return list of available course cards with matching titles
+     */
+    @Query("SELECT c FROM CourseCard c WHERE c.status = 'PUBLISHED' AND c.isActive = true " +
+           "AND LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY c.createdAt DESC")
+    List<CourseCard> searchByTitle(@Param("keyword") String keyword);
+
+    /**
+     * Find featured, published and active cards, newest first.
+     * Matches the partial index idx_course_cards_featured; the page size is the LIMIT.
+     *
+     * @param pageable limit (first page only)
+     * @return slim projections of the featured cards
+     */
+    @Query("SELECT c.courseId AS courseId, c.title AS title, c.summary AS summary, c.category AS category, " +
+           "c.durationHours AS durationHours, c.thumbnailUrl AS thumbnailUrl, c.enrollmentCount AS enrollmentCount, " +
+           "c.averageRating AS averageRating, c.totalRatings AS totalRatings " +
+           "FROM CourseCard c " +
+           "WHERE c.isFeatured = true AND c.status = 'PUBLISHED' AND c.isActive = true " +
+           "ORDER BY c.createdAt DESC")
+    List<FeaturedCourseView> findFeatured(Pageable pageable);
+
+    /**
+     * Projection of the card fields shown in the home page feed.
+     */
+    interface FeaturedCourseView {
+        UUID getCourseId();
+        String getTitle();
+        String getSummary();
+        CourseCategory getCategory();
+        Integer getDurationHours();
+        String getThumbnailUrl();
+        Integer getEnrollmentCount();
+        BigDecimal getAverageRating();
+        Integer getTotalRatings();
+    }
+}
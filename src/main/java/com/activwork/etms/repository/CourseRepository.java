@@ -6,11 +6,18 @@ import com.activwork.etms.model.CourseStatus;
 import com.activwork.etms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Course entity operations.
@@ -96,5 +103,34 @@ public interface CourseRepository extends JpaRepository<Course, UUID> {
      * @return list of instructor's courses with specified status
      */
     List<Course> findByInstructorIdAndStatus(UUID instructorId, CourseStatus status);
-}
 
+    /**
+     * Stream every upload URL referenced by courses (banner and preview video).
+     * Used by the orphaned file collector; must be consumed inside a transaction.
+     * 
+     * @return stream of non-null thumbnail and video preview URLs
+     */
+    @Query("SELECT c.thumbnailUrl FROM Course c WHERE c.thumbnailUrl IS NOT NULL " +
+           "UNION ALL SELECT c.videoPreviewUrl FROM Course c WHERE c.videoPreviewUrl IS NOT NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamUploadReferences();
+
+    /**
+     * Check whether any course still references an upload.
+     * 
+     * @param thumbnailFragment fragment of the thumbnail URL
+     * @param videoPreviewFragment fragment of the video preview URL
+     * @return true if a course references the upload
+     */
+    boolean existsByThumbnailUrlContainingOrVideoPreviewUrlContaining(String thumbnailFragment,
+                                                                      String videoPreviewFragment);
+
+    /**
+     * Read a course's stored average rating (trigger-maintained aggregate, no feedback scan).
+     * 
+     * @param courseId the course UUID
+     * @return the average rating, or empty if the course does not exist
+     */
+    @Query("SELECT c.averageRating FROM Course c WHERE c.id = :courseId")
+    Optional<BigDecimal> findAverageRatingById(@Param("courseId") UUID courseId);
+}
@@ -6,6 +6,7 @@ import com.activwork.etms.model.EnrollmentStatus;
 import com.activwork.etms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -122,5 +123,31 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, UUID> {
      */
     @Query("SELECT e FROM Enrollment e WHERE e.status = 'COMPLETED' AND e.progressPercent = 100 AND e.certificateIssued = false")
     List<Enrollment> findEnrollmentsReadyForCertificate();
-}
 
+    /**
+     * Find the (course, enrollment) id pairs of a learner, without loading enrollments.
+     * 
+     * @param learnerId the learner's UUID
+     * @return one row per enrollment of the learner
+     */
+    @Query("SELECT e.course.id AS courseId, e.id AS enrollmentId FROM Enrollment e WHERE e.learner.id = :learnerId")
+    List<EnrollmentKeyView> findEnrollmentKeysByLearnerId(@Param("learnerId") UUID learnerId);
+
+    /**
+     * Find the id of a learner's enrollment in a course, without loading it.
+     * 
+     * @param learnerId the learner's UUID
+     * @param courseId the course UUID
+     * @return the enrollment id if enrolled
+     */
+    @Query("SELECT e.id FROM Enrollment e WHERE e.learner.id = :learnerId AND e.course.id = :courseId")
+    Optional<UUID> findIdByLearnerIdAndCourseId(@Param("learnerId") UUID learnerId, @Param("courseId") UUID courseId);
+
+    /**
+     * Projection of one enrollment's key.
+     */
+    interface EnrollmentKeyView {
+        UUID getCourseId();
+        UUID getEnrollmentId();
+    }
+}
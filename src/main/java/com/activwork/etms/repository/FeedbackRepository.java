@@ -3,11 +3,13 @@ package com.activwork.etms.repository;
 import com.activwork.etms.model.Course;
 import com.activwork.etms.model.Feedback;
 import com.activwork.etms.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -88,21 +90,94 @@ public interface FeedbackRepository extends JpaRepository<Feedback, UUID> {
     List<Feedback> findByRating(Integer rating);
 
     /**
-     * Calculate average rating for a course.
+     * Count total feedback for a course.
      * 
      * @param courseId the course UUID
-     * @return average rating, or 0.0 if no feedback exists
+     * @param isVisible true for visible feedback
+     * @return number of visible feedback entries
      */
-    @Query("SELECT COALESCE(AVG(f.rating), 0.0) FROM Feedback f WHERE f.course.id = :courseId AND f.isVisible = true")
-    Double calculateAverageRating(@Param("courseId") UUID courseId);
+    long countByCourseIdAndIsVisible(UUID courseId, Boolean isVisible);
 
     /**
-     * Count total feedback for a course.
+     * First page of a course's visible feedback, newest first.
+     * Keyset order (created_at, id) matches idx_feedback_course_visible_recent.
      * 
      * @param courseId the course UUID
-     * @param isVisible true for visible feedback
-     * @return number of visible feedback entries
+     * @param pageable limit (first page only)
+     * @return feedback with learners fetched
      */
-    long countByCourseIdAndIsVisible(UUID courseId, Boolean isVisible);
-}
+    @Query("SELECT f FROM Feedback f JOIN FETCH f.learner " +
+           "WHERE f.course.id = :courseId AND f.isVisible = true " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findVisibleNewest(@Param("courseId") UUID courseId, Pageable pageable);
+
+    /**
+     * Next page of a course's visible feedback, newest first, after the given position.
+     * 
+     * @param courseId the course UUID
+     * @param createdAt created_at of the last row of the previous page
+     * @param id id of the last row of the previous page
+     * @param pageable limit (first page only)
+     * @return feedback with learners fetched
+     */
+    @Query("SELECT f FROM Feedback f JOIN FETCH f.learner " +
+           "WHERE f.course.id = :courseId AND f.isVisible = true " +
+           "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findVisibleNewestAfter(@Param("courseId") UUID courseId,
+                                          @Param("createdAt") ZonedDateTime createdAt,
+                                          @Param("id") UUID id,
+                                          Pageable pageable);
+
+    /**
+     * First page of a course's visible feedback, highest rating first (then newest).
+     * Keyset order (rating, created_at, id) matches idx_feedback_course_visible_rating.
+     * 
+     * @param courseId the course UUID
+     * @param pageable limit (first page only)
+     * @return feedback with learners fetched
+     */
+    @Query("SELECT f FROM Feedback f JOIN FETCH f.learner " +
+           "WHERE f.course.id = :courseId AND f.isVisible = true " +
+           "ORDER BY f.rating DESC, f.createdAt DESC, f.id DESC")
+    List<Feedback> findVisibleHighestRated(@Param("courseId") UUID courseId, Pageable pageable);
+
+    /**
+     * Next page of a course's visible feedback, highest rating first, after the given position.
+     * 
+     * @param courseId the course UUID
+     * @param rating rating of the last row of the previous page
+     * @param createdAt created_at of the last row of the previous page
+     * @param id id of the last row of the previous page
+     * @param pageable limit (first page only)
+     * @return feedback with learners fetched
+     */
+    @Query("SELECT f FROM Feedback f JOIN FETCH f.learner " +
+           "WHERE f.course.id = :courseId AND f.isVisible = true " +
+           "AND (f.rating < :rating OR (f.rating = :rating AND " +
+           "(f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)))) " +
+           "ORDER BY f.rating DESC, f.createdAt DESC, f.id DESC")
+    List<Feedback> findVisibleHighestRatedAfter(@Param("courseId") UUID courseId,
+                                                @Param("rating") Integer rating,
+                                                @Param("createdAt") ZonedDateTime createdAt,
+                                                @Param("id") UUID id,
+                                                Pageable pageable);
 
+    /**
+     * Count a course's visible feedback per rating in one grouped query.
+     * 
+     * @param courseId the course UUID
+     * @return one row per rating that occurs
+     */
+    @Query("SELECT f.rating AS rating, COUNT(f) AS count FROM Feedback f " +
+           "WHERE f.course.id = :courseId AND f.isVisible = true GROUP BY f.rating")
+    List<RatingCountView> countVisibleByRating(@Param("courseId") UUID courseId);
+
+    /**
+     * Projection of one rating histogram bucket.
+     */
+    interface RatingCountView {
+        Integer getRating();
+        Long getCount();
+    }
+}
@@ -3,11 +3,21 @@ package com.activwork.etms.repository;
 import com.activwork.etms.model.Course;
 import com.activwork.etms.model.Material;
 import com.activwork.etms.model.MaterialType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Material entity operations.
@@ -83,5 +93,88 @@ public interface MaterialRepository extends JpaRepository<Material, UUID> {
      * @return number of active materials
      */
     long countByCourseIdAndIsActive(UUID courseId, Boolean isActive);
-}
 
+    /**
+     * Find the next batch of materials still stored in the flat (unsharded) layout.
+     * Keyset pagination on id, so each batch is an index range scan.
+     * 
+     * @param afterId only materials with a greater id (use the nil UUID to start)
+     * @param pageable batch size (page 0)
+     * @return id and filename of the next materials
+     */
+    @Query("SELECT m.id AS id, m.filename AS filename FROM Material m " +
+           "WHERE m.id > :afterId AND m.filename NOT LIKE '%/%' ORDER BY m.id")
+    List<StoredFileView> findFlatLayoutBatch(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Point a material at its relocated file.
+     * Only applies if the row still holds the old filename, so concurrent edits win.
+     * 
+     * @param id the material UUID
+     * @param oldFilename the filename the file was moved from
+     * @param newFilename the new stored filename
+     * @param newPath the new public path
+     * @return number of rows updated (0 or 1)
+     */
+    @Modifying
+    @Query("UPDATE Material m SET m.filename = :newFilename, m.path = :newPath " +
+           "WHERE m.id = :id AND m.filename = :oldFilename")
+    int updateStoredFilename(@Param("id") UUID id,
+                             @Param("oldFilename") String oldFilename,
+                             @Param("newFilename") String newFilename,
+                             @Param("newPath") String newPath);
+
+    /**
+     * Find the stored filenames of all materials in a course.
+     * 
+     * @param courseId the course UUID
+     * @return stored filenames
+     */
+    @Query("SELECT m.filename FROM Material m WHERE m.course.id = :courseId")
+    List<String> findFilenamesByCourseId(@Param("courseId") UUID courseId);
+
+    /**
+     * Stream every stored filename and thumbnail URL referenced by materials.
+     * Used by the orphaned file collector; must be consumed inside a transaction.
+     * 
+     * @return stream of filenames and non-null thumbnail URLs
+     */
+    @Query("SELECT m.filename FROM Material m " +
+           "UNION ALL SELECT m.thumbnailUrl FROM Material m WHERE m.thumbnailUrl IS NOT NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamUploadReferences();
+
+    /**
+     * Check whether a material references a stored file (in any layout).
+     * 
+     * @param filenames the candidate stored filenames
+     * @return true if a material uses one of them
+     */
+    boolean existsByFilenameIn(Collection<String> filenames);
+
+    /**
+     * Find which of the given stored filenames are still used by a material.
+     * Course copies share files, so a file may outlive the material it was uploaded for.
+     * 
+     * @param filenames the candidate stored filenames
+     * @return the filenames a material references
+     */
+    @Query("SELECT DISTINCT m.filename FROM Material m WHERE m.filename IN :filenames")
+    List<String> findReferencedFilenames(@Param("filenames") Collection<String> filenames);
+
+    /**
+     * Check whether a material thumbnail references an upload.
+     * 
+     * @param fragment fragment of the thumbnail URL
+     * @return true if a material references the upload
+     */
+    boolean existsByThumbnailUrlContaining(String fragment);
+
+    /**
+     * Projection of a material's stored file.
+     */
+    interface StoredFileView {
+        UUID getId();
+        String getFilename();
+    }
+}
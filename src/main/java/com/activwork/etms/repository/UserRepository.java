@@ -3,8 +3,12 @@ package com.activwork.etms.repository;
 import com.activwork.etms.model.User;
 import com.activwork.etms.model.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -64,5 +68,37 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @return list of users matching the verification status
      */
     List<User> findByIsVerified(Boolean isVerified);
-}
 
+    /**
+     * Find a user's id by email address without loading the user.
+     * 
+     * @param email the user's email address
+     * @return Optional containing the user id if found
+     */
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<UUID> findIdByEmail(@Param("email") String email);
+
+    /**
+     * Count learners enrolled in any of an instructor's courses who were active since the given time.
+     * Recently active users are found first (idx_users_last_activity), then checked for enrollment.
+     * 
+     * @param instructorId the instructor's UUID
+     * @param since activity cutoff
+     * @return number of distinct active learners
+     */
+    @Query("SELECT COUNT(u) FROM User u WHERE u.lastActivity >= :since " +
+           "AND EXISTS (SELECT 1 FROM Enrollment e WHERE e.learner = u AND e.course.instructor.id = :instructorId)")
+    long countActiveLearnersByInstructor(@Param("instructorId") UUID instructorId,
+                                         @Param("since") ZonedDateTime since);
+
+    /**
+     * Replace a user's password hash (re-hash on sign-in) without loading the user.
+     * 
+     * @param email the user's email address
+     * @param passwordHash the new hash
+     * @return number of rows updated (0 or 1)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.email = :email")
+    int updatePasswordHashByEmail(@Param("email") String email, @Param("passwordHash") String passwordHash);
+}
@@ -0,0 +1,66 @@
+package com.activwork.etms.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt strength for this machine.
+ *
+ * Each strength step doubles the hashing time, so one measurement at the minimum strength
+ * is enough: strength = min + floor(log2(target / measured)), clamped to [min, max].
+ */
+@Slf4j
+public final class BCryptWorkFactor {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Pa55word";
+    private static final int SAMPLES = 3;
+
+    private BCryptWorkFactor() {
+    }
+
+    /**
+     * Measure hashing speed and pick the strength closest to (not above) the target latency.
+     *
+     * @param targetMillis target time for one hash
+     * @param minStrength lowest acceptable strength
+     * @param maxStrength highest acceptable strength
+     * @return calibrated strength
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // Warm up the JIT, then take the fastest of a few runs
+        hashMillis(minStrength);
+        double measured = Double.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            measured = Math.min(measured, hashMillis(minStrength));
+        }
+
+        int extraRounds = (int) Math.floor(Math.log(targetMillis / Math.max(measured, 0.01)) / Math.log(2));
+        int strength = Math.max(minStrength, Math.min(maxStrength, minStrength + extraRounds));
+        log.info("🔐 BCrypt calibrated: strength {} ({} ms at strength {}, target {} ms)",
+                strength, String.format("%.1f", measured), minStrength, targetMillis);
+        return strength;
+    }
+
+    /**
+     * Read the strength a BCrypt hash was created with.
+     *
+     * @param hash a BCrypt hash ($2a$10$...)
+     * @return its strength, or -1 if it is not a BCrypt hash
+     */
+    public static int strengthOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static double hashMillis(int strength) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(strength));
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
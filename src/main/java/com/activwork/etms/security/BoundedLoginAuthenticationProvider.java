@@ -0,0 +1,88 @@
+package com.activwork.etms.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs sign-ins on a small, bounded executor.
+ *
+ * GRASP Pattern: Protected Variations
+ * - Shields the rest of the application from login storms: BCrypt is deliberately
+ *   CPU-expensive, and unbounded concurrent sign-ins would starve every other request
+ *
+ * Design Notes:
+ * 1. At most loginThreads password checks run at once; the request thread only waits
+ * 2. Up to loginQueueCapacity sign-ins queue behind them; beyond that, or past the
+ *    timeout, the sign-in fails fast with LoginThrottledException (credentials unchecked)
+ * 3. The delegate (DaoAuthenticationProvider) also re-hashes passwords whose stored
+ *    strength is below the current one, on the same executor
+ * 4. The executor is the loginExecutor bean (SchedulingConfig), so it is sized from
+ *    PasswordHashingProperties and stops with the application context
+ */
+@Slf4j
+public class BoundedLoginAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AsyncTaskExecutor executor;
+    private final long timeoutMillis;
+
+    /**
+     * @param delegate the provider that checks the credentials
+     * @param executor bounded executor the checks run on (a full queue rejects)
+     * @param timeoutMillis how long a sign-in may wait for its result
+     */
+    public BoundedLoginAuthenticationProvider(AuthenticationProvider delegate,
+                                              AsyncTaskExecutor executor,
+                                              long timeoutMillis) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Future<Authentication> result;
+        try {
+            result = executor.submit(() -> delegate.authenticate(authentication));
+        } catch (RejectedExecutionException e) {
+            log.warn("Sign-in turned away: login queue full");
+            throw new LoginThrottledException("Too many sign-ins at the moment");
+        }
+
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            log.warn("Sign-in turned away: not processed within {} ms", timeoutMillis);
+            throw new LoginThrottledException("Sign-in timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AuthenticationException authenticationException) {
+                throw authenticationException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AuthenticationServiceException("Sign-in failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new AuthenticationServiceException("Sign-in interrupted", e);
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
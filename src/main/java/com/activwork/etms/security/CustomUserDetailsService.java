@@ -3,8 +3,10 @@ package com.activwork.etms.security;
 import com.activwork.etms.model.User;
 import com.activwork.etms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -22,10 +24,12 @@ import java.util.Collections;
  * - Integrates ETMS user model with Spring Security
  * - Uses UserRepository for data access
  * - Maps UserRole to Spring Security authorities
+ * - Stores upgraded password hashes (UserDetailsPasswordService)
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -61,6 +65,27 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Store a re-hashed password after a successful sign-in.
+     * Called by Spring Security when the stored hash is weaker than the current BCrypt strength.
+     * 
+     * @param user the authenticated user
+     * @param newPassword the new password hash
+     * @return the user details carrying the new hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        int updated = userRepository.updatePasswordHashByEmail(user.getUsername(), newPassword);
+        if (updated > 0) {
+            log.info("Password hash upgraded for {} (strength {} -> {})", user.getUsername(),
+                    BCryptWorkFactor.strengthOf(user.getPassword()), BCryptWorkFactor.strengthOf(newPassword));
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     /**
      * Get ETMS User entity by email.
      * Useful for controllers that need user information after authentication.
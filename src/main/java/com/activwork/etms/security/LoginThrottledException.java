@@ -0,0 +1,14 @@
+package com.activwork.etms.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when a sign-in is turned away because the login executor is saturated.
+ * The credentials were not checked; the client should retry shortly.
+ */
+public class LoginThrottledException extends AuthenticationServiceException {
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
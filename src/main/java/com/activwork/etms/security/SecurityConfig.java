@@ -1,31 +1,52 @@
 package com.activwork.etms.security;
 
+import com.activwork.etms.config.OpsProperties;
+import com.activwork.etms.config.PasswordHashingProperties;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 
 /**
  * Spring Security configuration for the ETMS application.
  * 
- * Implements session-based authentication (prototype approach).
- * Future: Can migrate to JWT for stateless authentication.
+ * Implements session-based authentication by default; with signed-session.enabled=true
+ * authentication is stateless (HMAC-signed cookie, see SignedSessionService).
  * 
  * Security Features:
- * - Session-based authentication
- * - BCrypt password encoding
+ * - Session-based authentication, or stateless signed-cookie sessions
+ * - BCrypt password encoding (strength calibrated at startup, upgraded on sign-in)
+ * - Sign-ins run on a bounded login executor; overflow is turned away (/login?busy=true)
  * - Role-based authorization (INSTRUCTOR, LEARNER)
  * - CSRF protection enabled
  * - HTTP session management (30-minute timeout configured in application.properties)
+ * - One session per user (SessionRegistry, or the session version in stateless mode)
  * 
  * Access Control:
  * - Public: /, /login, /register, /courses (browse)
  * - Instructor: /instructor/** endpoints
  * - Learner: /learner/** endpoints
+ * - Ops: /ops/** endpoints, only for the accounts listed in ops.emails
  * - Authenticated: /dashboard, /profile
  */
 @Configuration
@@ -33,7 +54,15 @@ import org.springframework.security.web.SecurityFilterChain;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    /**
+     * Seconds a turned-away sign-in is asked to wait before retrying
+     */
+    private static final String LOGIN_RETRY_AFTER_SECONDS = "5";
+
     private final CustomUserDetailsService userDetailsService;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final SignedSessionService signedSessionService;
+    private final OpsProperties opsProperties;
 
     /**
      * Configure HTTP security and authorization rules.
@@ -49,8 +78,11 @@ public class SecurityConfig {
                 // Public endpoints
                 .requestMatchers("/", "/login", "/register", "/error").permitAll()
                 .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
-                .requestMatchers("/courses", "/courses/search").permitAll() // Browse courses
-                .requestMatchers("/courses/{id}").permitAll() // View course details
+                .requestMatchers("/courses", "/courses/search", "/courses/browse").permitAll() // Browse courses
+                .requestMatchers("/courses/{id}", "/courses/{id}/feedback").permitAll() // View course details and reviews
+                
+                // Node-wide metrics, for listed operators only
+                .requestMatchers("/ops/**").access(operatorsOnly())
                 
                 // Instructor-only endpoints
                 .requestMatchers("/instructor/**").hasAuthority("INSTRUCTOR")
@@ -69,7 +101,7 @@ public class SecurityConfig {
                 .loginPage("/login")
                 .loginProcessingUrl("/login")
                 .defaultSuccessUrl("/dashboard", true)
-                .failureUrl("/login?error=true")
+                .failureHandler(loginFailureHandler())
                 .permitAll()
             )
             .logout(logout -> logout
@@ -78,24 +110,116 @@ public class SecurityConfig {
                 .invalidateHttpSession(true)
                 .deleteCookies("JSESSIONID")
                 .permitAll()
-            )
-            .sessionManagement(session -> session
+            );
+        // Authentication goes through the loginAuthenticationProvider bean only
+
+        if (signedSessionService.isEnabled()) {
+            configureSignedSessions(http);
+        } else {
+            http.sessionManagement(session -> session
                 .maximumSessions(1) // Only one session per user
                 .maxSessionsPreventsLogin(false) // New login invalidates old session
-            )
-            .userDetailsService(userDetailsService);
+            );
+        }
 
         return http.build();
     }
 
+    /**
+     * Allow a request only for an authenticated account listed in ops.emails.
+     * 
+     * @return authorization manager for /ops/**
+     */
+    private AuthorizationManager<RequestAuthorizationContext> operatorsOnly() {
+        return (authentication, context) -> {
+            Authentication current = authentication.get();
+            return new AuthorizationDecision(current != null && current.isAuthenticated()
+                    && opsProperties.isOperator(current.getName()));
+        };
+    }
+
+    /**
+     * Stateless mode (signed-session.enabled=true): no HTTP session is created.
+     * The sign-in lives in a signed cookie; the CSRF token moves to a cookie as well.
+     * One session per user is enforced by the session version in that cookie.
+     */
+    private void configureSignedSessions(HttpSecurity http) throws Exception {
+        SimpleUrlAuthenticationSuccessHandler dashboard = new SimpleUrlAuthenticationSuccessHandler("/dashboard");
+        dashboard.setAlwaysUseDefaultTargetUrl(true);
+
+        http
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .securityContext(context -> context
+                .securityContextRepository(new RequestAttributeSecurityContextRepository())
+            )
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+            .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
+            .formLogin(form -> form
+                .successHandler((request, response, authentication) -> {
+                    signedSessionService.startSession(authentication.getName(), response);
+                    dashboard.onAuthenticationSuccess(request, response, authentication);
+                })
+            )
+            .logout(logout -> logout
+                .addLogoutHandler((request, response, authentication) ->
+                    signedSessionService.endSession(request, response))
+            )
+            .addFilterBefore(new SignedSessionAuthenticationFilter(signedSessionService),
+                    UsernamePasswordAuthenticationFilter.class);
+    }
+
     /**
      * Password encoder bean for BCrypt hashing.
+     * Strength is fixed by password-hashing.strength, or calibrated on this machine so one
+     * hash takes about password-hashing.target-hash-millis.
      * 
      * @return BCryptPasswordEncoder instance
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = passwordHashingProperties.getStrength() > 0
+                ? passwordHashingProperties.getStrength()
+                : BCryptWorkFactor.calibrate(passwordHashingProperties.getTargetHashMillis(),
+                        passwordHashingProperties.getMinStrength(), passwordHashingProperties.getMaxStrength());
+        return new BCryptPasswordEncoder(strength);
     }
-}
 
+    /**
+     * The only authentication provider: database users, checked on the bounded login executor.
+     * Hashes weaker than the current strength are re-hashed after a successful sign-in
+     * (CustomUserDetailsService implements UserDetailsPasswordService).
+     * 
+     * @param passwordEncoder the password encoder
+     * @param loginExecutor the bounded login executor (SchedulingConfig)
+     * @return bounded authentication provider
+     */
+    @Bean
+    public BoundedLoginAuthenticationProvider loginAuthenticationProvider(PasswordEncoder passwordEncoder,
+                                                                          @Qualifier("loginExecutor") AsyncTaskExecutor loginExecutor) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(passwordEncoder);
+        daoProvider.setUserDetailsService(userDetailsService);
+        daoProvider.setUserDetailsPasswordService(userDetailsService);
+
+        return new BoundedLoginAuthenticationProvider(daoProvider, loginExecutor,
+                passwordHashingProperties.getLoginTimeoutMillis());
+    }
+
+    /**
+     * Failed sign-in: bad credentials go back to the form with an error; turned-away
+     * sign-ins (login executor saturated) get a retry hint instead.
+     */
+    private static AuthenticationFailureHandler loginFailureHandler() {
+        SimpleUrlAuthenticationFailureHandler invalid = new SimpleUrlAuthenticationFailureHandler("/login?error=true");
+        SimpleUrlAuthenticationFailureHandler busy = new SimpleUrlAuthenticationFailureHandler("/login?busy=true");
+        return (request, response, exception) -> {
+            if (exception instanceof LoginThrottledException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, LOGIN_RETRY_AFTER_SECONDS);
+                busy.onAuthenticationFailure(request, response, exception);
+            } else {
+                invalid.onAuthenticationFailure(request, response, exception);
+            }
+        };
+    }
+}
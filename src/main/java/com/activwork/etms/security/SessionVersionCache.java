@@ -0,0 +1,166 @@
+package com.activwork.etms.security;
+
+import com.activwork.etms.config.SignedSessionProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.model.UserRole;
+import com.activwork.etms.service.CacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user session version, cached for the stateless session mode.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Replaces the per-node SessionRegistry: "one session per user" becomes
+ *   "only the cookie carrying the user's current users.session_version is valid"
+ *
+ * Design Notes:
+ * 1. A sign-in increments users.session_version and its cookie carries the new value,
+ *    so every older cookie of that user (any device, any node) stops matching
+ * 2. Each node caches (email, role, active, version) per user for a few seconds, so a
+ *    request normally costs a map lookup; the cache is the only per-user server state
+ * 3. Logout only increments the version it was given, so logging out of a session that
+ *    was already replaced does not end the newer one
+ * 4. Sign-in, logout and (de)activation publish a USER invalidation, so other instances
+ *    drop their cached entry at once (with cache-invalidation.bus=postgres) instead of
+ *    after signed-session.version-cache-seconds
+ * 5. SQL runs outside any transaction and therefore always on the primary
+ */
+@Slf4j
+@Component
+public class SessionVersionCache {
+
+    private static final RowMapper<UserSession> USER_SESSION = (rs, rowNum) -> new UserSession(
+            rs.getObject("id", UUID.class),
+            rs.getString("email"),
+            UserRole.valueOf(rs.getString("role")),
+            rs.getBoolean("is_active"),
+            rs.getInt("session_version"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final String schema;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<UUID, Cached> cache = new ConcurrentHashMap<>();
+
+    public SessionVersionCache(DataSource dataSource,
+                               SignedSessionProperties signedSessionProperties,
+                               CacheInvalidationBus cacheInvalidationBus,
+                               @Value("${spring.jpa.properties.hibernate.default_schema:etms}") String schema) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.schema = schema;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, signedSessionProperties.getVersionCacheSeconds()));
+        this.maxEntries = Math.max(1, signedSessionProperties.getVersionCacheMaxEntries());
+    }
+
+    /**
+     * Start a new session for a user, ending all of their previous ones.
+     *
+     * @param email the user's email (security principal name)
+     * @return the user with their new session version, empty if no such user
+     */
+    public Optional<UserSession> startSession(String email) {
+        List<UserSession> rows = jdbcTemplate.query(
+                "UPDATE " + schema + ".users SET session_version = session_version + 1 WHERE email = ? " +
+                        "RETURNING id, email, role, is_active, session_version",
+                USER_SESSION, email);
+        rows.forEach(session -> {
+            cacheInvalidationBus.publish(Region.USER, session.userId());
+            put(session);
+        });
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Current session state of a user (cached for signed-session.version-cache-seconds).
+     *
+     * @param userId the user UUID
+     * @return the user's session state, empty if the user no longer exists
+     */
+    public Optional<UserSession> get(UUID userId) {
+        Cached cached = cache.get(userId);
+        if (cached != null && System.nanoTime() - cached.loadedAtNanos() < ttlNanos) {
+            return Optional.of(cached.session());
+        }
+
+        List<UserSession> rows = jdbcTemplate.query(
+                "SELECT id, email, role, is_active, session_version FROM " + schema + ".users WHERE id = ?",
+                USER_SESSION, userId);
+        if (rows.isEmpty()) {
+            cache.remove(userId);
+            return Optional.empty();
+        }
+        put(rows.get(0));
+        return Optional.of(rows.get(0));
+    }
+
+    /**
+     * End a session (logout). No-op if the user has signed in again since.
+     *
+     * @param userId the user UUID
+     * @param sessionVersion the version carried by the session being ended
+     */
+    public void endSession(UUID userId, int sessionVersion) {
+        int updated = jdbcTemplate.update(
+                "UPDATE " + schema + ".users SET session_version = session_version + 1 " +
+                        "WHERE id = ? AND session_version = ?",
+                userId, sessionVersion);
+        if (updated > 0) {
+            cacheInvalidationBus.publish(Region.USER, userId);
+        }
+        cache.remove(userId);
+        log.debug("Session {} of user {} ended ({} row(s))", sessionVersion, userId, updated);
+    }
+
+    /**
+     * Drop cached users changed on this or another instance.
+     *
+     * @param event the cache invalidation
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEventDto event) {
+        if (!event.covers(Region.USER)) {
+            return;
+        }
+        if (event.getKey() == null) {
+            cache.clear();
+        } else {
+            cache.remove(event.getKey());
+        }
+    }
+
+    private void put(UserSession session) {
+        if (cache.size() >= maxEntries && !cache.containsKey(session.userId())) {
+            long now = System.nanoTime();
+            cache.values().removeIf(cached -> now - cached.loadedAtNanos() >= ttlNanos);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(session.userId(), new Cached(session, System.nanoTime()));
+    }
+
+    /**
+     * What a request needs to know about its signed-in user.
+     */
+    public record UserSession(UUID userId, String email, UserRole role, boolean active, int sessionVersion) {
+    }
+
+    private record Cached(UserSession session, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.activwork.etms.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Restores the signed-in user from the signed session cookie (stateless mode).
+ * Added to the security filter chain by SecurityConfig; not a servlet filter bean.
+ */
+public class SignedSessionAuthenticationFilter extends OncePerRequestFilter {
+
+    private final SignedSessionService signedSessionService;
+
+    public SignedSessionAuthenticationFilter(SignedSessionService signedSessionService) {
+        this.signedSessionService = signedSessionService;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            Authentication authentication = signedSessionService.authenticate(request, response);
+            if (authentication != null) {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,183 @@
+package com.activwork.etms.security;
+
+import com.activwork.etms.config.SignedSessionProperties;
+import com.activwork.etms.security.SessionVersionCache.UserSession;
+import com.activwork.etms.security.SignedSessionCodec.Claims;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Signed-cookie sessions (signed-session.enabled=true).
+ *
+ * GRASP Pattern: Controller
+ * - Coordinates the cookie (SignedSessionCodec) and the session version (SessionVersionCache)
+ *   for sign-in, every authenticated request and logout
+ *
+ * Design Notes:
+ * 1. The cookie carries user id, role, expiry and session version, HMAC-signed; no
+ *    session is kept on the server, so any node can serve any request
+ * 2. A cookie is accepted only while unexpired, for an active user whose role and
+ *    current session version still match it (single session per user)
+ * 3. The principal is the same UserDetails (username = email) that form login produces,
+ *    so controllers work unchanged in both modes
+ * 4. The expiry slides: past half of its lifetime the cookie is re-issued
+ */
+@Slf4j
+@Service
+public class SignedSessionService {
+
+    private final SignedSessionProperties signedSessionProperties;
+    private final SessionVersionCache sessionVersionCache;
+    private final SignedSessionCodec codec;
+
+    public SignedSessionService(SignedSessionProperties signedSessionProperties,
+                                SessionVersionCache sessionVersionCache) {
+        this.signedSessionProperties = signedSessionProperties;
+        this.sessionVersionCache = sessionVersionCache;
+        this.codec = signedSessionProperties.isEnabled()
+                ? new SignedSessionCodec(secretBytes(signedSessionProperties.getSecret()))
+                : null;
+    }
+
+    /**
+     * @return true if sign-ins are kept in signed cookies instead of HTTP sessions
+     */
+    public boolean isEnabled() {
+        return codec != null;
+    }
+
+    /**
+     * Start a session after a successful sign-in and send its cookie.
+     *
+     * @param email the signed-in user's email
+     * @param response the sign-in response
+     */
+    public void startSession(String email, HttpServletResponse response) {
+        UserSession session = sessionVersionCache.startSession(email)
+                .orElseThrow(() -> new IllegalStateException("Signed-in user not found: " + email));
+        writeCookie(response, new Claims(session.userId(), session.role(), newExpiry(), session.sessionVersion()));
+        log.debug("Signed session {} started for user {}", session.sessionVersion(), session.userId());
+    }
+
+    /**
+     * Authenticate a request from its session cookie.
+     * An invalid cookie is cleared; a valid one past half of its lifetime is re-issued.
+     *
+     * @param request the request
+     * @param response the response
+     * @return the authentication, or null if the request has no valid session
+     */
+    public Authentication authenticate(HttpServletRequest request, HttpServletResponse response) {
+        String value = readCookie(request);
+        if (value == null) {
+            return null;
+        }
+
+        long now = Instant.now().getEpochSecond();
+        Optional<Claims> claims = codec.decode(value).filter(c -> c.expiresAtEpochSecond() > now);
+        Optional<UserSession> session = claims.flatMap(c -> sessionVersionCache.get(c.userId()))
+                .filter(s -> s.active()
+                        && s.role() == claims.get().role()
+                        && s.sessionVersion() == claims.get().sessionVersion());
+        if (session.isEmpty()) {
+            clearCookie(response);
+            return null;
+        }
+
+        Claims current = claims.get();
+        if (current.expiresAtEpochSecond() - now < ttlSeconds() / 2) {
+            writeCookie(response, new Claims(current.userId(), current.role(), newExpiry(), current.sessionVersion()));
+        }
+
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(current.role().name()));
+        UserDetails principal = User.withUsername(session.get().email())
+                .password("")
+                .authorities(authorities)
+                .build();
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+    }
+
+    /**
+     * End the request's session (logout) and clear its cookie.
+     *
+     * @param request the logout request
+     * @param response the logout response
+     */
+    public void endSession(HttpServletRequest request, HttpServletResponse response) {
+        codec.decode(readCookie(request))
+                .ifPresent(claims -> sessionVersionCache.endSession(claims.userId(), claims.sessionVersion()));
+        clearCookie(response);
+    }
+
+    private String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (signedSessionProperties.getCookieName().equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void writeCookie(HttpServletResponse response, Claims claims) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(codec.encode(claims), Duration.ofSeconds(ttlSeconds())));
+    }
+
+    private void clearCookie(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO));
+    }
+
+    private String cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(signedSessionProperties.getCookieName(), value)
+                .path("/")
+                .httpOnly(true)
+                .secure(signedSessionProperties.isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build()
+                .toString();
+    }
+
+    private long newExpiry() {
+        return Instant.now().getEpochSecond() + ttlSeconds();
+    }
+
+    private long ttlSeconds() {
+        return Math.max(60, Duration.ofMinutes(signedSessionProperties.getTtlMinutes()).toSeconds());
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("signed-session.secret is required when signed-session.enabled=true");
+        }
+        try {
+            byte[] decoded = Base64.getDecoder().decode(secret.trim());
+            if (decoded.length >= 32) {
+                return decoded;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64 - use the text itself
+        }
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+}
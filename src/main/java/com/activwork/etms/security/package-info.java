@@ -7,16 +7,21 @@
  * Components:
  * - SecurityConfig: Main security configuration
  * - CustomUserDetailsService: User authentication implementation
+ * - SignedSessionService, SessionVersionCache, SignedSessionCodec,
+ *   SignedSessionAuthenticationFilter: optional stateless sessions
  * 
  * Security Architecture:
  * 
  * 1. Authentication (Session-based):
  *    - User submits email + password
  *    - CustomUserDetailsService loads user from database
- *    - Spring Security validates password (BCrypt)
+ *    - Spring Security validates password (BCrypt) on a bounded login executor
  *    - HTTP session created on successful login
  *    - Session ID stored in cookie (JSESSIONID)
  *    - 30-minute session timeout (configured in application.properties)
+ *    - Stateless alternative (signed-session.enabled=true): no HTTP session; an
+ *      HMAC-signed cookie carries user id, role, expiry and session version,
+ *      so any instance can serve any request without sticky load balancing
  * 
  * 2. Authorization (Role-based):
  *    - INSTRUCTOR role: Can create/manage courses, view enrollments
@@ -25,7 +30,8 @@
  *    - Access control rules in SecurityConfig
  * 
  * 3. Password Security:
- *    - BCrypt hashing (BCryptPasswordEncoder)
+ *    - BCrypt hashing (BCryptPasswordEncoder), strength calibrated at startup
+ *    - Weaker stored hashes are re-hashed on successful sign-in
  *    - Salted hashes (automatic with BCrypt)
  *    - One-way encryption (cannot reverse)
  *    - Password strength: min 8 characters (validated in DTO)
@@ -33,7 +39,8 @@
  * 4. Session Security:
  *    - HTTP-only cookies (prevents XSS)
  *    - CSRF protection enabled (for forms)
- *    - One session per user
+ *    - One session per user (stateless mode: a sign-in increments users.session_version,
+ *      which invalidates the user's older cookies on every instance)
  *    - Auto-logout on inactivity
  * 
  * Access Control Matrix:
@@ -49,7 +56,6 @@
  * </pre>
  * 
  * Future Enhancements:
- * - JWT authentication (stateless)
  * - OAuth2 integration (Google, GitHub)
  * - Two-factor authentication (2FA)
  * - Remember-me functionality
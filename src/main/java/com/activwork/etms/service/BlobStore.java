@@ -0,0 +1,110 @@
+package com.activwork.etms.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend SPI used by FileStorageService.
+ *
+ * GRASP Pattern: Protected Variations
+ * - FileStorageService depends on this interface, not on local Paths or a vendor SDK
+ * - The active backend is chosen with file.storage-backend (local | s3)
+ *
+ * Keys are relative, slash-separated names such as {@code materials/<uuid>.pdf}
+ * or {@code banners/<hash>-640.jpg}. Stored objects are never rewritten in place.
+ */
+public interface BlobStore {
+
+    /**
+     * Store an object, streaming from the given input.
+     * Implementations publish the object atomically: readers never see a partial write.
+     *
+     * @param key the object key
+     * @param content the content stream (not closed)
+     * @param contentLength the content length in bytes, or -1 if unknown
+     * @param contentType MIME type, may be null
+     * @throws IOException if the write fails
+     */
+    void put(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    /**
+     * Get an object as a streaming Resource.
+     *
+     * @param key the object key
+     * @return the resource (check exists() before serving)
+     */
+    Resource get(String key);
+
+    /**
+     * @param key the object key
+     * @return true if the object exists
+     */
+    boolean exists(String key);
+
+    /**
+     * Delete an object; missing objects are ignored.
+     *
+     * @param key the object key
+     * @throws IOException if the delete fails
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Move an object to a new key. The target appears atomically where the backend allows it;
+     * the source is removed once the target is in place.
+     *
+     * @param sourceKey the existing key
+     * @param targetKey the new key
+     * @throws IOException if the move fails
+     */
+    void move(String sourceKey, String targetKey) throws IOException;
+
+    /**
+     * List objects under a key prefix. The returned stream must be closed.
+     *
+     * @param prefix folder prefix ending with a slash, e.g. "materials/"
+     * @param recursive include objects in nested folders
+     * @return stream of object keys with size and last modified time
+     * @throws IOException if listing fails
+     */
+    Stream<BlobInfo> list(String prefix, boolean recursive) throws IOException;
+
+    /**
+     * Time-limited URL a client can download the object from directly.
+     *
+     * @param key the object key
+     * @param ttl how long the URL stays valid
+     * @param contentType Content-Type to return, may be null
+     * @param contentDisposition Content-Disposition to return, may be null
+     * @return the URL, or empty if the backend cannot serve clients directly
+     */
+    Optional<URI> presignedGetUrl(String key, Duration ttl, String contentType, String contentDisposition);
+
+    /**
+     * Local file backing the object, for backends that keep objects on this node's disk.
+     * Used for memory-mapping hot files.
+     *
+     * @param key the object key
+     * @return the file path, or null for remote backends
+     */
+    default Path localPath(String key) {
+        return null;
+    }
+
+    /**
+     * Listing entry.
+     *
+     * @param key the object key
+     * @param size size in bytes
+     * @param lastModified last modified time in millis
+     */
+    record BlobInfo(String key, long size, long lastModified) {
+    }
+}
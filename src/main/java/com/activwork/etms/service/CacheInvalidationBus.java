@@ -0,0 +1,49 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Cache invalidation SPI: tells every application instance that cached data changed.
+ *
+ * GRASP Pattern: Protected Variations
+ * - Services publish "what changed" without knowing how many instances run or how they talk
+ * - The active bus is chosen with cache-invalidation.bus (local | postgres)
+ *
+ * Every instance, including the publishing one, applies the invalidation through
+ * CacheKeyVersions, which announces it to the local caches as CacheInvalidationEventDto.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Invalidate a key on every instance now.
+     * Call only once the change is committed (see publishAfterCommit).
+     *
+     * @param region what changed
+     * @param key the course id (user id for USER, learner id for ENROLLMENT), or null for the whole region
+     */
+    void publish(Region region, UUID key);
+
+    /**
+     * Invalidate a key on every instance once the current transaction commits
+     * (immediately if there is none). Nothing is published on rollback.
+     *
+     * @param region what changed
+     * @param key the course id (user id for USER, learner id for ENROLLMENT), or null for the whole region
+     */
+    default void publishAfterCommit(Region region, UUID key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(region, key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(region, key);
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.CacheInvalidationProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned cache keys of this node.
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows, per (region, key), the version at which it was last invalidated on this node
+ *
+ * Design Notes:
+ * 1. Every invalidation takes the next value of one node-wide clock and stamps it on the
+ *    key, on the region (as "some key changed") and for whole-region or global
+ *    invalidations on all keys of the region / on everything
+ * 2. A cache reads the version before loading and installs what it loaded only if the
+ *    version is unchanged afterwards, so a load that raced with an invalidation (local
+ *    or from another node) never installs stale data
+ * 3. Invalidations are announced as CacheInvalidationEventDto, synchronously on the
+ *    calling thread (after commit / on the bus listener thread), to the local caches,
+ *    only after the new version is stamped: a load that read the old version and
+ *    finishes after the caches were cleared sees the new version and is discarded
+ * 4. Beyond cache-invalidation.max-tracked-keys the per-key versions are dropped and the
+ *    floor raised: conservative (in-flight loads are discarded), never stale
+ */
+@Slf4j
+@Service
+public class CacheKeyVersions {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxTrackedKeys;
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Key, Long> keyVersions = new ConcurrentHashMap<>();
+    // Guarded by itself: last invalidation of any key of a region / of the whole region
+    private final Map<Region, Long> anyKeyVersions = new EnumMap<>(Region.class);
+    private final Map<Region, Long> wholeRegionVersions = new EnumMap<>(Region.class);
+    private volatile long floor;
+
+    public CacheKeyVersions(ApplicationEventPublisher eventPublisher,
+                            CacheInvalidationProperties cacheInvalidationProperties) {
+        this.eventPublisher = eventPublisher;
+        this.maxTrackedKeys = Math.max(1, cacheInvalidationProperties.getMaxTrackedKeys());
+    }
+
+    /**
+     * Current version of a key.
+     *
+     * @param region the region
+     * @param key the key, or null for "any key of the region"
+     * @return the version; a later call returns a different value once the key has been invalidated
+     */
+    public long current(Region region, UUID key) {
+        long version = floor;
+        synchronized (anyKeyVersions) {
+            Map<Region, Long> regionVersions = key == null ? anyKeyVersions : wholeRegionVersions;
+            version = Math.max(version, regionVersions.getOrDefault(region, 0L));
+        }
+        if (key != null) {
+            version = Math.max(version, keyVersions.getOrDefault(new Key(region, key), 0L));
+        }
+        return version;
+    }
+
+    /**
+     * Invalidate one key (or a whole region) on this node.
+     *
+     * @param region the region
+     * @param key the key, or null for every key of the region
+     * @param remote true if the change was committed on another node
+     */
+    public void invalidate(Region region, UUID key, boolean remote) {
+        long version = clock.incrementAndGet();
+        synchronized (anyKeyVersions) {
+            anyKeyVersions.put(region, version);
+            if (key == null) {
+                wholeRegionVersions.put(region, version);
+            }
+        }
+        if (key != null) {
+            if (keyVersions.size() >= maxTrackedKeys) {
+                floor = version;
+                keyVersions.clear();
+            }
+            keyVersions.put(new Key(region, key), version);
+        }
+        // Stamp first, then let the caches drop their entries (see design note 3)
+        eventPublisher.publishEvent(new CacheInvalidationEventDto(region, key, version, remote));
+    }
+
+    /**
+     * Invalidate everything on this node (e.g. invalidations may have been missed).
+     */
+    public void invalidateAll() {
+        long version = clock.incrementAndGet();
+        floor = version;
+        keyVersions.clear();
+        log.info("All local caches invalidated (version {})", version);
+        eventPublisher.publishEvent(new CacheInvalidationEventDto(null, null, version, true));
+    }
+
+    private record Key(Region region, UUID key) {
+    }
+}
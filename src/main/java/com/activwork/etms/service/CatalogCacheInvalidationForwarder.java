@@ -0,0 +1,29 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.dto.CourseCatalogEventDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards committed catalog changes (CourseCatalogEventDto) to the cache invalidation bus,
+ * so every instance drops what it cached about the course.
+ * Rating changes (feedback submitted, hidden or shown) go out as FEEDBACK, all others as COURSE.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogCacheInvalidationForwarder {
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * @param event the committed catalog change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChange(CourseCatalogEventDto event) {
+        Region region = event.getChange() == CourseCatalogEventDto.Change.RATED ? Region.FEEDBACK : Region.COURSE;
+        cacheInvalidationBus.publish(region, event.getCourseId());
+    }
+}
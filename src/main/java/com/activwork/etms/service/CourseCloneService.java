@@ -0,0 +1,324 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.CourseCloneProperties;
+import com.activwork.etms.dto.CourseCloneJobDto;
+import com.activwork.etms.dto.CourseCloneJobDto.Status;
+import com.activwork.etms.exception.ResourceNotFoundException;
+import com.activwork.etms.model.Course;
+import com.activwork.etms.repository.CourseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-side copy of a course with its sections and materials.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Background job that copies a course in a few set-based statements instead of the
+ *   instructor recreating every section and re-uploading every material
+ *
+ * Design Notes:
+ * 1. The course and all its sections are copied in one transaction with INSERT ... SELECT;
+ *    materials follow in keyset chunks of course-clone.chunk-size, one INSERT ... SELECT
+ *    per chunk, so a very large course never holds locks for the whole copy
+ * 2. A copied section's id is derived from (copy id, source section id), so materials find
+ *    their new section in any later chunk without a mapping table
+ * 3. File blobs are shared by reference: copied materials keep the source's stored
+ *    filename and path; material and course deletion only remove files no remaining
+ *    material references (MaterialService.deleteMaterialFilesAfterCommit)
+ * 4. Source rows are read FOR SHARE, so a concurrent deletion of a source material waits
+ *    for the chunk to commit and then sees the copy's reference to its file
+ * 5. The per-row section/material triggers are switched off for the copy's transactions
+ *    (etms.suppress_course_triggers, see database/19); section durations are copied as is
+ * 6. The copy is an inactive DRAFT until its last chunk is in; a failed copy is deleted
+ * 7. Progress is kept in memory on the node that runs the copy, for
+ *    course-clone.retain-finished-minutes after it ends
+ */
+@Slf4j
+@Service
+public class CourseCloneService {
+
+    private static final UUID NIL_UUID = new UUID(0L, 0L);
+    private static final String COPY_SUFFIX = " (Copy)";
+    private static final int MIN_TITLE_LENGTH = 5;
+    private static final int MAX_TITLE_LENGTH = 200;
+
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseCloneProperties courseCloneProperties;
+    private final TaskExecutor executor;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private final String sourceSql;
+    private final String courseSql;
+    private final String sectionsSql;
+    private final String materialsSql;
+    private final String activateSql;
+    private final String discardSql;
+
+    public CourseCloneService(CourseRepository courseRepository,
+                              TransactionTemplate transactionTemplate,
+                              DataSource dataSource,
+                              CourseCloneProperties courseCloneProperties,
+                              @Qualifier("courseCloneExecutor") TaskExecutor executor,
+                              @Value("${spring.jpa.properties.hibernate.default_schema:etms}") String schema) {
+        this.courseRepository = courseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.courseCloneProperties = courseCloneProperties;
+
+        this.executor = executor;
+
+        this.sourceSql = "SELECT " +
+                "(SELECT COUNT(*) FROM " + schema + ".course_sections cs WHERE cs.course_id = c.id) AS sections, " +
+                "(SELECT COUNT(*) FROM " + schema + ".materials m WHERE m.course_id = c.id) AS materials " +
+                "FROM " + schema + ".courses c WHERE c.id = ? FOR SHARE OF c";
+        this.courseSql = "INSERT INTO " + schema + ".courses (title, summary, description, instructor_id, " +
+                "category, duration_hours, status, thumbnail_url, video_preview_url, prerequisites, " +
+                "learning_objectives, tags, end_date, is_featured, is_active) " +
+                "SELECT ?, summary, description, instructor_id, category, duration_hours, 'DRAFT', " +
+                "thumbnail_url, video_preview_url, prerequisites, learning_objectives, tags, end_date, FALSE, FALSE " +
+                "FROM " + schema + ".courses WHERE id = ? RETURNING id";
+        this.sectionsSql = "INSERT INTO " + schema + ".course_sections (id, course_id, title, description, " +
+                "section_order, duration_minutes, is_active) " +
+                "SELECT md5(?::text || cs.id::text)::uuid, ?, cs.title, cs.description, cs.section_order, " +
+                "cs.duration_minutes, cs.is_active " +
+                "FROM " + schema + ".course_sections cs WHERE cs.course_id = ?";
+        this.materialsSql = "WITH chunk AS (" +
+                "SELECT * FROM " + schema + ".materials WHERE course_id = ? AND id > ? ORDER BY id LIMIT ? FOR SHARE" +
+                "), copied AS (" +
+                "INSERT INTO " + schema + ".materials (course_id, section_id, material_order, filename, " +
+                "original_filename, mime_type, material_type, path, file_size, duration_seconds, thumbnail_url, " +
+                "is_downloadable, is_required, display_order, description, is_active) " +
+                "SELECT ?, ns.id, m.material_order, m.filename, m.original_filename, m.mime_type, m.material_type, " +
+                "m.path, m.file_size, m.duration_seconds, m.thumbnail_url, m.is_downloadable, m.is_required, " +
+                "m.display_order, m.description, m.is_active " +
+                "FROM chunk m LEFT JOIN " + schema + ".course_sections ns " +
+                "ON ns.id = md5(?::text || m.section_id::text)::uuid AND ns.course_id = ?" +
+                ") " +
+                "SELECT (SELECT id FROM chunk ORDER BY id DESC LIMIT 1) AS last_id, " +
+                "(SELECT COUNT(*) FROM chunk) AS copied";
+        this.activateSql = "UPDATE " + schema + ".courses SET is_active = TRUE WHERE id = ?";
+        this.discardSql = "DELETE FROM " + schema + ".courses WHERE id = ?";
+    }
+
+    /**
+     * Start copying a course in the background.
+     *
+     * @param sourceCourseId the course to copy
+     * @param instructorId the instructor asking (must own the course)
+     * @param title title of the copy, or blank for "&lt;source title&gt; (Copy)"
+     * @return the queued copy job
+     * @throws ResourceNotFoundException if the course does not exist
+     * @throws IllegalArgumentException if not the course instructor or the title is invalid
+     * @throws IllegalStateException if too many copies are already waiting
+     */
+    public CourseCloneJobDto startClone(UUID sourceCourseId, UUID instructorId, String title) {
+        Course source = courseRepository.findById(sourceCourseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course", sourceCourseId));
+
+        // Business rule: Only the course instructor can copy it
+        if (!source.getInstructor().getId().equals(instructorId)) {
+            throw new IllegalArgumentException("Only the course instructor can copy this course");
+        }
+
+        String copyTitle = copyTitle(source.getTitle(), title);
+        removeExpiredJobs();
+
+        Job job = new Job(UUID.randomUUID(), sourceCourseId, instructorId, copyTitle);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("Too many course copies in progress, please try again later");
+        }
+
+        log.info("Course copy {} queued: {} -> '{}'", job.id, sourceCourseId, copyTitle);
+        return job.toDto();
+    }
+
+    /**
+     * Get the progress of a course copy.
+     *
+     * @param jobId the copy job UUID
+     * @param instructorId the instructor asking
+     * @return the job's progress
+     * @throws ResourceNotFoundException if unknown (or not this instructor's)
+     */
+    public CourseCloneJobDto getJob(UUID jobId, UUID instructorId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.instructorId.equals(instructorId)) {
+            throw new ResourceNotFoundException("Course copy", jobId);
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Get the course copies of an instructor known to this node (running and recently finished).
+     *
+     * @param instructorId the instructor UUID
+     * @return the jobs, newest first
+     */
+    public List<CourseCloneJobDto> getJobs(UUID instructorId) {
+        return jobs.values().stream()
+                .filter(job -> job.instructorId.equals(instructorId))
+                .map(Job::toDto)
+                .sorted((a, b) -> b.getStartedAt().compareTo(a.getStartedAt()))
+                .toList();
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        long startNanos = System.nanoTime();
+        try {
+            // 1. Course and sections, in one transaction
+            transactionTemplate.executeWithoutResult(status -> {
+                suppressCourseTriggers();
+                Map<String, Object> totals = jdbcTemplate.queryForMap(sourceSql, job.sourceCourseId);
+                job.totalSections = ((Number) totals.get("sections")).longValue();
+                job.totalMaterials = ((Number) totals.get("materials")).longValue();
+
+                UUID courseId = jdbcTemplate.queryForObject(courseSql, UUID.class, job.title, job.sourceCourseId);
+                job.copiedSections = jdbcTemplate.update(sectionsSql, courseId, courseId, job.sourceCourseId);
+                job.courseId = courseId;
+            });
+
+            // 2. Materials, one chunk per transaction
+            int chunkSize = Math.max(1, courseCloneProperties.getChunkSize());
+            UUID afterId = NIL_UUID;
+            while (afterId != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Copy interrupted (application shutting down)");
+                }
+                UUID after = afterId;
+                afterId = transactionTemplate.execute(status -> {
+                    suppressCourseTriggers();
+                    Map<String, Object> chunk = jdbcTemplate.queryForMap(materialsSql,
+                            job.sourceCourseId, after, chunkSize, job.courseId, job.courseId, job.courseId);
+                    long copied = ((Number) chunk.get("copied")).longValue();
+                    job.copiedMaterials.addAndGet(copied);
+                    return copied < chunkSize ? null : (UUID) chunk.get("last_id");
+                });
+            }
+
+            // 3. The copy goes live only when complete
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(activateSql, job.courseId));
+
+            job.finish(Status.COMPLETED, null);
+            log.info("Course copy {} completed: course {} ({} sections, {} materials) in {} ms",
+                    job.id, job.courseId, job.copiedSections, job.copiedMaterials.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+        } catch (RuntimeException e) {
+            log.error("Course copy {} of course {} failed", job.id, job.sourceCourseId, e);
+            discard(job);
+            job.finish(Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void suppressCourseTriggers() {
+        jdbcTemplate.queryForObject("SELECT set_config('etms.suppress_course_triggers', 'on', true)", String.class);
+    }
+
+    private void discard(Job job) {
+        if (job.courseId == null) {
+            return;
+        }
+        try {
+            // Blobs are shared with the source course, so only rows go
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(discardSql, job.courseId));
+            job.courseId = null;
+        } catch (RuntimeException e) {
+            log.error("Could not remove incomplete course copy {}", job.courseId, e);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        long retainNanos = TimeUnit.MINUTES.toNanos(Math.max(0, courseCloneProperties.getRetainFinishedMinutes()));
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.finishedAtNanos != 0 && now - job.finishedAtNanos >= retainNanos);
+    }
+
+    private static String copyTitle(String sourceTitle, String requestedTitle) {
+        String title = requestedTitle != null && !requestedTitle.isBlank()
+                ? requestedTitle.trim()
+                : abbreviate(sourceTitle, MAX_TITLE_LENGTH - COPY_SUFFIX.length()) + COPY_SUFFIX;
+        if (title.length() < MIN_TITLE_LENGTH || title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Title must be between " + MIN_TITLE_LENGTH +
+                    " and " + MAX_TITLE_LENGTH + " characters");
+        }
+        return title;
+    }
+
+    private static String abbreviate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * Progress of one copy; written by its worker thread, read by requests.
+     */
+    private static final class Job {
+
+        final UUID id;
+        final UUID sourceCourseId;
+        final UUID instructorId;
+        final String title;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong copiedMaterials = new AtomicLong();
+
+        volatile Status status = Status.QUEUED;
+        volatile UUID courseId;
+        volatile long totalSections;
+        volatile long copiedSections;
+        volatile long totalMaterials;
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+        volatile long finishedAtNanos;
+
+        Job(UUID id, UUID sourceCourseId, UUID instructorId, String title) {
+            this.id = id;
+            this.sourceCourseId = sourceCourseId;
+            this.instructorId = instructorId;
+            this.title = title;
+        }
+
+        void finish(Status status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.finishedAtNanos = Math.max(1L, System.nanoTime());
+            this.status = status;
+        }
+
+        CourseCloneJobDto toDto() {
+            Status current = status;
+            long copied = copiedMaterials.get();
+            int percent;
+            if (current == Status.COMPLETED) {
+                percent = 100;
+            } else if (totalMaterials > 0) {
+                percent = (int) Math.min(99, copied * 100 / totalMaterials);
+            } else {
+                percent = 0;
+            }
+            return new CourseCloneJobDto(id, sourceCourseId, courseId, title, current,
+                    totalSections, copiedSections, totalMaterials, copied, percent,
+                    error, startedAt, finishedAt);
+        }
+    }
+}
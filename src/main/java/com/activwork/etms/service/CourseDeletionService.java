@@ -0,0 +1,218 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.CourseDeletionProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.dto.CourseCatalogEventDto;
+import com.activwork.etms.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set-based deletion of a course and everything under it.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Deletes a course's rows with chunked bulk DELETEs instead of loading every child
+ *   collection into the persistence context and deleting it row by row
+ *
+ * Design Notes:
+ * 1. The course row is locked, ownership checked and the course hidden (is_active = FALSE)
+ *    in a short first transaction; the catalog drops it as soon as that commits
+ * 2. Children go in dependency order - material progress, enrollments, feedback,
+ *    materials, sections - at most course-deletion.chunk-size rows per transaction,
+ *    so no step holds locks for long
+ * 3. The course row goes last; ON DELETE CASCADE removes whatever was added meanwhile
+ *    (a late enrollment) and the small tables (course card, live sessions, analytics)
+ * 4. Per-row course triggers are switched off in these transactions
+ *    (etms.suppress_course_triggers, see database/19 and 20): the enrollment count,
+ *    rating and section duration they maintain belong to the course being deleted
+ * 5. Every step is idempotent: a deletion that fails half-way leaves a hidden course
+ *    the instructor can delete again
+ * 6. Material files are removed by a background job once the rows are gone, keeping
+ *    files a course copy still references
+ */
+@Slf4j
+@Service
+public class CourseDeletionService {
+
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MaterialService materialService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseDeletionProperties courseDeletionProperties;
+    private final TaskExecutor fileCleanupExecutor;
+
+    private final String lockSql;
+    private final String hideSql;
+    private final String progressChunkSql;
+    private final String enrollmentChunkSql;
+    private final String feedbackChunkSql;
+    private final String materialChunkSql;
+    private final String sectionChunkSql;
+    private final String courseSql;
+
+    public CourseDeletionService(TransactionTemplate transactionTemplate,
+                                 DataSource dataSource,
+                                 MaterialService materialService,
+                                 CacheInvalidationBus cacheInvalidationBus,
+                                 ApplicationEventPublisher eventPublisher,
+                                 CourseDeletionProperties courseDeletionProperties,
+                                 @Qualifier("courseFileCleanupExecutor") TaskExecutor fileCleanupExecutor,
+                                 @Value("${spring.jpa.properties.hibernate.default_schema:etms}") String schema) {
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.materialService = materialService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.eventPublisher = eventPublisher;
+        this.courseDeletionProperties = courseDeletionProperties;
+        this.fileCleanupExecutor = fileCleanupExecutor;
+
+        this.lockSql = "SELECT instructor_id FROM " + schema + ".courses WHERE id = ? FOR UPDATE";
+        this.hideSql = "UPDATE " + schema + ".courses SET is_active = FALSE WHERE id = ?";
+        this.progressChunkSql = "DELETE FROM " + schema + ".material_progress WHERE id IN (" +
+                "SELECT mp.id FROM " + schema + ".material_progress mp " +
+                "JOIN " + schema + ".enrollments e ON e.id = mp.enrollment_id " +
+                "WHERE e.course_id = ? LIMIT ?)";
+        this.enrollmentChunkSql = chunkSql(schema, "enrollments", "course_id");
+        this.feedbackChunkSql = chunkSql(schema, "feedback", "course_id");
+        this.materialChunkSql = chunkSql(schema, "materials", "course_id") + " RETURNING filename";
+        this.sectionChunkSql = chunkSql(schema, "course_sections", "course_id");
+        this.courseSql = "DELETE FROM " + schema + ".courses WHERE id = ?";
+    }
+
+    private static String chunkSql(String schema, String table, String column) {
+        return "DELETE FROM " + schema + "." + table + " WHERE id IN (" +
+                "SELECT id FROM " + schema + "." + table + " WHERE " + column + " = ? LIMIT ?)";
+    }
+
+    /**
+     * Delete a course permanently with all its sections, materials, enrollments,
+     * progress and feedback.
+     *
+     * @param courseId the course UUID
+     * @param instructorId the instructor deleting the course (must own it)
+     * @throws ResourceNotFoundException if course not found
+     * @throws IllegalArgumentException if instructor doesn't own the course
+     */
+    public void deleteCourse(UUID courseId, UUID instructorId) {
+        long startNanos = System.nanoTime();
+
+        // 1. Check ownership and take the course out of the catalog
+        transactionTemplate.executeWithoutResult(status -> {
+            List<UUID> owners = jdbcTemplate.queryForList(lockSql, UUID.class, courseId);
+            if (owners.isEmpty()) {
+                throw new ResourceNotFoundException("Course", courseId);
+            }
+            // Business rule: Only the course instructor can delete
+            if (!instructorId.equals(owners.get(0))) {
+                throw new IllegalArgumentException("Only the course instructor can delete this course");
+            }
+            jdbcTemplate.update(hideSql, courseId);
+            eventPublisher.publishEvent(new CourseCatalogEventDto(courseId, CourseCatalogEventDto.Change.UPDATED));
+        });
+
+        // 2. Children in dependency order, one chunk per transaction
+        List<String> materialFilenames = new ArrayList<>();
+        boolean invalidateEnrollments = false;
+        try {
+            long progress = deleteInChunks(progressChunkSql, courseId);
+            // If a later chunk fails, the ones before it are committed
+            invalidateEnrollments = true;
+            long enrollments = deleteInChunks(enrollmentChunkSql, courseId);
+            invalidateEnrollments = enrollments > 0;
+            long feedback = deleteInChunks(feedbackChunkSql, courseId);
+            deleteMaterialsInChunks(courseId, materialFilenames);
+            long sections = deleteInChunks(sectionChunkSql, courseId);
+
+            // 3. The course row, cascading whatever is left
+            transactionTemplate.executeWithoutResult(status -> {
+                suppressCourseTriggers();
+                jdbcTemplate.update(courseSql, courseId);
+                eventPublisher.publishEvent(new CourseCatalogEventDto(courseId, CourseCatalogEventDto.Change.DELETED));
+            });
+
+            log.info("Course {} deleted in {} ms: {} enrollments, {} progress records, {} feedback, " +
+                            "{} materials, {} sections",
+                    courseId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    enrollments, progress, feedback, materialFilenames.size(), sections);
+        } finally {
+            // Learners' cached enrollments may name deleted enrollments
+            if (invalidateEnrollments) {
+                cacheInvalidationBus.publish(Region.ENROLLMENT, null);
+            }
+            // Files of materials already deleted go even if a later step failed
+            deleteFilesInBackground(courseId, materialFilenames);
+        }
+    }
+
+    private long deleteInChunks(String sql, UUID courseId) {
+        int chunkSize = chunkSize();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                suppressCourseTriggers();
+                return jdbcTemplate.update(sql, courseId, chunkSize);
+            });
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
+    }
+
+    private void deleteMaterialsInChunks(UUID courseId, List<String> filenames) {
+        int chunkSize = chunkSize();
+        int deleted;
+        do {
+            List<String> chunk = transactionTemplate.execute(status -> {
+                suppressCourseTriggers();
+                return jdbcTemplate.queryForList(materialChunkSql, String.class, courseId, chunkSize);
+            });
+            filenames.addAll(chunk);
+            deleted = chunk.size();
+        } while (deleted == chunkSize);
+    }
+
+    private void deleteFilesInBackground(UUID courseId, List<String> filenames) {
+        if (filenames.isEmpty()) {
+            return;
+        }
+        int batchSize = chunkSize();
+        try {
+            fileCleanupExecutor.execute(() -> {
+                for (int from = 0; from < filenames.size(); from += batchSize) {
+                    List<String> batch = filenames.subList(from, Math.min(filenames.size(), from + batchSize));
+                    try {
+                        materialService.deleteMaterialFilesAfterCommit(batch);
+                    } catch (RuntimeException e) {
+                        log.warn("Could not delete material files of course {}, leaving them to the " +
+                                "orphaned file collector: {}", courseId, e.getMessage());
+                    }
+                }
+                log.debug("Material files of course {} cleaned up ({} candidates)", courseId, filenames.size());
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Material files of course {} left to the orphaned file collector (shutting down)", courseId);
+        }
+    }
+
+    private void suppressCourseTriggers() {
+        jdbcTemplate.queryForObject("SELECT set_config('etms.suppress_course_triggers', 'on', true)", String.class);
+    }
+
+    private int chunkSize() {
+        return Math.max(1, courseDeletionProperties.getChunkSize());
+    }
+}
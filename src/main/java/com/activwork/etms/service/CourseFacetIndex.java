@@ -0,0 +1,355 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.dto.CourseBrowseDto.DurationBucket;
+import com.activwork.etms.dto.CourseBrowseDto.RatingBucket;
+import com.activwork.etms.dto.CacheInvalidationEventDto;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.model.CourseCard;
+import com.activwork.etms.model.CourseCategory;
+import com.activwork.etms.model.CourseStatus;
+import com.activwork.etms.repository.CourseCardRepository;
+import com.activwork.etms.util.collections.UuidHashMap;
+import com.activwork.etms.util.collections.UuidHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over the published course catalog.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Holds the (category, duration, rating) facets of every listed course so that catalog
+ *   pages neither count with GROUP BY nor page with OFFSET
+ *
+ * Design Notes:
+ * 1. Counts live in a small category x duration x rating cube, adjusted by +1/-1 as
+ *    courses change; the count of a facet value is a sum over the cube with that facet's
+ *    own filter left out, so no request ever scans the catalog to count
+ * 2. Courses are kept in (created_at desc, id desc) order; a page is found by seeking
+ *    past the keyset cursor and filtering, so deep pages cost the same as the first
+ * 3. Updated from COURSE/FEEDBACK invalidations (the cache invalidation bus, so changes
+ *    committed on other instances too) by re-reading that one course card; a periodic
+ *    full rebuild from course_cards repairs anything changed outside the app
+ * 4. Courses that change while a rebuild is loading are refreshed again once it is
+ *    installed, so a rebuild never rolls the index back
+ * 5. The index only yields course ids; the page itself is read from course_cards
+ * 6. Entries are keyed by course id in a UuidHashMap (ids kept as two longs, no UUID objects)
+ */
+@Slf4j
+@Service
+public class CourseFacetIndex {
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparingLong(Entry::createdAtMicros).reversed()
+            .thenComparing(Entry::id, Comparator.reverseOrder());
+
+    private static final CourseCategory[] CATEGORIES = CourseCategory.values();
+    private static final DurationBucket[] DURATIONS = DurationBucket.values();
+    private static final RatingBucket[] RATINGS = RatingBucket.values();
+
+    private final CourseCardRepository courseCardRepository;
+    private final TaskScheduler taskScheduler;
+
+    // All index state below is guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UuidHashMap<Entry> entries = new UuidHashMap<>();
+    private final NavigableSet<Entry> ordered = new TreeSet<>(NEWEST_FIRST);
+    private final long[][][] counts = new long[CATEGORIES.length][DURATIONS.length][RATINGS.length];
+    private final UuidHashSet changedDuringRebuild = new UuidHashSet();
+    private boolean rebuilding;
+
+    private volatile boolean built;
+
+    public CourseFacetIndex(CourseCardRepository courseCardRepository,
+                            TaskScheduler taskScheduler) {
+        this.courseCardRepository = courseCardRepository;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Build the index once the application is up, so the first catalog request finds it ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildQuietly();
+    }
+
+    /**
+     * Periodic full rebuild (course-facets.rebuild-interval-minutes).
+     */
+    @Scheduled(fixedDelayString = "${course-facets.rebuild-interval-minutes:15}",
+            initialDelayString = "${course-facets.rebuild-interval-minutes:15}", timeUnit = TimeUnit.MINUTES)
+    public void scheduledRebuild() {
+        rebuildQuietly();
+    }
+
+    /**
+     * Apply a committed change of a course or its ratings (from this or another instance).
+     *
+     * @param event the cache invalidation
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEventDto event) {
+        if (!event.covers(Region.COURSE) && !event.covers(Region.FEEDBACK)) {
+            return;
+        }
+        if (event.getKey() == null) {
+            taskScheduler.schedule(this::rebuildQuietly, Instant.now());
+            return;
+        }
+        try {
+            refresh(event.getKey());
+        } catch (RuntimeException e) {
+            // The periodic rebuild catches up
+            log.warn("Facet index refresh failed for course {}: {}", event.getKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read one course card and update its facets (removes it if no longer listed).
+     *
+     * @param courseId the course UUID
+     */
+    public void refresh(UUID courseId) {
+        Entry entry = courseCardRepository.findById(courseId)
+                .filter(CourseFacetIndex::isListed)
+                .map(Entry::of)
+                .orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                changedDuringRebuild.add(courseId);
+            }
+            apply(courseId, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from course_cards.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Entry> loaded;
+        try {
+            loaded = courseCardRepository.findAvailable().stream().map(Entry::of).toList();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        List<UUID> changed;
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ordered.clear();
+            for (long[][] byDuration : counts) {
+                for (long[] byRating : byDuration) {
+                    Arrays.fill(byRating, 0L);
+                }
+            }
+            for (Entry entry : loaded) {
+                apply(entry.id(), entry);
+            }
+            changed = changedDuringRebuild.toList();
+            changedDuringRebuild.clear();
+            rebuilding = false;
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        changed.forEach(this::refresh);
+        log.info("Course facet index built: {} listed courses", loaded.size());
+    }
+
+    /**
+     * Select one catalog page and the facet counts for a selection.
+     *
+     * @param category optional category filter
+     * @param duration optional duration filter
+     * @param rating optional rating filter
+     * @param cursor keyset cursor from the previous page, or null for the first page
+     * @param limit page size
+     * @return course ids of the page (in catalog order), counts and the next cursor
+     */
+    public Selection select(CourseCategory category, DurationBucket duration, RatingBucket rating,
+                            String cursor, int limit) {
+        ensureBuilt();
+        Entry after = decodeCursor(cursor);
+
+        lock.readLock().lock();
+        try {
+            List<UUID> courseIds = new ArrayList<>(limit);
+            Entry last = null;
+            boolean hasMore = false;
+            for (Entry entry : after != null ? ordered.tailSet(after, false) : ordered) {
+                if (!entry.matches(category, duration, rating)) {
+                    continue;
+                }
+                if (courseIds.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                courseIds.add(entry.id());
+                last = entry;
+            }
+
+            Map<CourseCategory, Long> categoryCounts = new EnumMap<>(CourseCategory.class);
+            for (CourseCategory value : CATEGORIES) {
+                categoryCounts.put(value, count(value, duration, rating));
+            }
+            Map<DurationBucket, Long> durationCounts = new EnumMap<>(DurationBucket.class);
+            for (DurationBucket value : DURATIONS) {
+                durationCounts.put(value, count(category, value, rating));
+            }
+            Map<RatingBucket, Long> ratingCounts = new EnumMap<>(RatingBucket.class);
+            for (RatingBucket value : RATINGS) {
+                ratingCounts.put(value, count(category, duration, value));
+            }
+
+            return new Selection(courseIds, count(category, duration, rating),
+                    categoryCounts, durationCounts, ratingCounts,
+                    hasMore ? encodeCursor(last) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("❌ Course facet index rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Caller holds the write lock
+    private void apply(UUID courseId, Entry entry) {
+        Entry previous = entry != null ? entries.put(courseId, entry) : entries.remove(courseId);
+        if (previous != null) {
+            ordered.remove(previous);
+            adjust(previous, -1);
+        }
+        if (entry != null) {
+            ordered.add(entry);
+            adjust(entry, 1);
+        }
+    }
+
+    private void adjust(Entry entry, long delta) {
+        counts[entry.category().ordinal()][entry.duration().ordinal()][entry.rating().ordinal()] += delta;
+    }
+
+    // Caller holds the read lock; a null filter means "any"
+    private long count(CourseCategory category, DurationBucket duration, RatingBucket rating) {
+        long total = 0;
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (category != null && category.ordinal() != c) {
+                continue;
+            }
+            for (int d = 0; d < DURATIONS.length; d++) {
+                if (duration != null && duration.ordinal() != d) {
+                    continue;
+                }
+                for (int r = 0; r < RATINGS.length; r++) {
+                    if (rating == null || rating.ordinal() == r) {
+                        total += counts[c][d][r];
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    private static boolean isListed(CourseCard card) {
+        return card.getStatus() == CourseStatus.PUBLISHED && Boolean.TRUE.equals(card.getIsActive());
+    }
+
+    private static String encodeCursor(Entry entry) {
+        String raw = entry.createdAtMicros() + ":" + entry.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Entry decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                return null;
+            }
+            long createdAtMicros = Long.parseLong(raw.substring(0, separator));
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            return new Entry(id, null, null, null, createdAtMicros);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed catalog cursor: {}", cursor);
+            return null;
+        }
+    }
+
+    /**
+     * One catalog page as selected by the index.
+     */
+    public record Selection(List<UUID> courseIds,
+                            long totalCount,
+                            Map<CourseCategory, Long> categoryCounts,
+                            Map<DurationBucket, Long> durationCounts,
+                            Map<RatingBucket, Long> ratingCounts,
+                            String nextCursor) {
+    }
+
+    private record Entry(UUID id, CourseCategory category, DurationBucket duration,
+                         RatingBucket rating, long createdAtMicros) {
+
+        static Entry of(CourseCard card) {
+            Instant createdAt = card.getCreatedAt().toInstant();
+            long micros = TimeUnit.SECONDS.toMicros(createdAt.getEpochSecond()) + createdAt.getNano() / 1_000;
+            return new Entry(card.getCourseId(), card.getCategory(),
+                    DurationBucket.of(card.getDurationHours()),
+                    RatingBucket.of(card.getAverageRating(), card.getTotalRatings()),
+                    micros);
+        }
+
+        boolean matches(CourseCategory category, DurationBucket duration, RatingBucket rating) {
+            return (category == null || this.category == category)
+                    && (duration == null || this.duration == duration)
+                    && (rating == null || this.rating == rating);
+        }
+    }
+}
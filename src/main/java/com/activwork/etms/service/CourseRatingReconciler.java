@@ -0,0 +1,109 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.RatingAggregateProperties;
+import com.activwork.etms.dto.CourseCatalogEventDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reconciles the incremental course rating aggregates with the feedback table.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Maintenance job for the running sum/count kept by trigger_update_course_rating
+ *   (see database/15_incremental_course_ratings.sql)
+ *
+ * Design Notes:
+ * 1. Feedback writes only apply +rating/-rating deltas; this job is the only place that
+ *    recounts, off the write path
+ * 2. One grouped query finds courses whose stored sum/count differ from their visible
+ *    feedback; only those are recomputed
+ * 3. Each recompute locks the course row before recounting (recompute_course_rating), so
+ *    a feedback write racing the check is never undone; a false alarm is simply a no-op
+ * 4. Fixed courses publish a RATED catalog change so derived caches follow
+ */
+@Slf4j
+@Service
+public class CourseRatingReconciler {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String schema;
+    private final RatingAggregateProperties ratingAggregateProperties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CourseRatingReconciler(DataSource dataSource,
+                                  ApplicationEventPublisher eventPublisher,
+                                  RatingAggregateProperties ratingAggregateProperties,
+                                  @Value("${spring.jpa.properties.hibernate.default_schema:etms}") String schema) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.eventPublisher = eventPublisher;
+        this.schema = schema;
+        this.ratingAggregateProperties = ratingAggregateProperties;
+    }
+
+    /**
+     * Periodic reconciliation (ratings.reconcile-interval-minutes), if enabled.
+     */
+    @Scheduled(fixedDelayString = "${ratings.reconcile-interval-minutes:360}",
+            initialDelayString = "${ratings.reconcile-interval-minutes:360}", timeUnit = TimeUnit.MINUTES)
+    public void scheduledReconcile() {
+        if (ratingAggregateProperties.isReconcileEnabled()) {
+            reconcileQuietly();
+        }
+    }
+
+    /**
+     * Run one reconciliation now.
+     *
+     * @return number of courses whose aggregate was corrected, or -1 if a run is already in progress
+     */
+    public int reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            List<UUID> suspects = jdbcTemplate.queryForList(
+                    "SELECT c.id FROM " + schema + ".courses c " +
+                    "LEFT JOIN (SELECT course_id, SUM(rating) AS rating_sum, COUNT(*) AS total_ratings " +
+                    "           FROM " + schema + ".feedback WHERE is_visible = TRUE GROUP BY course_id) a " +
+                    "ON a.course_id = c.id " +
+                    "WHERE c.rating_sum <> COALESCE(a.rating_sum, 0) " +
+                    "OR COALESCE(c.total_ratings, 0) <> COALESCE(a.total_ratings, 0)",
+                    UUID.class);
+
+            int fixed = 0;
+            for (UUID courseId : suspects) {
+                Boolean corrected = jdbcTemplate.queryForObject(
+                        "SELECT " + schema + ".recompute_course_rating(?)", Boolean.class, courseId);
+                if (Boolean.TRUE.equals(corrected)) {
+                    fixed++;
+                    log.warn("Course {} rating aggregate drifted; recomputed from feedback", courseId);
+                    eventPublisher.publishEvent(new CourseCatalogEventDto(courseId, CourseCatalogEventDto.Change.RATED));
+                }
+            }
+
+            log.info("⭐ Rating reconciliation finished: {} suspect, {} corrected", suspects.size(), fixed);
+            return fixed;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException ex) {
+            log.error("Rating reconciliation failed", ex);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.activwork.etms.service;
 
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
 import com.activwork.etms.dto.CourseSectionCreateDto;
 import com.activwork.etms.dto.CourseSectionDto;
 import com.activwork.etms.dto.MaterialResponseDto;
@@ -16,7 +17,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +38,7 @@ public class CourseSectionService {
     private final CourseSectionRepository sectionRepository;
     private final CourseRepository courseRepository;
     private final MaterialRepository materialRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * Get all sections for a course
@@ -127,6 +131,7 @@ public class CourseSectionService {
         
         // Save section
         CourseSection savedSection = sectionRepository.save(section);
+        cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, courseId);
         
         log.info("Section created: {} for course: {}", savedSection.getId(), courseId);
         
@@ -154,6 +159,7 @@ public class CourseSectionService {
         
         // Save updates
         CourseSection updatedSection = sectionRepository.save(section);
+        cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, section.getCourse().getId());
         
         log.info("Section updated: {}", sectionId);
         
@@ -174,6 +180,7 @@ public class CourseSectionService {
         // Soft delete
         section.setIsActive(false);
         sectionRepository.save(section);
+        cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, section.getCourse().getId());
         
         log.info("Section deleted (soft): {}", sectionId);
     }
@@ -186,6 +193,9 @@ public class CourseSectionService {
     public void permanentlyDeleteSection(UUID sectionId) {
         log.info("Permanently deleting section: {}", sectionId);
         
+        sectionRepository.findById(sectionId).ifPresent(section ->
+                cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, section.getCourse().getId()));
+        
         // Materials will be deleted automatically due to cascade
         sectionRepository.deleteById(sectionId);
         
@@ -215,6 +225,7 @@ public class CourseSectionService {
         // Add material to section
         material.setSection(section);
         materialRepository.save(material);
+        cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, section.getCourse().getId());
         
         log.info("Material {} added to section {}", materialId, sectionId);
     }
@@ -232,32 +243,42 @@ public class CourseSectionService {
         
         material.setSection(null);
         materialRepository.save(material);
+        cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, material.getCourse().getId());
         
         log.info("Material {} removed from section", materialId);
     }
 
     /**
-     * Reorder sections within a course
+     * Reorder sections within a course.
+     * All sections are loaded in one query; the changed orders are flushed as one
+     * JDBC batch of UPDATEs at commit (hibernate.jdbc.batch_size, order_updates).
+     * 
      * @param courseId the course ID
-     * @param sectionOrders map of section IDs to new order values
+     * @param orderedSectionIds section IDs in their new order
      */
     @Transactional
     public void reorderSections(UUID courseId, List<UUID> orderedSectionIds) {
         log.info("Reordering sections for course: {}", courseId);
         
+        Map<UUID, CourseSection> sections = sectionRepository.findByCourseIdOrderBySectionOrderAsc(courseId).stream()
+                .collect(Collectors.toMap(CourseSection::getId, Function.identity()));
+        
         for (int i = 0; i < orderedSectionIds.size(); i++) {
             UUID sectionId = orderedSectionIds.get(i);
-            CourseSection section = sectionRepository.findById(sectionId)
-                    .orElseThrow(() -> new ResourceNotFoundException("CourseSection", sectionId));
+            CourseSection section = sections.get(sectionId);
             
             // Verify section belongs to the course
-            if (!section.getCourse().getId().equals(courseId)) {
-                throw new IllegalArgumentException("Section does not belong to the specified course");
+            if (section == null) {
+                if (sectionRepository.existsById(sectionId)) {
+                    throw new IllegalArgumentException("Section does not belong to the specified course");
+                }
+                throw new ResourceNotFoundException("CourseSection", sectionId);
             }
             
+            // Managed entities: dirty checking writes only the sections whose order changed
             section.setSectionOrder(i);
-            sectionRepository.save(section);
         }
+        cacheInvalidationBus.publishAfterCommit(Region.SECTIONS, courseId);
         
         log.info("Sections reordered for course: {}", courseId);
     }
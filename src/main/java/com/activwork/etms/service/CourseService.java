@@ -3,15 +3,23 @@ package com.activwork.etms.service;
 import com.activwork.etms.dto.*;
 import com.activwork.etms.exception.ResourceNotFoundException;
 import com.activwork.etms.model.*;
+import com.activwork.etms.repository.CourseCardRepository;
 import com.activwork.etms.repository.CourseRepository;
 import com.activwork.etms.repository.UserRepository;
+import com.activwork.etms.util.BannerVariants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -40,7 +48,11 @@ import java.util.stream.Collectors;
 public class CourseService {
 
     private final CourseRepository courseRepository;
+    private final CourseCardRepository courseCardRepository;
+    private final CourseFacetIndex courseFacetIndex;
     private final UserRepository userRepository;
+    private final CourseDeletionService courseDeletionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new course (GRASP: Creator pattern).
@@ -110,6 +122,8 @@ public class CourseService {
             throw new IllegalArgumentException("Only the course instructor can update this course");
         }
         
+        boolean wasFeatured = Boolean.TRUE.equals(course.getIsFeatured());
+        
         // Update fields (only if provided)
         if (courseUpdateDto.getTitle() != null) {
             course.setTitle(courseUpdateDto.getTitle());
@@ -156,6 +170,12 @@ public class CourseService {
         
         Course updatedCourse = courseRepository.save(course);
         
+        boolean isFeatured = Boolean.TRUE.equals(updatedCourse.getIsFeatured());
+        CourseCatalogEventDto.Change change = wasFeatured == isFeatured
+                ? CourseCatalogEventDto.Change.UPDATED
+                : isFeatured ? CourseCatalogEventDto.Change.FEATURED : CourseCatalogEventDto.Change.UNFEATURED;
+        eventPublisher.publishEvent(new CourseCatalogEventDto(courseId, change));
+        
         log.info("Course updated successfully: {}", courseId);
         return CourseResponseDto.fromEntity(updatedCourse);
     }
@@ -193,6 +213,7 @@ public class CourseService {
         
         course.publish(); // Uses entity method
         Course publishedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseCatalogEventDto(courseId, CourseCatalogEventDto.Change.PUBLISHED));
         
         log.info("Course published successfully: {}", courseId);
         return CourseResponseDto.fromEntity(publishedCourse);
@@ -218,6 +239,7 @@ public class CourseService {
         
         course.archive();
         Course archivedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseCatalogEventDto(courseId, CourseCatalogEventDto.Change.ARCHIVED));
         
         log.info("Course archived successfully: {}", courseId);
         return CourseResponseDto.fromEntity(archivedCourse);
@@ -253,87 +275,108 @@ public class CourseService {
 
     /**
      * Get all published and active courses (available for enrollment).
+     * Reads the course card read model only.
      * 
      * @return list of available courses
      */
     public List<CourseListDto> getAvailableCourses() {
-        List<Course> courses = courseRepository.findAvailableCourses();
-        return courses.stream()
-                .map(CourseListDto::fromEntity)
+        return courseCardRepository.findAvailable().stream()
+                .map(CourseListDto::fromCard)
                 .collect(Collectors.toList());
     }
 
     /**
      * Search courses by title keyword.
+     * Reads the course card read model only.
      * 
      * @param keyword the search keyword
      * @return list of matching courses
      */
     public List<CourseListDto> searchCoursesByTitle(String keyword) {
-        List<Course> courses = courseRepository.searchByTitle(keyword);
-        return courses.stream()
-                .map(CourseListDto::fromEntity)
+        return courseCardRepository.searchByTitle(keyword).stream()
+                .map(CourseListDto::fromCard)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get courses by category.
+     * Browse the catalog by facets, one keyset page at a time.
+     * The facet index picks the page and supplies the counts; only the page's cards are read.
      * 
-     * @param category the course category
-     * @return list of courses in the category
+     * @param category optional category filter
+     * @param duration optional duration filter
+     * @param rating optional rating filter
+     * @param cursor cursor of the previous page, or null for the first page
+     * @param limit page size
+     * @return the page of courses with facet counts and the next cursor
      */
-    public List<CourseListDto> getCoursesByCategory(CourseCategory category) {
-        List<Course> courses = courseRepository.findByCategory(category);
-        return courses.stream()
-                .map(CourseListDto::fromEntity)
+    public CourseBrowseDto browseCourses(CourseCategory category, CourseBrowseDto.DurationBucket duration,
+                                         CourseBrowseDto.RatingBucket rating, String cursor, int limit) {
+        CourseFacetIndex.Selection selection = courseFacetIndex.select(category, duration, rating, cursor, limit);
+
+        Map<UUID, CourseCard> cards = courseCardRepository.findAllById(selection.courseIds()).stream()
+                .collect(Collectors.toMap(CourseCard::getCourseId, Function.identity()));
+        List<CourseListDto> courses = selection.courseIds().stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .map(CourseListDto::fromCard)
                 .collect(Collectors.toList());
-    }
 
+        return new CourseBrowseDto(courses, selection.totalCount(), selection.categoryCounts(),
+                selection.durationCounts(), selection.ratingCounts(), selection.nextCursor());
+    }
 
     /**
-     * Get featured courses.
+     * Get featured courses for the home page.
+     * Published, active and featured only (partial index idx_course_cards_featured),
+     * newest first, limited, as a slim projection of the card fields the home page shows.
      * 
+     * @param limit maximum number of courses
      * @return list of featured courses
      */
-    public List<CourseListDto> getFeaturedCourses() {
-        List<Course> courses = courseRepository.findByIsFeatured(true);
-        return courses.stream()
-                .filter(course -> CourseStatus.PUBLISHED.equals(course.getStatus()))
-                .map(CourseListDto::fromEntity)
+    public List<CourseListDto> getFeaturedCourses(int limit) {
+        return courseCardRepository.findFeatured(PageRequest.of(0, limit)).stream()
+                .map(CourseService::toFeaturedListDto)
                 .collect(Collectors.toList());
     }
 
+    private static CourseListDto toFeaturedListDto(CourseCardRepository.FeaturedCourseView view) {
+        // Instructor is not part of the projection; status/featured are implied by the query
+        CourseListDto dto = new CourseListDto();
+        dto.setId(view.getCourseId());
+        dto.setTitle(view.getTitle());
+        dto.setSummary(view.getSummary());
+        dto.setCategory(view.getCategory());
+        dto.setCategoryDisplayName(view.getCategory().getDisplayName());
+        dto.setDurationHours(view.getDurationHours());
+        dto.setStatus(CourseStatus.PUBLISHED);
+        dto.setThumbnailUrl(BannerVariants.resolve(view.getThumbnailUrl(), BannerVariants.CARD_WIDTH));
+        dto.setThumbnailSrcset(BannerVariants.srcset(view.getThumbnailUrl()));
+        dto.setIsFeatured(true);
+        dto.setEnrollmentCount(view.getEnrollmentCount());
+        dto.setAverageRating(view.getAverageRating());
+        dto.setTotalRatings(view.getTotalRatings());
+        return dto;
+    }
+
     /**
      * Delete a course permanently (hard delete).
-     * All related data (enrollments, materials, feedback, etc.) will be cascade deleted.
+     * All related data (enrollments, materials, feedback, etc.) is deleted with it,
+     * in chunked bulk DELETEs (see CourseDeletionService); runs outside a transaction
+     * so every chunk commits on its own.
      * 
      * @param courseId the course UUID
      * @param instructorId the instructor deleting the course
      * @throws ResourceNotFoundException if course not found
      * @throws IllegalArgumentException if instructor doesn't own the course
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteCourse(UUID courseId, UUID instructorId) {
         log.info("Deleting course: {} by instructor: {}", courseId, instructorId);
         
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Course", courseId));
-        
-        // Business rule: Only the course instructor can delete
-        if (!course.getInstructor().getId().equals(instructorId)) {
-            throw new IllegalArgumentException("Only the course instructor can delete this course");
-        }
-        
-        // Delete the course - database cascade delete will handle:
-        // - All enrollments
-        // - All material progress records  
-        // - All feedback
-        // - All materials
-        // - All course sections
-        // The enrollment_count trigger will be invoked for each enrollment
-        courseRepository.delete(course);
+        // Banners are content-addressed and may be shared; the orphaned file collector removes them.
+        courseDeletionService.deleteCourse(courseId, instructorId);
         
-        log.info("Course deleted successfully (with cascade): {}", courseId);
+        log.info("Course deleted successfully: {}", courseId);
     }
 
     /**
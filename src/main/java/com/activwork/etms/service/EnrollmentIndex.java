@@ -0,0 +1,229 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.EnrollmentIndexProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.repository.EnrollmentRepository;
+import com.activwork.etms.repository.EnrollmentRepository.EnrollmentKeyView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory (learner, course) to enrollment id index.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Answers "is this learner enrolled in this course, and with which enrollment?" for the
+ *   material view, download and progress endpoints without a query per request
+ *
+ * Design Notes:
+ * 1. A learner's enrollments are loaded with one query on first use and kept as one
+ *    long[] of (course msb, course lsb, enrollment msb, enrollment lsb) quadruples:
+ *    32 bytes per enrollment instead of two UUID objects and a map entry
+ * 2. enrollLearner / cancelEnrollment update the loaded learner in place
+ *    once their transaction commits, and publish an ENROLLMENT invalidation so other
+ *    instances drop that learner and reload on next use
+ * 3. Only hits are trusted: a miss is confirmed with one query, so an enrollment made on
+ *    another instance is never refused, and refusing a non-enrolled learner stays as
+ *    cheap as before
+ * 4. A load only installs if no invalidation of the learner arrived while it ran, so a
+ *    cancellation racing with a load cannot be rolled back; the version re-check and
+ *    the install run in one learners.compute, serialized with the in-place updates
+ *    (which run after the version bump)
+ * 5. Course deletion removes enrollments of many learners at once, so it publishes a
+ *    whole-region ENROLLMENT invalidation and every instance clears the index; learners
+ *    reload on next use
+ */
+@Slf4j
+@Service
+public class EnrollmentIndex {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CacheKeyVersions cacheKeyVersions;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final int maxLearners;
+    private final long ttlNanos;
+    private final Map<UUID, LearnerEnrollments> learners = new ConcurrentHashMap<>();
+
+    public EnrollmentIndex(EnrollmentRepository enrollmentRepository,
+                           CacheKeyVersions cacheKeyVersions,
+                           CacheInvalidationBus cacheInvalidationBus,
+                           EnrollmentIndexProperties enrollmentIndexProperties) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.cacheKeyVersions = cacheKeyVersions;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.maxLearners = Math.max(1, enrollmentIndexProperties.getMaxLearners());
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(Math.max(1, enrollmentIndexProperties.getTtlMinutes()));
+    }
+
+    /**
+     * Find a learner's enrollment in a course.
+     *
+     * @param learnerId the learner UUID
+     * @param courseId the course UUID
+     * @return the enrollment id if the learner is enrolled
+     */
+    public Optional<UUID> findEnrollmentId(UUID learnerId, UUID courseId) {
+        LearnerEnrollments enrollments = learners.get(learnerId);
+        if (enrollments == null || System.nanoTime() - enrollments.loadedAtNanos() >= ttlNanos) {
+            enrollments = load(learnerId);
+        }
+        UUID enrollmentId = enrollments.find(courseId);
+        if (enrollmentId != null) {
+            return Optional.of(enrollmentId);
+        }
+
+        // Not known here: may have been made on another instance a moment ago
+        long version = cacheKeyVersions.current(Region.ENROLLMENT, learnerId);
+        Optional<UUID> confirmed = enrollmentRepository.findIdByLearnerIdAndCourseId(learnerId, courseId);
+        confirmed.ifPresent(id -> learners.computeIfPresent(learnerId, (key, current) ->
+                cacheKeyVersions.current(Region.ENROLLMENT, learnerId) == version ? current.with(courseId, id) : current));
+        return confirmed;
+    }
+
+    /**
+     * Record a new enrollment once the current transaction commits.
+     *
+     * @param learnerId the learner UUID
+     * @param courseId the course UUID
+     * @param enrollmentId the new enrollment UUID
+     */
+    public void enrolledAfterCommit(UUID learnerId, UUID courseId, UUID enrollmentId) {
+        afterCommit(() -> {
+            cacheInvalidationBus.publish(Region.ENROLLMENT, learnerId);
+            learners.computeIfPresent(learnerId, (key, current) -> current.with(courseId, enrollmentId));
+        });
+    }
+
+    /**
+     * Forget an enrollment once the current transaction commits.
+     *
+     * @param learnerId the learner UUID
+     * @param courseId the course UUID
+     */
+    public void cancelledAfterCommit(UUID learnerId, UUID courseId) {
+        afterCommit(() -> {
+            cacheInvalidationBus.publish(Region.ENROLLMENT, learnerId);
+            learners.computeIfPresent(learnerId, (key, current) -> current.without(courseId));
+        });
+    }
+
+    /**
+     * Drop learners whose enrollments changed on another instance.
+     * Changes committed here were already applied in place.
+     *
+     * @param event the cache invalidation
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEventDto event) {
+        if (!event.covers(Region.ENROLLMENT)) {
+            return;
+        }
+        if (event.getKey() == null) {
+            learners.clear();
+        } else if (event.isRemote()) {
+            learners.remove(event.getKey());
+        }
+    }
+
+    private LearnerEnrollments load(UUID learnerId) {
+        long version = cacheKeyVersions.current(Region.ENROLLMENT, learnerId);
+        List<EnrollmentKeyView> keys = enrollmentRepository.findEnrollmentKeysByLearnerId(learnerId);
+
+        long[] pairs = new long[keys.size() * 4];
+        int i = 0;
+        for (EnrollmentKeyView key : keys) {
+            pairs[i++] = key.getCourseId().getMostSignificantBits();
+            pairs[i++] = key.getCourseId().getLeastSignificantBits();
+            pairs[i++] = key.getEnrollmentId().getMostSignificantBits();
+            pairs[i++] = key.getEnrollmentId().getLeastSignificantBits();
+        }
+        LearnerEnrollments loaded = new LearnerEnrollments(pairs, System.nanoTime());
+
+        if (learners.size() >= maxLearners && !learners.containsKey(learnerId)) {
+            long now = System.nanoTime();
+            learners.values().removeIf(enrollments -> now - enrollments.loadedAtNanos() >= ttlNanos);
+            if (learners.size() >= maxLearners) {
+                learners.clear();
+            }
+        }
+        // Re-check and install atomically: an in-place update (after its version bump)
+        // either sees this entry or makes the check fail
+        learners.compute(learnerId, (key, current) ->
+                cacheKeyVersions.current(Region.ENROLLMENT, learnerId) == version ? loaded : current);
+        log.debug("Enrollment index loaded {} enrollment(s) of learner {}", keys.size(), learnerId);
+        return loaded;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * One learner's enrollments; immutable, replaced as a whole on change.
+     */
+    private record LearnerEnrollments(long[] pairs, long loadedAtNanos) {
+
+        UUID find(UUID courseId) {
+            int i = indexOf(courseId);
+            return i < 0 ? null : new UUID(pairs[i + 2], pairs[i + 3]);
+        }
+
+        LearnerEnrollments with(UUID courseId, UUID enrollmentId) {
+            int i = indexOf(courseId);
+            long[] updated;
+            if (i < 0) {
+                i = pairs.length;
+                updated = Arrays.copyOf(pairs, pairs.length + 4);
+                updated[i] = courseId.getMostSignificantBits();
+                updated[i + 1] = courseId.getLeastSignificantBits();
+            } else {
+                updated = pairs.clone();
+            }
+            updated[i + 2] = enrollmentId.getMostSignificantBits();
+            updated[i + 3] = enrollmentId.getLeastSignificantBits();
+            return new LearnerEnrollments(updated, loadedAtNanos);
+        }
+
+        LearnerEnrollments without(UUID courseId) {
+            int i = indexOf(courseId);
+            if (i < 0) {
+                return this;
+            }
+            long[] updated = new long[pairs.length - 4];
+            System.arraycopy(pairs, 0, updated, 0, i);
+            System.arraycopy(pairs, i + 4, updated, i, pairs.length - i - 4);
+            return new LearnerEnrollments(updated, loadedAtNanos);
+        }
+
+        private int indexOf(UUID courseId) {
+            long msb = courseId.getMostSignificantBits();
+            long lsb = courseId.getLeastSignificantBits();
+            for (int i = 0; i < pairs.length; i += 4) {
+                if (pairs[i] == msb && pairs[i + 1] == lsb) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.activwork.etms.service;
 
+import com.activwork.etms.dto.EnrollmentProgressEventDto;
 import com.activwork.etms.dto.EnrollmentRequestDto;
 import com.activwork.etms.dto.EnrollmentResponseDto;
 import com.activwork.etms.exception.ResourceNotFoundException;
@@ -12,6 +13,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -45,6 +48,8 @@ public class EnrollmentService {
     private final UserRepository userRepository;
     private final MaterialRepository materialRepository;
     private final MaterialProgressRepository materialProgressRepository;
+    private final ProgressStreamService progressStreamService;
+    private final EnrollmentIndex enrollmentIndex;
 
     /**
      * Enroll a learner in a course.
@@ -100,6 +105,7 @@ public class EnrollmentService {
         enrollment.setTimeSpentMinutes(0);
         
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        enrollmentIndex.enrolledAfterCommit(learnerId, courseId, savedEnrollment.getId());
         
         log.info("Learner enrolled successfully. Enrollment ID: {}", savedEnrollment.getId());
         return EnrollmentResponseDto.fromEntity(savedEnrollment);
@@ -176,6 +182,7 @@ public class EnrollmentService {
         
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment", enrollmentId));
+        EnrollmentProgressEventDto before = EnrollmentProgressEventDto.fromEntity(enrollment);
         
         enrollment.setProgressPercent(progressPercent);
         
@@ -185,6 +192,7 @@ public class EnrollmentService {
         }
         
         Enrollment updated = enrollmentRepository.save(enrollment);
+        publishIfChanged(before, updated);
         return EnrollmentResponseDto.fromEntity(updated);
     }
     
@@ -205,6 +213,7 @@ public class EnrollmentService {
         
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment", enrollmentId));
+        EnrollmentProgressEventDto before = EnrollmentProgressEventDto.fromEntity(enrollment);
         
         enrollment.setProgressPercent(progressPercent);
         enrollment.setCompletedMaterials(completedMaterials);
@@ -229,9 +238,30 @@ public class EnrollmentService {
         log.info("✅ Enrollment updated: {} - Progress: {}%, Materials: {}/{}, Status: {}", 
                 enrollmentId, progressPercent, completedMaterials, totalMaterials, updated.getStatus());
         
+        publishIfChanged(before, updated);
         return EnrollmentResponseDto.fromEntity(updated);
     }
 
+    /**
+     * Push a progress delta to open SSE streams if the enrollment state actually changed.
+     * 
+     * @param before snapshot taken before the update
+     * @param updated the saved enrollment
+     */
+    private void publishIfChanged(EnrollmentProgressEventDto before, Enrollment updated) {
+        EnrollmentProgressEventDto after = EnrollmentProgressEventDto.fromEntity(updated);
+        boolean percentChanged = before.getProgressPercent() == null
+                || after.getProgressPercent() == null
+                || before.getProgressPercent().compareTo(after.getProgressPercent()) != 0;
+        
+        if (percentChanged
+                || !Objects.equals(before.getCompletedMaterials(), after.getCompletedMaterials())
+                || !Objects.equals(before.getTotalMaterials(), after.getTotalMaterials())
+                || before.getStatus() != after.getStatus()) {
+            progressStreamService.publish(after);
+        }
+    }
+
     /**
      * Cancel enrollment - Hard delete (completely removes the enrollment).
      * This allows instructors to delete courses without foreign key constraints.
@@ -263,19 +293,33 @@ public class EnrollmentService {
         
         // Hard delete the enrollment (removes it completely from database)
         enrollmentRepository.deleteById(enrollmentId);
+        enrollmentIndex.cancelledAfterCommit(learnerId, enrollment.getCourse().getId());
         
         log.info("Enrollment deleted successfully (hard delete): {}", enrollmentId);
     }
 
     /**
      * Check if learner is enrolled in a course.
+     * Answered from the in-memory enrollment index (no query once the learner is loaded).
      * 
      * @param learnerId the learner UUID
      * @param courseId the course UUID
      * @return true if enrolled
      */
     public boolean isLearnerEnrolled(UUID learnerId, UUID courseId) {
-        return enrollmentRepository.existsByLearnerIdAndCourseId(learnerId, courseId);
+        return enrollmentIndex.findEnrollmentId(learnerId, courseId).isPresent();
+    }
+
+    /**
+     * Find the id of a learner's enrollment in a course.
+     * Answered from the in-memory enrollment index (no query once the learner is loaded).
+     * 
+     * @param learnerId the learner UUID
+     * @param courseId the course UUID
+     * @return the enrollment id, empty if the learner is not enrolled
+     */
+    public Optional<UUID> findEnrollmentId(UUID learnerId, UUID courseId) {
+        return enrollmentIndex.findEnrollmentId(learnerId, courseId);
     }
 
     /**
@@ -0,0 +1,172 @@
+package com.activwork.etms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Version stamps of an enrollment's pages, for HTTP conditional GET (ETag / 304).
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Answers "has anything this page shows changed?" with one small query, so an
+ *   unchanged enrollment page or progress payload is answered with 304 Not Modified
+ *   before the enrollment, sections, materials and progress are loaded
+ *
+ * Design Notes:
+ * 1. The stamp is built from a hash of the course columns the pages show, the sections'
+ *    count and newest updated_at, enrollments.last_accessed, MAX(material_progress.updated_at)
+ *    and the active materials' count and newest upload; counts catch deletes that leave
+ *    the MAX alone. courses.updated_at is not used: view, enrollment and rating counters
+ *    bump it on every visit, which would defeat the 304 for everyone on the course
+ * 2. The enrollment row's xmin is part of the stamp too: the material_progress trigger
+ *    rewrites progress_percent / completed_materials / status without touching
+ *    last_accessed, and xmin changes with every write of the row
+ * 3. Only the learner who owns the enrollment gets a stamp; anyone else (and unknown
+ *    enrollments) falls through to the normal request path and its checks
+ * 4. Stamps are derived from database state only, never from node-local cache versions,
+ *    so they survive restarts and agree across instances; the query runs outside any
+ *    transaction and therefore on the primary, so a lagging replica cannot yield a 304
+ *    for a write the learner has just made
+ * 5. Stamps are weak ETags: they promise the same content, not the same bytes
+ */
+@Slf4j
+@Service
+public class EnrollmentVersionService {
+
+    private static final RowMapper<EnrollmentVersion> ENROLLMENT_VERSION = (rs, rowNum) -> new EnrollmentVersion(
+            rs.getString("course_content"),
+            micros(rs, "sections_updated_at"),
+            rs.getLong("sections_count"),
+            rs.getString("enrollment_row"),
+            micros(rs, "last_accessed"),
+            rs.getString("learner_name"),
+            micros(rs, "progress_updated_at"),
+            rs.getLong("progress_count"),
+            micros(rs, "materials_uploaded_at"),
+            rs.getLong("materials_count"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String versionSql;
+
+    public EnrollmentVersionService(DataSource dataSource,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:etms}") String schema) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.versionSql = "SELECT md5(ROW(c.title, c.summary, c.description, c.thumbnail_url, " +
+                "c.status, c.is_active)::text) AS course_content, " +
+                "(SELECT MAX(cs.updated_at) FROM " + schema + ".course_sections cs " +
+                "WHERE cs.course_id = e.course_id) AS sections_updated_at, " +
+                "(SELECT COUNT(*) FROM " + schema + ".course_sections cs " +
+                "WHERE cs.course_id = e.course_id) AS sections_count, " +
+                "e.xmin::text AS enrollment_row, " +
+                "e.last_accessed, u.name AS learner_name, " +
+                "(SELECT MAX(mp.updated_at) FROM " + schema + ".material_progress mp " +
+                "WHERE mp.enrollment_id = e.id) AS progress_updated_at, " +
+                "(SELECT COUNT(*) FROM " + schema + ".material_progress mp " +
+                "WHERE mp.enrollment_id = e.id) AS progress_count, " +
+                "(SELECT MAX(m.uploaded_at) FROM " + schema + ".materials m " +
+                "WHERE m.course_id = e.course_id AND m.is_active = TRUE) AS materials_uploaded_at, " +
+                "(SELECT COUNT(*) FROM " + schema + ".materials m " +
+                "WHERE m.course_id = e.course_id AND m.is_active = TRUE) AS materials_count " +
+                "FROM " + schema + ".enrollments e " +
+                "JOIN " + schema + ".courses c ON c.id = e.course_id " +
+                "JOIN " + schema + ".users u ON u.id = e.learner_id " +
+                "WHERE e.id = ? AND u.email = ?";
+    }
+
+    /**
+     * Read the version stamp of an enrollment owned by a learner.
+     *
+     * @param enrollmentId the enrollment UUID
+     * @param learnerEmail the authenticated learner's email
+     * @return the stamp, empty if the enrollment does not exist or is not the learner's
+     */
+    public Optional<EnrollmentVersion> getVersion(UUID enrollmentId, String learnerEmail) {
+        try {
+            List<EnrollmentVersion> rows = jdbcTemplate.query(versionSql, ENROLLMENT_VERSION, enrollmentId, learnerEmail);
+            return rows.stream().findFirst();
+        } catch (RuntimeException e) {
+            // No stamp only means no 304; the normal path still answers the request
+            log.warn("Could not read version of enrollment {}: {}", enrollmentId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static long micros(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        if (timestamp == null) {
+            return 0L;
+        }
+        return timestamp.getTime() / 1_000 * 1_000_000 + timestamp.getNanos() / 1_000;
+    }
+
+    /**
+     * What an enrollment's pages are derived from, as of one read.
+     */
+    public record EnrollmentVersion(String courseContent,
+                                    long sectionsUpdatedAt,
+                                    long sectionsCount,
+                                    String enrollmentRow,
+                                    long lastAccessed,
+                                    String learnerName,
+                                    long progressUpdatedAt,
+                                    long progressCount,
+                                    long materialsUploadedAt,
+                                    long materialsCount) {
+
+        /**
+         * ETag of the enrollment details page (course, sections, materials and progress).
+         *
+         * @param viewer discriminator of the viewer's session (the page embeds its CSRF token)
+         * @return weak ETag
+         */
+        public String detailsETag(String viewer) {
+            return eTag("details", viewer, courseContent, sectionsUpdatedAt, sectionsCount, enrollmentRow,
+                    lastAccessed, learnerName, progressUpdatedAt, progressCount, materialsUploadedAt, materialsCount);
+        }
+
+        /**
+         * ETag of the enrollment progress JSON (enrollment with course title and learner name).
+         *
+         * @return weak ETag
+         */
+        public String progressETag() {
+            return eTag("progress", courseContent, enrollmentRow, lastAccessed, learnerName);
+        }
+
+        /**
+         * ETag of the enrollment's material progress JSON.
+         *
+         * @return weak ETag
+         */
+        public String materialProgressETag() {
+            return eTag("material-progress", enrollmentRow, progressUpdatedAt, progressCount);
+        }
+
+        private static String eTag(String kind, Object... parts) {
+            StringBuilder raw = new StringBuilder(kind);
+            for (Object part : parts) {
+                raw.append('|').append(part);
+            }
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw.toString().getBytes(StandardCharsets.UTF_8));
+                return "W/\"" + kind + "-" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.activwork.etms.service;
 
+import com.activwork.etms.dto.CourseCatalogEventDto;
 import com.activwork.etms.dto.FeedbackDto;
+import com.activwork.etms.dto.FeedbackPageDto;
 import com.activwork.etms.dto.FeedbackResponseDto;
+import com.activwork.etms.dto.RatingHistogramDto;
 import com.activwork.etms.exception.ResourceNotFoundException;
 import com.activwork.etms.model.*;
 import com.activwork.etms.repository.CourseRepository;
@@ -10,11 +13,23 @@ import com.activwork.etms.repository.FeedbackRepository;
 import com.activwork.etms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -31,8 +46,8 @@ import java.util.stream.Collectors;
  * 3. Rating must be 1-5
  * 4. Feedback visibility can be moderated
  * 
- * Note: Average rating calculation is handled by database trigger
- * (trigger_update_course_rating) for consistency.
+ * Note: Average rating is maintained by database trigger (trigger_update_course_rating)
+ * as a running sum/count, adjusted per feedback row; CourseRatingReconciler checks it for drift.
  */
 @Slf4j
 @Service
@@ -40,10 +55,16 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class FeedbackService {
 
+    /**
+     * Largest feedback page a client may ask for
+     */
+    public static final int MAX_PAGE_SIZE = 50;
+
     private final FeedbackRepository feedbackRepository;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Submit feedback for a course.
@@ -98,6 +119,7 @@ public class FeedbackService {
         Feedback savedFeedback = feedbackRepository.save(feedback);
         
         // Note: Database trigger automatically updates course average_rating
+        eventPublisher.publishEvent(new CourseCatalogEventDto(course.getId(), CourseCatalogEventDto.Change.RATED));
         
         log.info("Feedback submitted successfully. ID: {}, Rating: {}, Comment: {}", 
                 savedFeedback.getId(), savedFeedback.getRating(), savedFeedback.getComment());
@@ -118,16 +140,61 @@ public class FeedbackService {
     }
 
     /**
-     * Get all visible feedback for a course (for public display).
+     * Get one page of a course's visible feedback (for public display).
+     * Keyset paging: the cursor encodes the sort key of the previous page's last row,
+     * so every page is an index range read regardless of depth.
      * 
      * @param courseId the course UUID
-     * @return list of visible feedback
+     * @param sort feedback ordering
+     * @param cursor cursor from the previous page, or null for the first page
+     * @param limit page size (capped at MAX_PAGE_SIZE)
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor is malformed
      */
-    public List<FeedbackResponseDto> getVisibleFeedbackByCourse(UUID courseId) {
-        List<Feedback> feedbackList = feedbackRepository.findByCourseIdAndIsVisible(courseId, true);
-        return feedbackList.stream()
+    public FeedbackPageDto getVisibleFeedbackPage(UUID courseId, FeedbackPageDto.Sort sort, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether there is a next page
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        FeedbackCursor after = FeedbackCursor.decode(cursor);
+
+        List<Feedback> rows;
+        if (sort == FeedbackPageDto.Sort.HIGHEST_RATED) {
+            rows = after == null
+                    ? feedbackRepository.findVisibleHighestRated(courseId, window)
+                    : feedbackRepository.findVisibleHighestRatedAfter(courseId, after.rating(), after.createdAt(), after.id(), window);
+        } else {
+            rows = after == null
+                    ? feedbackRepository.findVisibleNewest(courseId, window)
+                    : feedbackRepository.findVisibleNewestAfter(courseId, after.createdAt(), after.id(), window);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Feedback> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? FeedbackCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        List<FeedbackResponseDto> feedback = page.stream()
                 .map(FeedbackResponseDto::fromEntity)
                 .collect(Collectors.toList());
+        return new FeedbackPageDto(feedback, sort, nextCursor);
+    }
+
+    /**
+     * Get the rating distribution of a course's visible feedback (one grouped query).
+     * 
+     * @param courseId the course UUID
+     * @return counts per star value and the total
+     */
+    public RatingHistogramDto getRatingHistogram(UUID courseId) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int rating = 5; rating >= 1; rating--) {
+            counts.put(rating, 0L);
+        }
+        long total = 0;
+        for (FeedbackRepository.RatingCountView row : feedbackRepository.countVisibleByRating(courseId)) {
+            counts.put(row.getRating(), row.getCount());
+            total += row.getCount();
+        }
+        return new RatingHistogramDto(counts, total);
     }
 
     /**
@@ -168,6 +235,7 @@ public class FeedbackService {
         Feedback updated = feedbackRepository.save(feedback);
         
         // Note: Database trigger will recalculate course rating
+        eventPublisher.publishEvent(new CourseCatalogEventDto(feedback.getCourse().getId(), CourseCatalogEventDto.Change.RATED));
         
         log.info("Feedback hidden successfully: {}", feedbackId);
         return FeedbackResponseDto.fromEntity(updated);
@@ -193,20 +261,59 @@ public class FeedbackService {
         
         feedback.show();
         Feedback updated = feedbackRepository.save(feedback);
+        eventPublisher.publishEvent(new CourseCatalogEventDto(feedback.getCourse().getId(), CourseCatalogEventDto.Change.RATED));
         
         log.info("Feedback shown successfully: {}", feedbackId);
         return FeedbackResponseDto.fromEntity(updated);
     }
 
     /**
-     * Calculate average rating for a course.
-     * Uses repository query for calculation.
+     * Get the average rating of a course.
+     * Reads the course's running aggregate (maintained incrementally by
+     * trigger_update_course_rating); feedback is not rescanned.
      * 
      * @param courseId the course UUID
      * @return average rating (0.0 if no feedback)
      */
     public Double getAverageRating(UUID courseId) {
-        return feedbackRepository.calculateAverageRating(courseId);
+        return courseRepository.findAverageRatingById(courseId)
+                .map(BigDecimal::doubleValue)
+                .orElse(0.0);
     }
-}
 
+    /**
+     * Position of a feedback row in both sort orders: (rating,) created_at, id.
+     */
+    private record FeedbackCursor(int rating, ZonedDateTime createdAt, UUID id) {
+
+        static FeedbackCursor of(Feedback feedback) {
+            return new FeedbackCursor(feedback.getRating(), feedback.getCreatedAt(), feedback.getId());
+        }
+
+        String encode() {
+            Instant instant = createdAt.toInstant();
+            long micros = TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + instant.getNano() / 1_000;
+            String raw = rating + ":" + micros + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static FeedbackCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid feedback cursor");
+                }
+                long micros = Long.parseLong(parts[1]);
+                Instant createdAt = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                        Math.floorMod(micros, 1_000_000L) * 1_000L);
+                return new FeedbackCursor(Integer.parseInt(parts[0]),
+                        createdAt.atZone(ZoneOffset.UTC), UUID.fromString(parts[2]));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid feedback cursor", e);
+            }
+        }
+    }
+}
@@ -1,22 +1,38 @@
 package com.activwork.etms.service;
 
 import com.activwork.etms.config.FileStorageProperties;
+import com.activwork.etms.dto.HotFileCacheStatsDto;
 import com.activwork.etms.exception.FileStorageException;
+import com.activwork.etms.util.BannerVariants;
+import com.activwork.etms.util.ByteBufferResource;
+import com.activwork.etms.util.ImageResizer;
+import com.activwork.etms.util.StorageLayout;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -28,75 +44,178 @@ import java.util.UUID;
  * - Validates file types and sizes
  * 
  * Business Rules:
- * 1. Files stored with unique UUID-based names to prevent conflicts
+ * 1. Files stored with unique UUID-based names to prevent conflicts;
+ *    materials go into hash-prefix shard directories (see StorageLayout)
  * 2. Original filenames preserved for user-facing display
- * 3. Files organized by type (banners, materials)
+ * 3. Files organized by type (banners, materials) as keys in the configured BlobStore
  * 4. Maximum file size enforced (configurable, default 50MB)
+ * 5. Banners are recompressed into sized variants named by content hash
+ *    (see BannerVariants), so they can be cached as immutable
+ * 6. Frequently requested materials are served from memory-mapped buffers
+ *    (see HotFileCache) when the backend is local; Range requests slice the same mapping
+ * 7. With a remote backend (S3), materials are downloaded via presigned URLs
  */
 @Slf4j
 @Service
 public class FileStorageService {
 
-    private final Path fileStorageLocation;
-    private final Path bannerStorageLocation;
-    private final Path materialStorageLocation;
+    private static final String BANNER_FOLDER = "banners";
+    private static final String MATERIAL_FOLDER = "materials";
+
+    private final BlobStore blobStore;
     private final long maxFileSize;
+    private final float bannerJpegQuality;
+    private final long maxBannerPixels;
+    private final Duration presignTtl;
+    private final HotFileCache hotFileCache;
 
     @Autowired
-    public FileStorageService(FileStorageProperties fileStorageProperties) {
+    public FileStorageService(FileStorageProperties fileStorageProperties, BlobStore blobStore, HotFileCache hotFileCache) {
+        this.blobStore = blobStore;
+        this.hotFileCache = hotFileCache;
         this.maxFileSize = fileStorageProperties.getMaxSize();
+        this.bannerJpegQuality = fileStorageProperties.getBannerJpegQuality();
+        this.maxBannerPixels = fileStorageProperties.getBannerMaxPixels();
+        this.presignTtl = Duration.ofSeconds(fileStorageProperties.getS3().getPresignTtlSeconds());
         
-        // Create base upload directory
-        this.fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir())
-                .toAbsolutePath().normalize();
-        
-        // Create subdirectories for different file types
-        this.bannerStorageLocation = this.fileStorageLocation.resolve("banners");
-        this.materialStorageLocation = this.fileStorageLocation.resolve("materials");
+        log.info("File storage initialized with {} backend", blobStore.getClass().getSimpleName());
         
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-            Files.createDirectories(this.bannerStorageLocation);
-            Files.createDirectories(this.materialStorageLocation);
-            
-            log.info("File storage initialized at: {}", this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new FileStorageException("Could not create upload directory", ex);
+        for (String pinnedFilename : fileStorageProperties.getHotCachePinned()) {
+            Path localPath = blobStore.localPath(storageKey(pinnedFilename, "material"));
+            if (localPath != null) {
+                hotFileCache.pin(localPath);
+            }
         }
     }
 
     /**
      * Store a course banner image.
+     * Generates one recompressed JPEG per width in BannerVariants.WIDTHS, named by
+     * the content hash of the upload. Identical uploads resolve to the same files.
+     * Formats ImageIO cannot decode are stored as-is under their content hash;
+     * images above file.banner-max-pixels are refused before they are decoded.
      * 
      * @param file the uploaded file
-     * @return the stored filename (UUID-based)
+     * @return the stored filename of the largest variant
      * @throws FileStorageException if storage fails
      */
     public String storeBanner(MultipartFile file) {
-        return storeFile(file, bannerStorageLocation, "banner");
+        String originalFilename = validateUpload(file);
+
+        try {
+            byte[] bytes = file.getBytes();
+            String contentHash = contentHash(bytes);
+            BufferedImage image = ImageResizer.decode(bytes, maxBannerPixels);
+
+            if (image == null) {
+                String storedFilename = contentHash + getFileExtension(originalFilename);
+                putIfAbsent(storageKey(storedFilename, "banner"), bytes, file.getContentType());
+                log.info("Stored banner file without variants: {} (original: {})", storedFilename, originalFilename);
+                return storedFilename;
+            }
+
+            // The primary variant is written last, so if it exists all variants do
+            String storedFilename = BannerVariants.primaryFilename(contentHash);
+            if (blobStore.exists(storageKey(storedFilename, "banner"))) {
+                log.info("Banner variants already stored: {} (original: {})", storedFilename, originalFilename);
+                return storedFilename;
+            }
+            BufferedImage[] variants = ImageResizer.scaleToWidths(image, BannerVariants.WIDTHS);
+            for (int i = 0; i < variants.length; i++) {
+                ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+                ImageResizer.writeJpeg(variants[i], bannerJpegQuality, jpeg);
+                byte[] variant = jpeg.toByteArray();
+                blobStore.put(storageKey(BannerVariants.filename(contentHash, BannerVariants.WIDTHS[i]), "banner"),
+                        new ByteArrayInputStream(variant), variant.length, "image/jpeg");
+            }
+
+            log.info("Stored banner variants: {} ({}x{} original: {})",
+                    storedFilename, image.getWidth(), image.getHeight(), originalFilename);
+            return storedFilename;
+
+        } catch (IllegalArgumentException ex) {
+            throw new FileStorageException(ex.getMessage());
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to store file: " + originalFilename, ex);
+        }
     }
 
     /**
      * Store course material file.
      * 
      * @param file the uploaded file
-     * @return the stored filename (UUID-based)
+     * @return the stored filename, sharded (e.g. 3f/a2/&lt;uuid&gt;.pdf)
      * @throws FileStorageException if storage fails
      */
     public String storeMaterial(MultipartFile file) {
-        return storeFile(file, materialStorageLocation, "material");
+        return storeFile(file, "material");
+    }
+
+    /**
+     * Move a legacy flat material file into the sharded layout.
+     * Safe to repeat: a file already moved is reported as migrated.
+     * 
+     * @param flatFilename the stored flat filename
+     * @return the sharded filename, or null if the file exists in neither layout
+     * @throws FileStorageException if the move fails
+     */
+    public String moveMaterialToShardedLayout(String flatFilename) {
+        String shardedFilename = StorageLayout.shard(flatFilename);
+        String sourceKey = storageKey(flatFilename, "material");
+        String targetKey = storageKey(shardedFilename, "material");
+
+        try {
+            if (blobStore.exists(sourceKey)) {
+                evictHotFile(sourceKey);
+                blobStore.move(sourceKey, targetKey);
+            } else if (!blobStore.exists(targetKey)) {
+                return null;
+            }
+            return shardedFilename;
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to move file: " + flatFilename, ex);
+        }
     }
 
     /**
-     * Store a file in the specified location.
+     * Store a file under a new UUID-based name.
+     * The upload is streamed to the blob store (multipart for large files on S3).
      * 
      * @param file the uploaded file
-     * @param targetLocation the directory to store the file
-     * @param fileType the type of file (for logging)
+     * @param fileType the type of file (banner or material)
      * @return the stored filename
      * @throws FileStorageException if storage fails
      */
-    private String storeFile(MultipartFile file, Path targetLocation, String fileType) {
+    private String storeFile(MultipartFile file, String fileType) {
+        String originalFilename = validateUpload(file);
+
+        // Generate unique filename with original extension
+        String extension = getFileExtension(originalFilename);
+        String storedFilename = UUID.randomUUID().toString() + extension;
+        if ("material".equalsIgnoreCase(fileType)) {
+            storedFilename = StorageLayout.shard(storedFilename);
+        }
+
+        try (InputStream content = file.getInputStream()) {
+            blobStore.put(storageKey(storedFilename, fileType), content, file.getSize(), file.getContentType());
+            
+            log.info("Stored {} file: {} (original: {})", fileType, storedFilename, originalFilename);
+            
+            return storedFilename;
+            
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to store file: " + originalFilename, ex);
+        }
+    }
+
+    /**
+     * Validate an upload and return its cleaned original filename.
+     * 
+     * @param file the uploaded file
+     * @return the cleaned original filename
+     * @throws FileStorageException if the file is empty, too large or has an invalid name
+     */
+    private String validateUpload(MultipartFile file) {
         // Validate file
         if (file.isEmpty()) {
             throw new FileStorageException("Cannot store empty file");
@@ -122,26 +241,78 @@ public class FileStorageService {
             throw new FileStorageException("Invalid filename: " + originalFilename);
         }
 
-        // Generate unique filename with original extension
-        String extension = getFileExtension(originalFilename);
-        String storedFilename = UUID.randomUUID().toString() + extension;
+        return originalFilename;
+    }
 
+    /**
+     * Store a content-addressed object unless it already exists.
+     * 
+     * @param key the storage key
+     * @param bytes the content
+     * @param contentType the MIME type
+     * @throws IOException if writing fails
+     */
+    private void putIfAbsent(String key, byte[] bytes, String contentType) throws IOException {
+        if (!blobStore.exists(key)) {
+            blobStore.put(key, new ByteArrayInputStream(bytes), bytes.length, contentType);
+        }
+    }
+
+    /**
+     * Compute the content hash used to name immutable files.
+     * 
+     * @param bytes the file content
+     * @return first 16 bytes of the SHA-256 digest as lowercase hex
+     */
+    private String contentHash(byte[] bytes) {
         try {
-            // Copy file to target location
-            Path targetPath = targetLocation.resolve(storedFilename);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-            
-            log.info("Stored {} file: {} (original: {})", fileType, storedFilename, originalFilename);
-            
-            return storedFilename;
-            
-        } catch (IOException ex) {
-            throw new FileStorageException("Failed to store file: " + originalFilename, ex);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Map a stored filename to its blob store key.
+     * 
+     * @param filename the stored filename
+     * @param fileType the type (banner or material)
+     * @return key such as materials/3f/a2/&lt;uuid&gt;.pdf
+     * @throws FileStorageException if the filename tries to escape its folder
+     */
+    private String storageKey(String filename, String fileType) {
+        if (filename == null || filename.isBlank() || filename.contains("..") || filename.startsWith("/")) {
+            throw new FileStorageException("Invalid filename: " + filename);
+        }
+        String folder = "banner".equalsIgnoreCase(fileType) ? BANNER_FOLDER : MATERIAL_FOLDER;
+        return folder + "/" + filename;
+    }
+
+    /**
+     * Resolve the key a presigned URL should point at.
+     * Sharded names are used as they are: the migration moves a file before re-pointing
+     * its row, so a row never names a sharded file that is still flat. Only a legacy flat
+     * name may already have been moved, which costs one existence check until its row
+     * is migrated.
+     * 
+     * @param filename the stored filename (flat or sharded)
+     * @return the key the file is stored under
+     */
+    private String resolveMaterialKey(String filename) {
+        String key = storageKey(filename, "material");
+        if (StorageLayout.isSharded(filename) || blobStore.exists(key)) {
+            return key;
         }
+        return storageKey(StorageLayout.shard(filename), "material");
     }
 
     /**
      * Load a file as a Resource.
+     * Hot material files on the local backend come back as a memory-mapped ByteBufferResource;
+     * Spring's ResourceRegion support serves Range requests from it without reopening the file.
+     * Materials are read under their stored name; only a missing legacy flat name is
+     * looked up again in the sharded layout.
      * 
      * @param filename the filename
      * @param fileType the type (banner or material)
@@ -149,24 +320,43 @@ public class FileStorageService {
      * @throws FileStorageException if file not found
      */
     public Resource loadFileAsResource(String filename, String fileType) {
-        try {
-            Path filePath;
-            if ("banner".equalsIgnoreCase(fileType)) {
-                filePath = bannerStorageLocation.resolve(filename).normalize();
-            } else {
-                filePath = materialStorageLocation.resolve(filename).normalize();
+        String key = storageKey(filename, fileType);
+
+        if (!"banner".equalsIgnoreCase(fileType)) {
+            Path localPath = blobStore.localPath(key);
+            if (localPath != null) {
+                ByteBufferResource cached = hotFileCache.get(localPath);
+                if (cached != null) {
+                    return cached;
+                }
             }
-            
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new FileStorageException("File not found: " + filename);
+        }
+
+        Resource resource = blobStore.get(key);
+        if (resource.exists()) {
+            return resource;
+        }
+        // A legacy file may have been moved while its row still holds the flat name
+        if (!"banner".equalsIgnoreCase(fileType) && !StorageLayout.isSharded(filename)) {
+            Resource moved = blobStore.get(storageKey(StorageLayout.shard(filename), "material"));
+            if (moved.exists()) {
+                return moved;
             }
-        } catch (MalformedURLException ex) {
-            throw new FileStorageException("File not found: " + filename, ex);
         }
+        throw new FileStorageException("File not found: " + filename);
+    }
+
+    /**
+     * Get a time-limited URL the client can download a material from directly.
+     * Only available when the backend serves clients itself (S3); callers redirect to it.
+     * 
+     * @param filename the stored filename
+     * @param contentType the Content-Type the download should carry
+     * @param contentDisposition the Content-Disposition the download should carry
+     * @return the presigned URL, or empty when this application must stream the file
+     */
+    public Optional<URI> getPresignedMaterialUrl(String filename, String contentType, String contentDisposition) {
+        return blobStore.presignedGetUrl(resolveMaterialKey(filename), presignTtl, contentType, contentDisposition);
     }
 
     /**
@@ -177,15 +367,17 @@ public class FileStorageService {
      * @throws FileStorageException if deletion fails
      */
     public void deleteFile(String filename, String fileType) {
+        String key = storageKey(filename, fileType);
         try {
-            Path filePath;
-            if ("banner".equalsIgnoreCase(fileType)) {
-                filePath = bannerStorageLocation.resolve(filename).normalize();
-            } else {
-                filePath = materialStorageLocation.resolve(filename).normalize();
-            }
+            evictHotFile(key);
+            blobStore.delete(key);
             
-            Files.deleteIfExists(filePath);
+            // A material may still sit in its other layout mid-migration
+            if (!"banner".equalsIgnoreCase(fileType)) {
+                String alternateKey = storageKey(StorageLayout.alternate(filename), "material");
+                evictHotFile(alternateKey);
+                blobStore.delete(alternateKey);
+            }
             log.info("Deleted {} file: {}", fileType, filename);
             
         } catch (IOException ex) {
@@ -194,6 +386,55 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Delete files once the surrounding transaction commits (immediately if there is none).
+     * A rolled-back delete keeps its files; a failed file delete is left to the
+     * orphaned file collector.
+     * 
+     * @param filenames the stored filenames
+     * @param fileType the type (banner or material)
+     */
+    public void deleteFilesAfterCommit(Collection<String> filenames, String fileType) {
+        if (filenames.isEmpty()) {
+            return;
+        }
+        List<String> toDelete = List.copyOf(filenames);
+        Runnable deletion = () -> toDelete.forEach(filename -> {
+            try {
+                deleteFile(filename, fileType);
+            } catch (FileStorageException ex) {
+                log.warn("Could not delete {} file {}, leaving it to the orphaned file collector", fileType, filename);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deletion.run();
+                }
+            });
+        } else {
+            deletion.run();
+        }
+    }
+
+    private void evictHotFile(String key) {
+        Path localPath = blobStore.localPath(key);
+        if (localPath != null) {
+            hotFileCache.evict(localPath);
+        }
+    }
+
+    /**
+     * Get hot material cache metrics.
+     * 
+     * @return hit ratio, evictions and mapped bytes
+     */
+    public HotFileCacheStatsDto getHotCacheStats() {
+        return hotFileCache.getStats();
+    }
+
     /**
      * Get file extension from filename.
      * 
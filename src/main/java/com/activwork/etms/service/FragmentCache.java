@@ -0,0 +1,223 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.FragmentCacheProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.dto.CourseListDto;
+import com.activwork.etms.dto.FragmentCacheStatsDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte-bounded cache of rendered catalog HTML fragments.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Keeps render caching out of HomeController and the templates; pages only splice
+ *   the returned HTML in with th:utext
+ *
+ * Design Notes:
+ * 1. Fragments live in templates/courses/fragments.html and never depend on the user,
+ *    so one rendering serves every visitor; only the navbar is rendered per request
+ * 2. The key is the fragment name plus the model version: per course, its COURSE
+ *    version (CacheKeyVersions, moved by edits on any instance) and the counters the
+ *    fragment shows (enrollments, ratings). A change yields a new key, old keys age out
+ * 3. Callers read catalogVersion() before loading the model; a render is stored only if
+ *    no course changed meanwhile, so a render of stale data is never cached
+ * 4. LRU by total bytes of HTML and keys (LinkedHashMap in access order), like HotFileCache;
+ *    entries also expire after fragment-cache.max-age-seconds
+ * 5. A hit is a map lookup and a UTF-8 decode: no template processing, no expressions
+ */
+@Slf4j
+@Service
+public class FragmentCache {
+
+    private static final String TEMPLATE = "courses/fragments";
+
+    private final ITemplateEngine templateEngine;
+    private final CacheKeyVersions cacheKeyVersions;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long maxAgeNanos;
+
+    // Guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder discardedRenders = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+
+    private volatile JakartaServletWebApplication webApplication;
+
+    public FragmentCache(ITemplateEngine templateEngine,
+                         CacheKeyVersions cacheKeyVersions,
+                         FragmentCacheProperties fragmentCacheProperties) {
+        this.templateEngine = templateEngine;
+        this.cacheKeyVersions = cacheKeyVersions;
+        this.enabled = fragmentCacheProperties.isEnabled();
+        this.maxBytes = fragmentCacheProperties.getMaxBytes();
+        this.maxEntryBytes = Math.min(fragmentCacheProperties.getMaxEntryBytes(), maxBytes);
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(fragmentCacheProperties.getMaxAgeSeconds());
+    }
+
+    /**
+     * Version of the catalog as a whole; read it before loading the model of a fragment.
+     *
+     * @return the current catalog version
+     */
+    public long catalogVersion() {
+        return cacheKeyVersions.current(Region.COURSE, null);
+    }
+
+    /**
+     * Model version of a list of course cards.
+     *
+     * @param courses the cards, in display order
+     * @return key part identifying exactly what the cards show
+     */
+    public String courseListKey(List<CourseListDto> courses) {
+        StringBuilder key = new StringBuilder(courses.size() * 64);
+        for (CourseListDto course : courses) {
+            key.append(course.getId()).append(':')
+                    .append(cacheKeyVersions.current(Region.COURSE, course.getId())).append(':')
+                    .append(course.getEnrollmentCount()).append(':')
+                    .append(course.getTotalRatings()).append(':')
+                    .append(course.getAverageRating()).append(';');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Model version of one course's own content.
+     *
+     * @param courseId the course UUID
+     * @return key part identifying the course's current content
+     */
+    public String courseKey(UUID courseId) {
+        return courseId + ":" + cacheKeyVersions.current(Region.COURSE, courseId);
+    }
+
+    /**
+     * Rendered HTML of a fragment, from the cache or rendered now.
+     *
+     * @param fragment fragment name in courses/fragments.html
+     * @param modelKey model version (see courseListKey, courseKey)
+     * @param catalogVersion catalogVersion() as read before the model was loaded
+     * @param variables the fragment's model
+     * @param request the current request (for links)
+     * @param response the current response
+     * @return the HTML, to be inserted unescaped
+     */
+    public String render(String fragment, String modelKey, long catalogVersion, Map<String, Object> variables,
+                         HttpServletRequest request, HttpServletResponse response) {
+        String key = fragment + "|" + modelKey;
+        if (enabled) {
+            byte[] cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                return new String(cached, StandardCharsets.UTF_8);
+            }
+            misses.increment();
+        }
+
+        long started = System.nanoTime();
+        WebContext context = new WebContext(webApplication(request).buildExchange(request, response),
+                request.getLocale(), variables);
+        String html = templateEngine.process(TEMPLATE, Set.of(fragment), context);
+        renderNanos.add(System.nanoTime() - started);
+
+        if (enabled) {
+            if (catalogVersion() == catalogVersion) {
+                store(key, html.getBytes(StandardCharsets.UTF_8));
+            } else {
+                discardedRenders.increment();
+            }
+        }
+        return html;
+    }
+
+    /**
+     * Snapshot of cache metrics.
+     *
+     * @return hit/miss counters, render time and memory usage
+     */
+    public FragmentCacheStatsDto getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        double hitRatio = total == 0 ? 0.0 : (double) hitCount / total;
+        double averageRenderMicros = missCount == 0 ? 0.0 : renderNanos.sum() / 1_000.0 / missCount;
+
+        synchronized (this) {
+            return new FragmentCacheStatsDto(hitCount, missCount, hitRatio, evictions.sum(), discardedRenders.sum(),
+                    averageRenderMicros, entries.size(), cachedBytes, maxBytes);
+        }
+    }
+
+    private synchronized byte[] lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAtNanos() > maxAgeNanos) {
+            entries.remove(key);
+            cachedBytes -= entry.bytes();
+            return null;
+        }
+        return entry.html();
+    }
+
+    private synchronized void store(String key, byte[] html) {
+        if (html.length > maxEntryBytes) {
+            return;
+        }
+        Entry entry = new Entry(html, key.length(), System.nanoTime());
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            cachedBytes -= previous.bytes();
+        }
+        cachedBytes += entry.bytes();
+
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            cachedBytes -= eldest.getValue().bytes();
+            evictions.increment();
+        }
+    }
+
+    private JakartaServletWebApplication webApplication(HttpServletRequest request) {
+        JakartaServletWebApplication application = webApplication;
+        if (application == null) {
+            application = JakartaServletWebApplication.buildApplication(request.getServletContext());
+            webApplication = application;
+        }
+        return application;
+    }
+
+    private record Entry(byte[] html, int keyLength, long storedAtNanos) {
+
+        // Keys hold the model version of every card, so they count towards the budget too
+        long bytes() {
+            return html.length + keyLength;
+        }
+    }
+}
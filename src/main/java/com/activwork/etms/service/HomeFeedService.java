@@ -0,0 +1,88 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.HomeFeedProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.dto.CourseListDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached home page feed (featured courses).
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Caching concern kept out of CourseService and HomeController
+ *
+ * Design Notes:
+ * 1. One immutable snapshot shared by all home page requests; reads are a volatile read
+ * 2. Invalidated by COURSE and FEEDBACK invalidations from the cache invalidation bus
+ *    (committed on this or another instance), so the next request sees the change
+ * 3. A generation counter stops a load that raced with an invalidation from
+ *    installing its (possibly stale) result
+ * 4. The TTL only bounds drift of trigger-maintained counters (enrollments)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeFeedService {
+
+    private final CourseService courseService;
+    private final HomeFeedProperties homeFeedProperties;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Featured courses for the home page.
+     *
+     * @return cached list of featured courses (unmodifiable)
+     */
+    public List<CourseListDto> getFeaturedCourses() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(homeFeedProperties.getCacheTtlSeconds())) {
+            return current.courses();
+        }
+        return reload();
+    }
+
+    /**
+     * Drop the cached feed once a course or its ratings changed on any instance.
+     *
+     * @param event the cache invalidation
+     */
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEventDto event) {
+        if (!event.covers(Region.COURSE) && !event.covers(Region.FEEDBACK)) {
+            return;
+        }
+        generation.incrementAndGet();
+        snapshot = null;
+        log.debug("Home feed invalidated: {} {}{}", event.getRegion(), event.getKey(), event.isRemote() ? " (remote)" : "");
+    }
+
+    private synchronized List<CourseListDto> reload() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(homeFeedProperties.getCacheTtlSeconds())) {
+            return current.courses();
+        }
+
+        long loadGeneration = generation.get();
+        List<CourseListDto> courses = List.copyOf(courseService.getFeaturedCourses(homeFeedProperties.getFeaturedLimit()));
+        if (generation.get() == loadGeneration) {
+            snapshot = new Snapshot(courses, System.nanoTime());
+        }
+        return courses;
+    }
+
+    private record Snapshot(List<CourseListDto> courses, long loadedAtNanos) {
+        boolean isExpired(long ttlSeconds) {
+            return System.nanoTime() - loadedAtNanos > TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.FileStorageProperties;
+import com.activwork.etms.dto.HotFileCacheStatsDto;
+import com.activwork.etms.util.ByteBufferResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of memory-mapped material files.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Keeps the mapping/eviction policy out of FileStorageService
+ * - FileStorageService decides what is cacheable, this class decides what stays
+ *
+ * Design Notes:
+ * 1. LRU by total mapped bytes (LinkedHashMap in access order), not by entry count
+ * 2. Admission after N requests, so one-off downloads do not evict the hot set
+ * 3. Pinned files are mapped immediately and never evicted
+ * 4. Hits return a shared ByteBufferResource over the mapping - no file open, no stat, no copy;
+ *    each response stream reads its own read-only duplicate of the buffer
+ * 5. Evicted mappings are released by the GC (Java 17 has no public unmap);
+ *    stored materials are never rewritten in place, so a mapping never goes stale
+ */
+@Slf4j
+@Service
+public class HotFileCache {
+
+    /**
+     * Upper bound on tracked-but-not-admitted files before the counters are reset
+     */
+    private static final int MAX_TRACKED_CANDIDATES = 10000;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final int admissionHits;
+
+    // Guarded by this
+    private final LinkedHashMap<Path, ByteBufferResource> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final Set<Path> pinned = ConcurrentHashMap.newKeySet();
+    private final Map<Path, AtomicInteger> candidateHits = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public HotFileCache(FileStorageProperties fileStorageProperties) {
+        this.enabled = fileStorageProperties.isHotCacheEnabled();
+        this.maxBytes = fileStorageProperties.getHotCacheMaxBytes();
+        this.maxFileBytes = fileStorageProperties.getHotCacheMaxFileBytes();
+        this.admissionHits = Math.max(1, fileStorageProperties.getHotCacheAdmissionHits());
+    }
+
+    /**
+     * Get the mapped content of a file, mapping it if it has become hot.
+     *
+     * @param path absolute, normalized file path
+     * @return resource over the mapped file, or null if the file is not (yet) cached
+     */
+    public ByteBufferResource get(Path path) {
+        if (!enabled) {
+            return null;
+        }
+
+        ByteBufferResource cached;
+        synchronized (this) {
+            cached = entries.get(path);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        if (!admit(path)) {
+            return null;
+        }
+        return load(path);
+    }
+
+    /**
+     * Pin a file: map it now and never evict it.
+     *
+     * @param path absolute, normalized file path
+     */
+    public void pin(Path path) {
+        if (!enabled) {
+            return;
+        }
+        pinned.add(path);
+        if (load(path) == null) {
+            log.warn("Could not pin file in hot cache: {}", path);
+        }
+    }
+
+    /**
+     * Drop a file from the cache (e.g. before it is deleted).
+     *
+     * @param path absolute, normalized file path
+     */
+    public void evict(Path path) {
+        pinned.remove(path);
+        candidateHits.remove(path);
+        synchronized (this) {
+            ByteBufferResource removed = entries.remove(path);
+            if (removed != null) {
+                cachedBytes -= removed.contentLength();
+            }
+        }
+    }
+
+    /**
+     * Snapshot of cache metrics.
+     *
+     * @return hit/miss counters, hit ratio and memory usage
+     */
+    public HotFileCacheStatsDto getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        double hitRatio = total == 0 ? 0.0 : (double) hitCount / total;
+
+        synchronized (this) {
+            return new HotFileCacheStatsDto(hitCount, missCount, hitRatio, evictions.sum(),
+                    entries.size(), pinned.size(), cachedBytes, maxBytes);
+        }
+    }
+
+    private boolean admit(Path path) {
+        if (candidateHits.size() > MAX_TRACKED_CANDIDATES) {
+            candidateHits.clear(); // Cheap aging: forget lukewarm files
+        }
+        int count = candidateHits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        if (count < admissionHits) {
+            return false;
+        }
+        candidateHits.remove(path);
+        return true;
+    }
+
+    private ByteBufferResource load(Path path) {
+        ByteBufferResource mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > maxFileBytes || size > maxBytes || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped = new ByteBufferResource(mapping, path.getFileName().toString(),
+                    Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException ex) {
+            log.debug("Could not map file {}: {}", path, ex.getMessage());
+            return null;
+        }
+
+        synchronized (this) {
+            ByteBufferResource existing = entries.get(path);
+            if (existing != null) {
+                return existing; // Lost a race with another request
+            }
+            entries.put(path, mapped);
+            cachedBytes += mapped.contentLength();
+            evictOverBudget();
+        }
+        log.debug("Mapped hot file: {} ({} bytes)", path.getFileName(), mapped.contentLength());
+        return mapped;
+    }
+
+    // Caller holds the lock
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Path, ByteBufferResource>> iterator = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, ByteBufferResource> eldest = iterator.next();
+            if (pinned.contains(eldest.getKey())) {
+                continue;
+            }
+            iterator.remove();
+            cachedBytes -= eldest.getValue().contentLength();
+            evictions.increment();
+        }
+    }
+}
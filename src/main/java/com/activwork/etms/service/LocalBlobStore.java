@@ -0,0 +1,127 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.FileStorageProperties;
+import com.activwork.etms.exception.FileStorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * BlobStore keeping objects as files under file.upload-dir (the default backend).
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows the upload directory layout and how to write files atomically
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "file", name = "storage-backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(FileStorageProperties fileStorageProperties) {
+        this.root = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+
+        try {
+            Files.createDirectories(root.resolve("banners"));
+            Files.createDirectories(root.resolve("materials"));
+            log.info("Local blob store initialized at: {}", root);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create upload directory", ex);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // Write next to the target and move into place, so readers never see a partial file
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource get(String key) {
+        return new FileSystemResource(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        Path target = resolve(targetKey);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(sourceKey), target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix, boolean recursive) throws IOException {
+        Path folder = resolve(prefix);
+        if (!Files.isDirectory(folder)) {
+            return Stream.empty();
+        }
+        Stream<Path> paths = recursive ? Files.walk(folder) : Files.list(folder);
+        return paths
+                .filter(Files::isRegularFile)
+                .map(this::toBlobInfo)
+                .filter(Objects::nonNull);
+    }
+
+    private BlobInfo toBlobInfo(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            String key = root.relativize(path).toString().replace(File.separatorChar, '/');
+            return new BlobInfo(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException ex) {
+            return null; // Deleted while listing
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration ttl, String contentType, String contentDisposition) {
+        return Optional.empty(); // Served by this application
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return resolve(key);
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new FileStorageException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,25 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * In-JVM cache invalidation bus (cache-invalidation.bus=local, the default).
+ * Invalidates this instance only: for a single instance and for tests.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cache-invalidation", name = "bus", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final CacheKeyVersions cacheKeyVersions;
+
+    @Override
+    public void publish(Region region, UUID key) {
+        cacheKeyVersions.invalidate(region, key, false);
+    }
+}
@@ -1,5 +1,7 @@
 package com.activwork.etms.service;
 
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.dto.EnrollmentProgressEventDto;
 import com.activwork.etms.dto.MaterialResponseDto;
 import com.activwork.etms.dto.MaterialProgressDto;
 import com.activwork.etms.dto.MaterialProgressUpdateDto;
@@ -15,14 +17,18 @@ import com.activwork.etms.repository.CourseRepository;
 import com.activwork.etms.repository.CourseSectionRepository;
 import com.activwork.etms.repository.MaterialRepository;
 import com.activwork.etms.repository.MaterialProgressRepository;
+import com.activwork.etms.util.StorageLayout;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -52,6 +58,8 @@ public class MaterialService {
     private final MaterialProgressRepository materialProgressRepository;
     private final FileStorageService fileStorageService;
     private final EnrollmentService enrollmentService;
+    private final ProgressStreamService progressStreamService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * Get all materials for a course (ordered by display order).
@@ -155,10 +163,47 @@ public class MaterialService {
         }
         
         materialRepository.delete(material);
+        deleteMaterialFilesAfterCommit(List.of(material.getFilename()));
+        cacheInvalidationBus.publishAfterCommit(Region.MATERIALS, material.getCourse().getId());
         
         log.info("Material deleted successfully: {}", materialId);
     }
 
+    /**
+     * Delete the files of deleted materials once the transaction commits, keeping
+     * any file another material still references (course copies share files).
+     * Call after deleting the materials, in the same transaction.
+     * 
+     * @param filenames stored filenames of the deleted materials
+     */
+    @Transactional
+    public void deleteMaterialFilesAfterCommit(Collection<String> filenames) {
+        if (filenames.isEmpty()) {
+            return;
+        }
+        // The deletes must be visible to the reference check
+        materialRepository.flush();
+
+        Set<String> candidates = new HashSet<>();
+        filenames.forEach(filename -> {
+            candidates.add(filename);
+            candidates.add(StorageLayout.alternate(filename));
+        });
+        Set<String> referenced = materialRepository.findReferencedFilenames(candidates).stream()
+                .map(StorageLayout::flatten)
+                .collect(Collectors.toSet());
+
+        List<String> unreferenced = filenames.stream()
+                .distinct()
+                .filter(filename -> !referenced.contains(StorageLayout.flatten(filename)))
+                .toList();
+        if (unreferenced.size() < filenames.size()) {
+            log.debug("Keeping {} material file(s) still referenced by other materials",
+                    filenames.size() - unreferenced.size());
+        }
+        fileStorageService.deleteFilesAfterCommit(unreferenced, "material");
+    }
+
     /**
      * Count total materials for a course.
      * 
@@ -253,6 +298,7 @@ public class MaterialService {
         material.setIsActive(true);
         
         Material savedMaterial = materialRepository.save(material);
+        cacheInvalidationBus.publishAfterCommit(Region.MATERIALS, courseId);
         
         log.info("Material uploaded successfully: {} for course: {} in section: {}", 
             savedMaterial.getId(), courseId, sectionId);
@@ -424,6 +470,8 @@ public class MaterialService {
         
         // Update course progress if material completion status changed
         if (justCompleted || justUncompleted) {
+            progressStreamService.publish(EnrollmentProgressEventDto.forMaterial(
+                    enrollmentId, progressDto.getMaterialId(), isNowCompleted));
             log.info("▶ Triggering course progress update for enrollment: {}", enrollmentId);
             updateCourseProgress(enrollmentId);
         } else if (wasAlreadyCompleted && isNowCompleted) {
@@ -0,0 +1,171 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.FileStorageProperties;
+import com.activwork.etms.exception.FileStorageException;
+import com.activwork.etms.repository.MaterialRepository;
+import com.activwork.etms.repository.MaterialRepository.StoredFileView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online migration of material files from the flat layout into shard directories.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - One-off maintenance job kept out of MaterialService and FileStorageService
+ *
+ * Design Notes:
+ * 1. Runs on the materialMigrationExecutor; the application keeps serving during the migration,
+ *    and shutdown interrupts the pause between batches
+ * 2. Per batch: move the files first, then update the rows in one transaction.
+ *    In between, FileStorageService.loadFileAsResource resolves either layout
+ * 3. Row updates are conditional on the old filename, so concurrent edits/deletes win
+ * 4. Idempotent: a file already moved (e.g. crash before the row update) is just re-pointed
+ * 5. Keyset pagination on id, with a pause between batches to limit I/O pressure
+ */
+@Slf4j
+@Service
+public class MaterialStorageMigrationService {
+
+    private static final UUID NIL_UUID = new UUID(0L, 0L);
+
+    private final MaterialRepository materialRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final FileStorageProperties fileStorageProperties;
+    private final TaskExecutor migrationExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public MaterialStorageMigrationService(MaterialRepository materialRepository,
+                                           FileStorageService fileStorageService,
+                                           TransactionTemplate transactionTemplate,
+                                           FileStorageProperties fileStorageProperties,
+                                           @Qualifier("materialMigrationExecutor") TaskExecutor migrationExecutor) {
+        this.materialRepository = materialRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = transactionTemplate;
+        this.fileStorageProperties = fileStorageProperties;
+        this.migrationExecutor = migrationExecutor;
+    }
+
+    /**
+     * Start the migration once the application is up, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        if (fileStorageProperties.isShardMigrationEnabled()) {
+            start();
+        }
+    }
+
+    /**
+     * Start the migration in the background.
+     *
+     * @return false if a migration is already running
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested = false;
+        try {
+            migrationExecutor.execute(this::run);
+        } catch (RuntimeException ex) {
+            running.set(false);
+            throw ex;
+        }
+        return true;
+    }
+
+    /**
+     * @return true while the migration is running
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void run() {
+        log.info("Material shard migration started");
+        int batchSize = Math.max(1, fileStorageProperties.getShardMigrationBatchSize());
+        UUID afterId = NIL_UUID;
+
+        try {
+            while (!stopRequested) {
+                List<StoredFileView> batch = materialRepository.findFlatLayoutBatch(afterId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                migrateBatch(batch);
+                afterId = batch.get(batch.size() - 1).getId();
+
+                log.info("Material shard migration progress: {} migrated, {} missing, {} failed",
+                        migrated.get(), missing.get(), failed.get());
+                Thread.sleep(fileStorageProperties.getShardMigrationPauseMs());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.error("Material shard migration aborted", ex);
+        } finally {
+            running.set(false);
+            log.info("Material shard migration finished: {} migrated, {} missing, {} failed",
+                    migrated.get(), missing.get(), failed.get());
+        }
+    }
+
+    private void migrateBatch(List<StoredFileView> batch) {
+        List<MovedFile> moved = new ArrayList<>(batch.size());
+
+        // 1. Move files (outside any transaction - no DB locks held during I/O)
+        for (StoredFileView material : batch) {
+            try {
+                String shardedFilename = fileStorageService.moveMaterialToShardedLayout(material.getFilename());
+                if (shardedFilename == null) {
+                    log.warn("Material file missing, not migrated: {} ({})", material.getFilename(), material.getId());
+                    missing.incrementAndGet();
+                    continue;
+                }
+                moved.add(new MovedFile(material.getId(), material.getFilename(), shardedFilename));
+            } catch (FileStorageException ex) {
+                log.error("Failed to move material file: {}", material.getFilename(), ex);
+                failed.incrementAndGet();
+            }
+        }
+
+        // 2. Re-point the rows in one transaction
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (MovedFile file : moved) {
+                count += materialRepository.updateStoredFilename(file.materialId(), file.oldFilename(),
+                        file.newFilename(), "/uploads/materials/" + file.newFilename());
+            }
+            return count;
+        });
+        migrated.addAndGet(updated != null ? updated : 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopRequested = true;
+    }
+
+    private record MovedFile(UUID materialId, String oldFilename, String newFilename) {
+    }
+}
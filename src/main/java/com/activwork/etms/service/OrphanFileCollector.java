@@ -0,0 +1,277 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.FileStorageProperties;
+import com.activwork.etms.dto.OrphanFileReportDto;
+import com.activwork.etms.repository.CourseRepository;
+import com.activwork.etms.repository.MaterialRepository;
+import com.activwork.etms.util.BannerVariants;
+import com.activwork.etms.util.BloomFilter;
+import com.activwork.etms.util.StorageLayout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Mark-and-sweep collector for uploaded files no course or material references.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Maintenance job spanning FileStorageService (blobs) and the repositories (references)
+ *
+ * Design Notes:
+ * 1. Mark: stream every referenced upload from materials and courses into a Bloom filter
+ *    (about 10 bits per reference) instead of holding all names in memory
+ * 2. Sweep: walk banners/, the flat materials/ folder and the 256 material shard folders
+ *    in parallel; a file the filter has never seen is an orphan candidate
+ * 3. Candidates are verified exactly against the database before deletion, which also
+ *    covers rows inserted after the mark phase
+ * 4. Files younger than the grace period are skipped (upload written, row not yet committed)
+ * 5. Filter false positives only keep a file; the filter is reseeded every run, so they
+ *    are collected on a later run
+ * 6. References are matched by layout-independent names: the bare material filename
+ *    (flat or sharded) and the banner content hash (any variant width)
+ * 7. The sweep partitions run on the shared orphanFileGcExecutor (file.gc-parallelism threads);
+ *    partitions still queued when a run fails are cancelled
+ */
+@Slf4j
+@Service
+public class OrphanFileCollector {
+
+    private static final String BANNERS_PREFIX = "banners/";
+    private static final String MATERIALS_PREFIX = "materials/";
+    private static final String BANNER_URL_PART = "/uploads/banners/";
+    private static final String MATERIAL_URL_PART = "/uploads/materials/";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final BlobStore blobStore;
+    private final MaterialRepository materialRepository;
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FileStorageProperties fileStorageProperties;
+    private final AsyncTaskExecutor walkers;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile OrphanFileReportDto lastReport;
+
+    public OrphanFileCollector(BlobStore blobStore,
+                               MaterialRepository materialRepository,
+                               CourseRepository courseRepository,
+                               PlatformTransactionManager transactionManager,
+                               FileStorageProperties fileStorageProperties,
+                               @Qualifier("orphanFileGcExecutor") AsyncTaskExecutor walkers) {
+        this.blobStore = blobStore;
+        this.materialRepository = materialRepository;
+        this.courseRepository = courseRepository;
+        this.fileStorageProperties = fileStorageProperties;
+        this.walkers = walkers;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Run one collection now.
+     *
+     * @return the run report, or null if a collection is already running
+     */
+    public OrphanFileReportDto collect() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            OrphanFileReportDto report = runCollection();
+            lastReport = report;
+            log.info("🧹 Orphaned file GC {}: scanned {}, deleted {} ({} bytes reclaimed), {} in grace period, {} failed",
+                    report.isDryRun() ? "(dry run)" : "finished", report.getScannedFiles(), report.getDeletedFiles(),
+                    report.getReclaimedBytes(), report.getWithinGracePeriod(), report.getFailedDeletes());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return the report of the most recent run, or null if none has run yet
+     */
+    public OrphanFileReportDto getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Periodic collection (file.gc-interval-hours), if enabled.
+     */
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "PT${file.gc-interval-hours:24}H")
+    public void scheduledCollect() {
+        if (fileStorageProperties.isGcEnabled()) {
+            collectQuietly();
+        }
+    }
+
+    private void collectQuietly() {
+        try {
+            collect();
+        } catch (RuntimeException ex) {
+            log.error("Orphaned file GC failed", ex);
+        }
+    }
+
+    private OrphanFileReportDto runCollection() {
+        long start = System.currentTimeMillis();
+        boolean dryRun = fileStorageProperties.isGcDryRun();
+        long cutoff = start - TimeUnit.HOURS.toMillis(fileStorageProperties.getGcGracePeriodHours());
+
+        // Mark
+        BloomFilter referenced = BloomFilter.create(
+                2 * (materialRepository.count() + courseRepository.count()), FALSE_POSITIVE_RATE);
+        LongAdder referenceCount = new LongAdder();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> references = materialRepository.streamUploadReferences()) {
+                references.forEach(reference -> mark(referenced, reference, referenceCount));
+            }
+            try (Stream<String> references = courseRepository.streamUploadReferences()) {
+                references.forEach(reference -> mark(referenced, reference, referenceCount));
+            }
+        });
+
+        // Sweep
+        SweepCounters counters = new SweepCounters();
+        List<Future<?>> partitions = new ArrayList<>();
+        try {
+            partitions.add(walkers.submit(() -> sweep(BANNERS_PREFIX, true, referenced, cutoff, dryRun, counters)));
+            partitions.add(walkers.submit(() -> sweep(MATERIALS_PREFIX, false, referenced, cutoff, dryRun, counters)));
+            for (int shard = 0; shard < 256; shard++) {
+                String prefix = MATERIALS_PREFIX + String.format("%02x/", shard);
+                partitions.add(walkers.submit(() -> sweep(prefix, true, referenced, cutoff, dryRun, counters)));
+            }
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Orphaned file GC interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Orphaned file GC sweep failed", ex.getCause());
+        } finally {
+            partitions.forEach(partition -> partition.cancel(true));
+        }
+
+        return new OrphanFileReportDto(
+                LocalDateTime.now(), System.currentTimeMillis() - start, dryRun,
+                referenceCount.sum(), referenced.sizeInBytes(),
+                counters.scanned.sum(), counters.referenced.sum(), counters.withinGracePeriod.sum(),
+                counters.verifiedReferenced.sum(), counters.deleted.sum(), counters.reclaimedBytes.sum(),
+                counters.failed.sum());
+    }
+
+    private void mark(BloomFilter referenced, String reference, LongAdder referenceCount) {
+        String name = referenceName(reference);
+        if (name != null) {
+            referenced.put(name);
+            referenceCount.increment();
+        }
+    }
+
+    private void sweep(String prefix, boolean recursive, BloomFilter referenced, long cutoff,
+                       boolean dryRun, SweepCounters counters) {
+        try (Stream<BlobStore.BlobInfo> blobs = blobStore.list(prefix, recursive)) {
+            blobs.forEach(blob -> {
+                counters.scanned.increment();
+                String name = storedName(blob.key());
+
+                if (referenced.mightContain(name)) {
+                    counters.referenced.increment();
+                } else if (blob.lastModified() > cutoff) {
+                    counters.withinGracePeriod.increment();
+                } else if (isReferencedInDatabase(name)) {
+                    counters.verifiedReferenced.increment();
+                } else {
+                    delete(blob, dryRun, counters);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void delete(BlobStore.BlobInfo blob, boolean dryRun, SweepCounters counters) {
+        try {
+            if (!dryRun) {
+                blobStore.delete(blob.key());
+            }
+            log.debug("Orphaned file {}: {} ({} bytes)", dryRun ? "found" : "deleted", blob.key(), blob.size());
+            counters.deleted.increment();
+            counters.reclaimedBytes.add(blob.size());
+        } catch (IOException ex) {
+            log.warn("Failed to delete orphaned file: {}", blob.key(), ex);
+            counters.failed.increment();
+        }
+    }
+
+    /**
+     * Exact check for one candidate (flat and sharded material names, any banner variant).
+     */
+    private boolean isReferencedInDatabase(String name) {
+        if (name.startsWith(BANNERS_PREFIX)) {
+            String fragment = BANNER_URL_PART + name.substring(BANNERS_PREFIX.length());
+            return courseRepository.existsByThumbnailUrlContainingOrVideoPreviewUrlContaining(fragment, fragment)
+                    || materialRepository.existsByThumbnailUrlContaining(fragment);
+        }
+        String filename = name.substring(MATERIALS_PREFIX.length());
+        return materialRepository.existsByFilenameIn(List.of(filename, StorageLayout.shard(filename)))
+                || courseRepository.existsByThumbnailUrlContainingOrVideoPreviewUrlContaining(filename, filename)
+                || materialRepository.existsByThumbnailUrlContaining(filename);
+    }
+
+    /**
+     * Layout-independent name of a stored object.
+     */
+    private static String storedName(String key) {
+        if (key.startsWith(BANNERS_PREFIX)) {
+            return BANNERS_PREFIX + BannerVariants.stem(StorageLayout.flatten(key));
+        }
+        return MATERIALS_PREFIX + StorageLayout.flatten(key);
+    }
+
+    /**
+     * Layout-independent name of a database reference: a stored material filename
+     * or an /uploads/... URL. External URLs reference nothing.
+     */
+    private static String referenceName(String reference) {
+        int bannerIndex = reference.indexOf(BANNER_URL_PART);
+        if (bannerIndex >= 0) {
+            String filename = StorageLayout.flatten(reference.substring(bannerIndex + BANNER_URL_PART.length()));
+            return BANNERS_PREFIX + BannerVariants.stem(filename);
+        }
+        int materialIndex = reference.indexOf(MATERIAL_URL_PART);
+        if (materialIndex >= 0) {
+            return MATERIALS_PREFIX + StorageLayout.flatten(reference.substring(materialIndex + MATERIAL_URL_PART.length()));
+        }
+        if (reference.contains("://") || reference.startsWith("/")) {
+            return null;
+        }
+        return MATERIALS_PREFIX + StorageLayout.flatten(reference);
+    }
+
+    private static final class SweepCounters {
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder referenced = new LongAdder();
+        private final LongAdder withinGracePeriod = new LongAdder();
+        private final LongAdder verifiedReferenced = new LongAdder();
+        private final LongAdder deleted = new LongAdder();
+        private final LongAdder reclaimedBytes = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+}
@@ -0,0 +1,154 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.CacheInvalidationProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cache invalidation bus over PostgreSQL LISTEN/NOTIFY (cache-invalidation.bus=postgres).
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Carries invalidations between application instances through the database they share,
+ *   so no extra broker is needed
+ *
+ * Design Notes:
+ * 1. publish() invalidates this instance first, then sends pg_notify(channel,
+ *    "node|REGION|key") outside any transaction, i.e. only for committed changes
+ * 2. One daemon thread per instance holds a dedicated connection (not from the pool)
+ *    with LISTEN on the channel; PostgreSQL delivers notifications in commit order
+ * 3. Notifications from this instance are skipped (already applied by publish())
+ * 4. If the listening connection is lost, notifications sent meanwhile are gone:
+ *    after reconnecting, all local caches are invalidated
+ * 5. A failed pg_notify is logged, not thrown: the change itself has committed and
+ *    other instances fall back to their cache TTLs / periodic rebuilds
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "cache-invalidation", name = "bus", havingValue = "postgres")
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final String ALL_KEYS = "*";
+
+    private final CacheKeyVersions cacheKeyVersions;
+    private final CacheInvalidationProperties cacheInvalidationProperties;
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBus(CacheKeyVersions cacheKeyVersions,
+                                        CacheInvalidationProperties cacheInvalidationProperties,
+                                        DataSourceProperties dataSourceProperties,
+                                        DataSource dataSource) {
+        if (!CHANNEL_NAME.matcher(cacheInvalidationProperties.getChannel()).matches()) {
+            throw new IllegalStateException("Invalid cache-invalidation.channel: " + cacheInvalidationProperties.getChannel());
+        }
+        this.cacheKeyVersions = cacheKeyVersions;
+        this.cacheInvalidationProperties = cacheInvalidationProperties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+
+        this.listener = new Thread(this::listen, "cache-invalidation-listener");
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    @Override
+    public void publish(Region region, UUID key) {
+        cacheKeyVersions.invalidate(region, key, false);
+
+        String payload = nodeId + "|" + region.name() + "|" + (key != null ? key : ALL_KEYS);
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, cacheInvalidationProperties.getChannel(), payload);
+        } catch (DataAccessException e) {
+            log.warn("Cache invalidation not sent to other instances ({} {}): {}", region, key, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        listener.interrupt();
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + cacheInvalidationProperties.getChannel());
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cache invalidations on channel {}", cacheInvalidationProperties.getChannel());
+
+                if (reconnect) {
+                    // Anything sent while we were disconnected was missed
+                    cacheKeyVersions.invalidateAll();
+                }
+                reconnect = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(
+                            (int) Math.max(1, cacheInvalidationProperties.getPollTimeoutMillis()));
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                reconnect = true;
+            } catch (RuntimeException e) {
+                log.error("❌ Cache invalidation listener failed: {}", e.getMessage(), e);
+            }
+
+            try {
+                TimeUnit.SECONDS.sleep(Math.max(1, cacheInvalidationProperties.getReconnectDelaySeconds()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Region region = Region.valueOf(parts[1]);
+            UUID key = ALL_KEYS.equals(parts[2]) ? null : UUID.fromString(parts[2]);
+            cacheKeyVersions.invalidate(region, key, true);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed cache invalidation: {}", payload);
+        } catch (RuntimeException e) {
+            // A failing cache listener must not stop the bus
+            log.warn("Cache invalidation {} failed on this instance: {}", payload, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.ProgressStreamProperties;
+import com.activwork.etms.dto.EnrollmentProgressEventDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Service for pushing enrollment progress deltas to learners over Server-Sent Events.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Owns the registry of open SSE connections per enrollment
+ * - Decouples progress writers (EnrollmentService, MaterialService) from the web tier
+ *
+ * Design Notes:
+ * 1. Emitters are held in a ConcurrentHashMap of concurrent sets; subscribe and unsubscribe
+ *    change a set inside compute(), so an emitter is never added to a set that an
+ *    unsubscribe has just dropped from the map. Publish takes no locks
+ * 2. SseEmitter uses servlet async, so an open stream holds no request thread
+ * 3. Events are published after the surrounding transaction commits, so learners
+ *    never see progress that is later rolled back
+ * 4. Writes run on a small bounded pool; under overload deltas are dropped rather than
+ *    blocking the service thread (the page refetches full state on reconnect)
+ * 5. A periodic heartbeat comment detects and evicts dead connections; it is written on the
+ *    dispatch pool too, so a slow client never holds up the shared scheduler
+ */
+@Slf4j
+@Service
+public class ProgressStreamService {
+
+    static final String PROGRESS_EVENT = "progress";
+
+    private final Map<UUID, Set<SseEmitter>> emittersByEnrollment = new ConcurrentHashMap<>();
+    private final ProgressStreamProperties properties;
+    private final TaskExecutor dispatchExecutor;
+
+    public ProgressStreamService(ProgressStreamProperties properties,
+                                 @Qualifier("progressDispatchExecutor") TaskExecutor dispatchExecutor) {
+        this.properties = properties;
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
+    /**
+     * Open a new SSE stream for an enrollment.
+     * Caller is responsible for verifying the learner owns the enrollment.
+     *
+     * @param enrollmentId the enrollment UUID
+     * @return the registered emitter
+     */
+    public SseEmitter subscribe(UUID enrollmentId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeoutMs());
+
+        emittersByEnrollment.compute(enrollmentId, (id, emitters) -> {
+            Set<SseEmitter> registered = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            registered.add(emitter);
+            return registered;
+        });
+
+        Runnable cleanup = () -> unsubscribe(enrollmentId, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(ex -> cleanup.run());
+
+        log.debug("SSE subscribed for enrollment: {}", enrollmentId);
+        return emitter;
+    }
+
+    /**
+     * Publish a progress delta to every open stream of the enrollment.
+     * Deferred until commit when called inside a transaction.
+     *
+     * @param event the progress delta
+     */
+    public void publish(EnrollmentProgressEventDto event) {
+        if (!emittersByEnrollment.containsKey(event.getEnrollmentId())) {
+            return; // Nobody is listening - skip the transaction hook entirely
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(EnrollmentProgressEventDto event) {
+        Set<SseEmitter> emitters = emittersByEnrollment.get(event.getEnrollmentId());
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+
+        try {
+            dispatchExecutor.execute(() -> {
+                for (SseEmitter emitter : emitters) {
+                    send(event.getEnrollmentId(), emitter,
+                            SseEmitter.event().name(PROGRESS_EVENT).data(event, MediaType.APPLICATION_JSON));
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("SSE dispatch queue full, dropping progress delta for enrollment: {}", event.getEnrollmentId());
+        }
+    }
+
+    /**
+     * Send a heartbeat comment on every open stream, evicting dead connections.
+     */
+    @Scheduled(fixedRateString = "${progress-stream.heartbeat-ms:25000}",
+            initialDelayString = "${progress-stream.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        if (emittersByEnrollment.isEmpty()) {
+            return;
+        }
+
+        try {
+            dispatchExecutor.execute(() -> emittersByEnrollment.forEach((enrollmentId, emitters) -> {
+                for (SseEmitter emitter : emitters) {
+                    send(enrollmentId, emitter, SseEmitter.event().comment("hb"));
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            log.warn("SSE dispatch queue full, skipping this heartbeat round");
+        }
+    }
+
+    private void send(UUID enrollmentId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away - completing triggers the cleanup callback
+            log.debug("SSE connection closed for enrollment: {}", enrollmentId);
+            unsubscribe(enrollmentId, emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private void unsubscribe(UUID enrollmentId, SseEmitter emitter) {
+        emittersByEnrollment.computeIfPresent(enrollmentId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        emittersByEnrollment.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        emittersByEnrollment.clear();
+    }
+}
@@ -0,0 +1,346 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.FileStorageProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * BlobStore backed by an S3-compatible object store (AWS S3, MinIO, Ceph RGW...).
+ *
+ * GRASP Pattern: Information Expert
+ * - Knows the bucket, credentials and S3 request protocol
+ *
+ * Design Notes:
+ * 1. Uploads larger than file.s3.multipart-threshold-bytes (or of unknown length) use
+ *    multipart upload, buffering one part at a time; failed uploads are aborted
+ * 2. Objects become visible only when the (multipart) upload completes
+ * 3. Presigned GET URLs let clients download directly from the store
+ * 4. Set file.s3.endpoint and file.s3.path-style-access=true for MinIO-style servers
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "file", name = "storage-backend", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    /**
+     * S3 rejects non-final parts smaller than 5MB
+     */
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final long multipartThreshold;
+    private final int partSize;
+
+    public S3BlobStore(FileStorageProperties fileStorageProperties) {
+        FileStorageProperties.S3 config = fileStorageProperties.getS3();
+        this.bucket = config.getBucket();
+        this.multipartThreshold = config.getMultipartThresholdBytes();
+        this.partSize = Math.max(MIN_PART_SIZE, config.getPartSizeBytes());
+
+        AwsCredentialsProvider credentials = StringUtils.hasText(config.getAccessKey())
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(config.getAccessKey(), config.getSecretKey()))
+                : DefaultCredentialsProvider.create();
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+                .pathStyleAccessEnabled(config.isPathStyleAccess())
+                .build();
+
+        S3ClientBuilder clientBuilder = S3Client.builder()
+                .region(Region.of(config.getRegion()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(Region.of(config.getRegion()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+
+        if (StringUtils.hasText(config.getEndpoint())) {
+            URI endpoint = URI.create(config.getEndpoint());
+            clientBuilder.endpointOverride(endpoint);
+            presignerBuilder.endpointOverride(endpoint);
+        }
+
+        this.s3 = clientBuilder.build();
+        this.presigner = presignerBuilder.build();
+        log.info("S3 blob store initialized for bucket: {} (endpoint: {})",
+                bucket, StringUtils.hasText(config.getEndpoint()) ? config.getEndpoint() : "AWS");
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        try {
+            if (contentLength >= 0 && contentLength <= multipartThreshold) {
+                s3.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(contentType)
+                                .contentLength(contentLength)
+                                .build(),
+                        RequestBody.fromInputStream(content, contentLength));
+            } else {
+                putMultipart(key, content, contentType);
+            }
+        } catch (SdkException ex) {
+            throw new IOException("Failed to store object: " + key, ex);
+        }
+    }
+
+    private void putMultipart(String key, InputStream content, String contentType) throws IOException {
+        String uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[partSize];
+            int read;
+            // Part numbers start at 1; an empty stream still uploads one (empty) part
+            do {
+                read = content.readNBytes(buffer, 0, partSize);
+                int partNumber = parts.size() + 1;
+                String eTag = s3.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) read)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+            } while (read == partSize);
+
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            log.debug("Completed multipart upload of {} in {} parts", key, parts.size());
+
+        } catch (IOException | RuntimeException ex) {
+            abortQuietly(key, uploadId);
+            throw ex;
+        }
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException ex) {
+            log.warn("Failed to abort multipart upload {} for {}", uploadId, key, ex);
+        }
+    }
+
+    @Override
+    public Resource get(String key) {
+        return new S3ObjectResource(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key) != null;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException ex) {
+            throw new IOException("Failed to delete object: " + key, ex);
+        }
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        try {
+            // S3 has no rename: server-side copy, then delete the source
+            s3.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(bucket)
+                    .sourceKey(sourceKey)
+                    .destinationBucket(bucket)
+                    .destinationKey(targetKey)
+                    .build());
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(sourceKey).build());
+        } catch (SdkException ex) {
+            throw new IOException("Failed to move object: " + sourceKey + " -> " + targetKey, ex);
+        }
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix, boolean recursive) throws IOException {
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder().bucket(bucket).prefix(prefix);
+        if (!recursive) {
+            request.delimiter("/");
+        }
+        try {
+            // Pages are fetched lazily as the stream is consumed
+            return s3.listObjectsV2Paginator(request.build()).contents().stream()
+                    .map(object -> new BlobInfo(object.key(), object.size(), object.lastModified().toEpochMilli()));
+        } catch (SdkException ex) {
+            throw new IOException("Failed to list objects under: " + prefix, ex);
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration ttl, String contentType, String contentDisposition) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+        if (contentType != null) {
+            request.responseContentType(contentType);
+        }
+        if (contentDisposition != null) {
+            request.responseContentDisposition(contentDisposition);
+        }
+
+        String url = presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(request.build())
+                .build()).url().toString();
+        return Optional.of(URI.create(url));
+    }
+
+    /**
+     * @return object metadata, or null if the object does not exist
+     */
+    private HeadObjectResponse head(String key) {
+        try {
+            return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return null;
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        presigner.close();
+        s3.close();
+    }
+
+    /**
+     * Streaming Resource over one object; metadata is fetched once, on first use.
+     */
+    private final class S3ObjectResource extends AbstractResource {
+
+        private final String key;
+        private volatile HeadObjectResponse metadata;
+        private volatile boolean metadataLoaded;
+
+        private S3ObjectResource(String key) {
+            this.key = key;
+        }
+
+        private HeadObjectResponse metadata() {
+            if (!metadataLoaded) {
+                metadata = head(key);
+                metadataLoaded = true;
+            }
+            return metadata;
+        }
+
+        @Override
+        public boolean exists() {
+            return metadata() != null;
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            HeadObjectResponse head = metadata();
+            if (head == null) {
+                throw new FileNotFoundException(getDescription() + " does not exist");
+            }
+            return head.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            HeadObjectResponse head = metadata();
+            if (head == null) {
+                throw new FileNotFoundException(getDescription() + " does not exist");
+            }
+            return head.lastModified().toEpochMilli();
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(key.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + bucket + "/" + key + "]";
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+            } catch (S3Exception ex) {
+                if (ex.statusCode() == 404) {
+                    throw new FileNotFoundException(getDescription() + " does not exist");
+                }
+                throw new IOException("Failed to read " + getDescription(), ex);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof S3ObjectResource that && key.equals(that.key));
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+}
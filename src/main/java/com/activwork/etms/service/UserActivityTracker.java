@@ -0,0 +1,163 @@
+package com.activwork.etms.service;
+
+import com.activwork.etms.config.ActivityTrackingProperties;
+import com.activwork.etms.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-coalescing tracker for users.last_activity.
+ *
+ * GRASP Pattern: Pure Fabrication
+ * - Buffers activity between requests and the users table so that tracking every
+ *   request costs a map update instead of a row write
+ *
+ * Design Notes:
+ * 1. record() keeps only the latest timestamp per user (userId -> epoch millis);
+ *    any number of requests between flushes collapse into one row update
+ * 2. flush() writes all pending users with one UPDATE ... FROM (VALUES ...) per batch,
+ *    never moving last_activity backwards
+ * 3. An entry is removed only after it was written and only if no newer timestamp
+ *    arrived meanwhile; a failed flush keeps everything for the next run
+ * 4. Requests carry the email (security principal); its user id is looked up once and cached.
+ *    Emails and ids never change and users are not deleted, so entries never go stale; the
+ *    cache is only bounded (activity.user-id-cache-max-entries) and cleared when full
+ */
+@Slf4j
+@Service
+public class UserActivityTracker {
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityTrackingProperties activityTrackingProperties;
+    private final String schema;
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    private final Map<String, UUID> userIdsByEmail = new ConcurrentHashMap<>();
+
+    public UserActivityTracker(UserRepository userRepository,
+                               DataSource dataSource,
+                               ActivityTrackingProperties activityTrackingProperties,
+                               @Value("${spring.jpa.properties.hibernate.default_schema:etms}") String schema) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.activityTrackingProperties = activityTrackingProperties;
+        this.schema = schema;
+    }
+
+    /**
+     * Record that a user is active now.
+     *
+     * @param userId the user UUID
+     */
+    public void record(UUID userId) {
+        pending.merge(userId, System.currentTimeMillis(), Math::max);
+    }
+
+    /**
+     * Record that the user with the given email (security principal name) is active now.
+     *
+     * @param email the user's email
+     */
+    public void recordByEmail(String email) {
+        UUID userId = userIdsByEmail.get(email);
+        if (userId == null) {
+            userId = userRepository.findIdByEmail(email).orElse(null);
+            if (userId == null) {
+                return;
+            }
+            if (userIdsByEmail.size() >= activityTrackingProperties.getUserIdCacheMaxEntries()) {
+                userIdsByEmail.clear();
+            }
+            userIdsByEmail.putIfAbsent(email, userId);
+        }
+        record(userId);
+    }
+
+    /**
+     * Write all pending activity to the database.
+     *
+     * @return number of users written
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<UUID, Long>> batch = new ArrayList<>(activityTrackingProperties.getFlushBatchSize());
+        int written = 0;
+        for (Map.Entry<UUID, Long> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            if (batch.size() == activityTrackingProperties.getFlushBatchSize()) {
+                written += write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += write(batch);
+        }
+
+        log.debug("Flushed last activity of {} users", written);
+        return written;
+    }
+
+    /**
+     * @return the configured "active" window in minutes
+     */
+    public int getActiveWindowMinutes() {
+        return activityTrackingProperties.getActiveWindowMinutes();
+    }
+
+    /**
+     * Periodic flush (activity.flush-interval-seconds).
+     */
+    @Scheduled(fixedDelayString = "${activity.flush-interval-seconds:30}",
+            initialDelayString = "${activity.flush-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void scheduledFlush() {
+        flushQuietly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushQuietly();
+    }
+
+    private int write(List<Map.Entry<UUID, Long>> batch) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(schema).append(".users u ")
+                .append("SET last_activity = v.ts FROM (VALUES ");
+        Object[] args = new Object[batch.size() * 2];
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS UUID), CAST(? AS TIMESTAMPTZ))");
+            args[2 * i] = batch.get(i).getKey();
+            args[2 * i + 1] = new Timestamp(batch.get(i).getValue());
+        }
+        sql.append(") AS v(id, ts) WHERE u.id = v.id AND (u.last_activity IS NULL OR u.last_activity < v.ts)");
+
+        jdbcTemplate.update(sql.toString(), args);
+
+        for (Map.Entry<UUID, Long> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        return batch.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush user activity ({} users pending): {}", pending.size(), ex.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.activwork.etms.service;
 
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
 import com.activwork.etms.dto.LoginDto;
 import com.activwork.etms.dto.UserRegistrationDto;
 import com.activwork.etms.dto.UserResponseDto;
@@ -9,8 +10,9 @@ import com.activwork.etms.model.UserRole;
 import com.activwork.etms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
@@ -39,7 +41,9 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final UserActivityTracker userActivityTracker;
+    private final PasswordEncoder passwordEncoder;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * Register a new user (instructor or learner).
@@ -100,6 +104,11 @@ public class UserService {
             throw new IllegalArgumentException("User account is inactive");
         }
         
+        // Re-hash if the stored hash is weaker than the current BCrypt strength
+        if (passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            user.setPasswordHash(passwordEncoder.encode(loginDto.getPassword()));
+        }
+        
         // Update last login
         user.setLastLogin(ZonedDateTime.now());
         userRepository.save(user);
@@ -182,16 +191,26 @@ public class UserService {
     /**
      * Update user activity timestamp.
      * Called when user performs any action to track engagement.
+     * Recorded in memory and written in batches by UserActivityTracker.
      * 
      * @param userId the user UUID
      */
-    @Transactional
     public void updateUserActivity(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        
-        user.setLastActivity(ZonedDateTime.now());
-        userRepository.save(user);
+        userActivityTracker.record(userId);
+    }
+
+    /**
+     * Count learners of an instructor's courses active within the activity window.
+     * Pending activity is flushed first, so the count includes requests seen so far.
+     * 
+     * @param instructorId the instructor UUID
+     * @return number of distinct active learners
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the flush must not run in a read-only transaction
+    public long countActiveLearnersByInstructor(UUID instructorId) {
+        userActivityTracker.flush();
+        ZonedDateTime since = ZonedDateTime.now().minusMinutes(userActivityTracker.getActiveWindowMinutes());
+        return userRepository.countActiveLearnersByInstructor(instructorId, since);
     }
 
     /**
@@ -206,6 +225,7 @@ public class UserService {
         
         user.setIsActive(false);
         userRepository.save(user);
+        cacheInvalidationBus.publishAfterCommit(Region.USER, userId);
         
         log.info("User deactivated: {}", userId);
     }
@@ -222,6 +242,7 @@ public class UserService {
         
         user.setIsActive(true);
         userRepository.save(user);
+        cacheInvalidationBus.publishAfterCommit(Region.USER, userId);
         
         log.info("User activated: {}", userId);
     }
@@ -0,0 +1,107 @@
+package com.activwork.etms.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Naming rules for pre-generated course banner variants.
+ *
+ * Banners uploaded through FileStorageService.storeBanner are stored as several
+ * recompressed widths named {@code <content-hash>-<width>.jpg}. The course keeps the
+ * URL of the largest variant; any other width is derived from it by name, so no
+ * extra columns are needed. Legacy banners (UUID names, original resolution) do not
+ * match the pattern and are returned unchanged.
+ */
+public final class BannerVariants {
+
+    /**
+     * Widths generated at upload time, smallest first
+     */
+    public static final int[] WIDTHS = {320, 640, 1280};
+
+    /**
+     * Width used for catalog and featured course cards (h-48 cards, 2x for retina)
+     */
+    public static final int CARD_WIDTH = 640;
+
+    /**
+     * File extension of every variant (all variants are recompressed as JPEG)
+     */
+    public static final String EXTENSION = ".jpg";
+
+    private static final Pattern VARIANT_URL = Pattern.compile("^(.*/)?([0-9a-f]{16,64})-(\\d+)\\.jpg$");
+
+    private BannerVariants() {
+    }
+
+    /**
+     * Build the stored filename of one variant.
+     *
+     * @param contentHash hex content hash of the original upload
+     * @param width variant width in pixels
+     * @return filename such as {@code 3f2a...-640.jpg}
+     */
+    public static String filename(String contentHash, int width) {
+        return contentHash + "-" + width + EXTENSION;
+    }
+
+    /**
+     * Filename of the largest variant (the one stored on the course).
+     *
+     * @param contentHash hex content hash of the original upload
+     * @return filename of the largest variant
+     */
+    public static String primaryFilename(String contentHash) {
+        return filename(contentHash, WIDTHS[WIDTHS.length - 1]);
+    }
+
+    /**
+     * Resolve a banner URL to the variant of the given width.
+     *
+     * @param bannerUrl the stored banner URL (may be null or legacy)
+     * @param width the requested width (must be one of {@link #WIDTHS})
+     * @return the variant URL, or the input unchanged if it is not a variant URL
+     */
+    public static String resolve(String bannerUrl, int width) {
+        if (bannerUrl == null) {
+            return null;
+        }
+        Matcher matcher = VARIANT_URL.matcher(bannerUrl);
+        if (!matcher.matches()) {
+            return bannerUrl;
+        }
+        String prefix = matcher.group(1) != null ? matcher.group(1) : "";
+        return prefix + filename(matcher.group(2), width);
+    }
+
+    /**
+     * Name shared by every variant of one banner, used to match stored files to course URLs.
+     *
+     * @param filename a stored banner filename
+     * @return the content hash for a variant filename, otherwise the filename unchanged
+     */
+    public static String stem(String filename) {
+        Matcher matcher = VARIANT_URL.matcher(filename);
+        return matcher.matches() ? matcher.group(2) : filename;
+    }
+
+    /**
+     * Build an HTML {@code srcset} value covering every generated width.
+     *
+     * @param bannerUrl the stored banner URL (may be null or legacy)
+     * @return srcset string, or null if the URL is not a variant URL
+     */
+    public static String srcset(String bannerUrl) {
+        if (bannerUrl == null || !VARIANT_URL.matcher(bannerUrl).matches()) {
+            return null;
+        }
+        StringBuilder srcset = new StringBuilder();
+        for (int width : WIDTHS) {
+            if (srcset.length() > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(resolve(bannerUrl, width)).append(' ').append(width).append('w');
+        }
+        return srcset.toString();
+    }
+}
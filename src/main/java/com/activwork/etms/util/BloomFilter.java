@@ -0,0 +1,94 @@
+package com.activwork.etms.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compact probabilistic set of strings.
+ *
+ * mightContain never returns false for an added value; it returns true for a value
+ * that was not added with roughly the configured false-positive probability.
+ * Each filter uses a random seed, so repeated runs produce different false positives.
+ *
+ * Not thread-safe for writes; concurrent reads after all writes are complete are safe.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long seed;
+
+    private BloomFilter(long bitCount, int hashCount, long seed) {
+        this.words = new long[(int) ((bitCount + 63) / 64)];
+        this.bitCount = (long) words.length * 64;
+        this.hashCount = hashCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Create a filter sized for the expected number of values.
+     *
+     * @param expectedInsertions expected number of values (at least 1 is assumed)
+     * @param falsePositiveRate target false-positive probability, e.g. 0.01
+     * @return an empty filter with a random seed
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * LN2));
+        return new BloomFilter(Math.max(64, bits), hashes, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param value the value to add
+     */
+    public void put(String value) {
+        long h1 = hash(value, seed);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param value the value to test
+     * @return false if the value was definitely never added
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value, seed);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return memory used by the bit array in bytes
+     */
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    // FNV-1a over the chars, finished with a 64-bit mixer for avalanche
+    private static long hash(String value, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
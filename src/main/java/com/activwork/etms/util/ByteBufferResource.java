@@ -0,0 +1,127 @@
+package com.activwork.etms.util;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Spring Resource backed by a read-only ByteBuffer (typically a memory-mapped file).
+ *
+ * Every stream works on its own duplicate of the buffer, so one mapping can serve
+ * any number of concurrent requests. Skipping is O(1), which keeps Range requests
+ * (ResourceRegionHttpMessageConverter skips to the region start) cheap.
+ */
+public class ByteBufferResource extends AbstractResource {
+
+    private final ByteBuffer buffer;
+    private final String filename;
+    private final long lastModified;
+
+    /**
+     * @param buffer the content (position..limit); not modified by this resource
+     * @param filename the filename reported to Spring (used for Content-Disposition fallbacks)
+     * @param lastModified last modified time of the underlying file in millis
+     */
+    public ByteBufferResource(ByteBuffer buffer, String filename, long lastModified) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.filename = filename;
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Memory-mapped resource [" + filename + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    /**
+     * InputStream over a private buffer duplicate.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer source;
+
+        private ByteBufferInputStream(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() {
+            return source.hasRemaining() ? source.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, source.remaining());
+            source.get(bytes, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, source.remaining()));
+            source.position(source.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return source.remaining();
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            long count = source.remaining();
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            return count;
+        }
+    }
+}
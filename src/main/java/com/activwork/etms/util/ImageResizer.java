@@ -0,0 +1,152 @@
+package com.activwork.etms.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Pure-Java (ImageIO / Java2D) image scaling and JPEG recompression.
+ * Used to pre-generate banner variants at upload time.
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Decode an uploaded image.
+     * The dimensions are read from the header first, so an oversized image (e.g. a small
+     * file declaring a huge canvas) is refused before any pixel memory is allocated.
+     *
+     * @param bytes the raw image bytes
+     * @param maxPixels the largest width x height accepted
+     * @return decoded image, or null if ImageIO has no reader for the format (e.g. SVG, WebP)
+     * @throws IOException if the bytes cannot be read
+     * @throws IllegalArgumentException if the image has more than maxPixels pixels
+     */
+    public static BufferedImage decode(byte[] bytes, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException(String.format("Image is too large: %dx%d pixels (max %d)",
+                            reader.getWidth(0), reader.getHeight(0), maxPixels));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale an image down to several widths at once, keeping the aspect ratio.
+     * Never upscales; halves repeatedly before the final step for smooth large reductions.
+     * The results are opaque RGB (transparent areas become white) so they can be written as JPEG.
+     * The source is converted to RGB once; each width is then scaled from the next larger
+     * result, so the full-size image is only reduced once.
+     *
+     * @param source the source image
+     * @param targetWidths the desired widths in pixels, in any order
+     * @return the scaled images, in the order of targetWidths
+     */
+    public static BufferedImage[] scaleToWidths(BufferedImage source, int... targetWidths) {
+        Integer[] largestFirst = new Integer[targetWidths.length];
+        Arrays.setAll(largestFirst, i -> i);
+        Arrays.sort(largestFirst, Comparator.comparingInt((Integer i) -> targetWidths[i]).reversed());
+
+        BufferedImage[] scaled = new BufferedImage[targetWidths.length];
+        BufferedImage current = toRgb(source);
+        for (int index : largestFirst) {
+            current = scale(current, Math.min(targetWidths[index], source.getWidth()));
+            scaled[index] = current;
+        }
+        return scaled;
+    }
+
+    /**
+     * Write an image as a baseline JPEG at the given quality.
+     *
+     * @param image the image to write
+     * @param quality compression quality between 0 and 1
+     * @param out destination stream (not closed)
+     * @throws IOException if encoding fails
+     */
+    public static void writeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage current, int width) {
+        while (current.getWidth() / 2 >= width) {
+            current = draw(current, current.getWidth() / 2);
+        }
+        if (current.getWidth() != width) {
+            current = draw(current, width);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, source.getWidth(), source.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+}
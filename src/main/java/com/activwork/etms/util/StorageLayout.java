@@ -0,0 +1,69 @@
+package com.activwork.etms.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Directory layout rules for stored material files.
+ *
+ * New materials are stored under a two-level hash prefix, e.g. {@code 3f/a2/<uuid>.pdf},
+ * so no directory holds more than a few hundred files even with millions of materials.
+ * Legacy materials use a flat name ({@code <uuid>.pdf}). Material.filename holds the
+ * path relative to the materials folder in either layout.
+ */
+public final class StorageLayout {
+
+    private StorageLayout() {
+    }
+
+    /**
+     * Build the sharded relative path for a stored filename.
+     *
+     * @param filename flat stored filename such as {@code <uuid>.pdf}
+     * @return sharded path such as {@code 3f/a2/<uuid>.pdf}
+     */
+    public static String shard(String filename) {
+        String name = flatten(filename);
+        String hash = shardHash(name);
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + name;
+    }
+
+    /**
+     * Strip any shard directories from a stored filename.
+     *
+     * @param filename stored filename in either layout
+     * @return the bare filename
+     */
+    public static String flatten(String filename) {
+        return filename.substring(filename.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @param filename stored filename
+     * @return true if the filename is in the sharded layout
+     */
+    public static boolean isSharded(String filename) {
+        return filename.indexOf('/') >= 0;
+    }
+
+    /**
+     * The same file in the other layout (used to resolve files mid-migration).
+     *
+     * @param filename stored filename in either layout
+     * @return the flat name for a sharded filename, the sharded path for a flat one
+     */
+    public static String alternate(String filename) {
+        return isSharded(filename) ? flatten(filename) : shard(filename);
+    }
+
+    private static String shardHash(String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 2);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.activwork.etms.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Map from UUID to object, with the keys stored as two longs in parallel arrays.
+ *
+ * A HashMap&lt;UUID, V&gt; entry costs a UUID object (32 bytes) and a node (32 bytes)
+ * besides its table slot; here a key costs 16 bytes of long arrays and one value
+ * reference, and a lookup reads no key objects. Linear probing; removal shifts later
+ * entries back instead of leaving tombstones, so lookups never slow down with churn.
+ *
+ * Null values are not allowed (an empty slot is a null value). Not thread-safe.
+ *
+ * @param <V> the value type
+ */
+public final class UuidHashMap<V> {
+
+    private long[] msbs;
+    private long[] lsbs;
+    private Object[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    public UuidHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of keys to hold without growing
+     */
+    public UuidHashMap(int expectedSize) {
+        allocate(UuidHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * @param key the key
+     * @return the value, or null if the key is absent
+     */
+    public V get(UUID key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Look up a key given as its two halves (no UUID object needed).
+     *
+     * @param msb most significant bits of the key
+     * @param lsb least significant bits of the key
+     * @return the value, or null if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long msb, long lsb) {
+        int i = indexOf(msb, lsb);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * @param key the key
+     * @return true if the key is present
+     */
+    public boolean containsKey(UUID key) {
+        return indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * @param key the key
+     * @param value the value (not null)
+     * @return the previous value, or null if the key was absent
+     */
+    public V put(UUID key, V value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * @param key the key
+     * @param value the value (not null)
+     * @return the present value (left unchanged), or null if the value was added
+     */
+    public V putIfAbsent(UUID key, V value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * @param key the key
+     * @return the removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(UUID key) {
+        int i = indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (i < 0) {
+            return null;
+        }
+        V previous = (V) values[i];
+        deleteAt(i);
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every key (keeps the table size).
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * @param action called once per entry, in table order
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super UUID, ? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(new UUID(msbs[i], lsbs[i]), (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the values, in table order
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(UUID key, V value, boolean replace) {
+        Objects.requireNonNull(value, "value");
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int i = UuidHashing.slot(msb, lsb, mask);
+        while (values[i] != null) {
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                V previous = (V) values[i];
+                if (replace) {
+                    values[i] = value;
+                }
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        msbs[i] = msb;
+        lsbs[i] = lsb;
+        values[i] = value;
+        if (++size > resizeAt) {
+            rehash(values.length * 2);
+        }
+        return null;
+    }
+
+    private int indexOf(long msb, long lsb) {
+        int i = UuidHashing.slot(msb, lsb, mask);
+        while (values[i] != null) {
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the gap
+    private void deleteAt(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) {
+                break;
+            }
+            int home = UuidHashing.slot(msbs[i], lsbs[i], mask);
+            if (UuidHashing.canShiftInto(gap, i, home, mask)) {
+                msbs[gap] = msbs[i];
+                lsbs[gap] = lsbs[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = UuidHashing.slot(oldMsbs[j], oldLsbs[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                msbs[i] = oldMsbs[j];
+                lsbs[i] = oldLsbs[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = UuidHashing.resizeThreshold(capacity);
+    }
+}
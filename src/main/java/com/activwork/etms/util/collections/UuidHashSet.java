@@ -0,0 +1,213 @@
+package com.activwork.etms.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set of UUIDs stored as two longs per UUID in parallel arrays.
+ *
+ * 16 bytes of table per UUID (at most 3/4 full) instead of a UUID object plus a
+ * HashMap node. An all-zero slot is empty, so the nil UUID is tracked in a flag.
+ * Linear probing with backward-shift removal. Not thread-safe.
+ */
+public final class UuidHashSet {
+
+    private long[] msbs;
+    private long[] lsbs;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean containsNil;
+
+    public UuidHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of UUIDs to hold without growing
+     */
+    public UuidHashSet(int expectedSize) {
+        allocate(UuidHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * @param value the UUID to add
+     * @return true if it was not present
+     */
+    public boolean add(UUID value) {
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        if (isNil(msb, lsb)) {
+            if (containsNil) {
+                return false;
+            }
+            containsNil = true;
+            size++;
+            return true;
+        }
+        int i = UuidHashing.slot(msb, lsb, mask);
+        while (!isEmpty(i)) {
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        msbs[i] = msb;
+        lsbs[i] = lsb;
+        if (++size > resizeAt) {
+            rehash(msbs.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @param value the UUID to test
+     * @return true if present
+     */
+    public boolean contains(UUID value) {
+        return contains(value.getMostSignificantBits(), value.getLeastSignificantBits());
+    }
+
+    /**
+     * Test a UUID given as its two halves (no UUID object needed).
+     *
+     * @param msb most significant bits
+     * @param lsb least significant bits
+     * @return true if present
+     */
+    public boolean contains(long msb, long lsb) {
+        if (isNil(msb, lsb)) {
+            return containsNil;
+        }
+        return indexOf(msb, lsb) >= 0;
+    }
+
+    /**
+     * @param value the UUID to remove
+     * @return true if it was present
+     */
+    public boolean remove(UUID value) {
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        if (isNil(msb, lsb)) {
+            if (!containsNil) {
+                return false;
+            }
+            containsNil = false;
+            size--;
+            return true;
+        }
+        int i = indexOf(msb, lsb);
+        if (i < 0) {
+            return false;
+        }
+        deleteAt(i);
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every UUID (keeps the table size).
+     */
+    public void clear() {
+        Arrays.fill(msbs, 0L);
+        Arrays.fill(lsbs, 0L);
+        containsNil = false;
+        size = 0;
+    }
+
+    /**
+     * @param action called once per UUID, in table order
+     */
+    public void forEach(Consumer<? super UUID> action) {
+        if (containsNil) {
+            action.accept(new UUID(0L, 0L));
+        }
+        for (int i = 0; i < msbs.length; i++) {
+            if (!isEmpty(i)) {
+                action.accept(new UUID(msbs[i], lsbs[i]));
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the UUIDs, in table order
+     */
+    public List<UUID> toList() {
+        List<UUID> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    private boolean isEmpty(int i) {
+        return msbs[i] == 0L && lsbs[i] == 0L;
+    }
+
+    private static boolean isNil(long msb, long lsb) {
+        return msb == 0L && lsb == 0L;
+    }
+
+    private int indexOf(long msb, long lsb) {
+        int i = UuidHashing.slot(msb, lsb, mask);
+        while (!isEmpty(i)) {
+            if (msbs[i] == msb && lsbs[i] == lsb) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the gap
+    private void deleteAt(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (isEmpty(i)) {
+                break;
+            }
+            int home = UuidHashing.slot(msbs[i], lsbs[i], mask);
+            if (UuidHashing.canShiftInto(gap, i, home, mask)) {
+                msbs[gap] = msbs[i];
+                lsbs[gap] = lsbs[i];
+                gap = i;
+            }
+        }
+        msbs[gap] = 0L;
+        lsbs[gap] = 0L;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        allocate(capacity);
+        for (int j = 0; j < oldMsbs.length; j++) {
+            if (oldMsbs[j] != 0L || oldLsbs[j] != 0L) {
+                int i = UuidHashing.slot(oldMsbs[j], oldLsbs[j], mask);
+                while (!isEmpty(i)) {
+                    i = (i + 1) & mask;
+                }
+                msbs[i] = oldMsbs[j];
+                lsbs[i] = oldLsbs[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = UuidHashing.resizeThreshold(capacity);
+    }
+}
@@ -0,0 +1,57 @@
+package com.activwork.etms.util.collections;
+
+/**
+ * Slot arithmetic shared by the UUID tables.
+ *
+ * Tables are powers of two, probed linearly and kept at most 3/4 full.
+ */
+final class UuidHashing {
+
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private UuidHashing() {
+    }
+
+    /**
+     * @param expectedSize number of keys the table should hold without growing
+     * @return a power-of-two capacity
+     */
+    static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.max(0, expectedSize) * 4 / 3 + 1);
+        if (needed > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * @param capacity table capacity
+     * @return number of keys at which the table grows
+     */
+    static int resizeThreshold(int capacity) {
+        return capacity == MAX_CAPACITY ? Integer.MAX_VALUE : capacity / 4 * 3;
+    }
+
+    /**
+     * @return home slot of a key
+     */
+    static int slot(long msb, long lsb, int mask) {
+        return (int) mix(msb * 0x9E3779B97F4A7C15L ^ lsb) & mask;
+    }
+
+    /**
+     * @return true if the entry at slot i (home slot home) may move back into the gap
+     */
+    static boolean canShiftInto(int gap, int i, int home, int mask) {
+        return ((i - home) & mask) >= ((i - gap) & mask);
+    }
+
+    // Same 64-bit finalizer as BloomFilter
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Compact UUID-keyed Collections
+ * 
+ * Open-addressing hash maps and sets that store each UUID key as two longs in
+ * parallel arrays, for in-memory indexes and caches that hold many UUID keys:
+ * - UuidHashMap - UUID to object map (no key objects, no entry objects)
+ * - UuidHashSet - set of UUIDs
+ * 
+ * None of them is thread-safe; callers guard them like any HashMap.
+ * 
+ * @author ETMS Development Team
+ * @version 1.0.0
+ */
+package com.activwork.etms.util.collections;
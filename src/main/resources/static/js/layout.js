@@ -0,0 +1,108 @@
+// Dark mode toggle functionality
+const darkModeToggle = document.getElementById('darkModeToggle');
+const html = document.documentElement;
+
+// Check for saved theme preference or default to light mode
+const currentTheme = localStorage.getItem('theme') || 'light';
+
+// Apply saved theme on page load
+if (currentTheme === 'dark') {
+    html.classList.add('dark');
+}
+
+// Toggle dark mode
+darkModeToggle.addEventListener('click', () => {
+    html.classList.toggle('dark');
+
+    // Save preference to localStorage
+    const newTheme = html.classList.contains('dark') ? 'dark' : 'light';
+    localStorage.setItem('theme', newTheme);
+});
+
+// User menu dropdown toggle
+const userMenuButton = document.getElementById('userMenuButton');
+const userMenuDropdown = document.getElementById('userMenuDropdown');
+
+if (userMenuButton && userMenuDropdown) {
+    userMenuButton.addEventListener('click', (e) => {
+        e.stopPropagation();
+        userMenuDropdown.classList.toggle('hidden');
+    });
+
+    // Close dropdown when clicking outside
+    document.addEventListener('click', () => {
+        userMenuDropdown.classList.add('hidden');
+    });
+}
+
+// Mobile menu toggle
+const mobileMenuToggle = document.getElementById('mobileMenuToggle');
+const mobileMenu = document.getElementById('mobileMenu');
+
+mobileMenuToggle.addEventListener('click', () => {
+    mobileMenu.classList.toggle('hidden');
+});
+
+// Auto-hide flash messages after 5 seconds
+setTimeout(() => {
+    const flashMessages = document.querySelectorAll('[class*="bg-green-100"], [class*="bg-red-100"], [class*="bg-blue-100"]');
+    flashMessages.forEach(msg => {
+        msg.style.transition = 'opacity 0.5s';
+        msg.style.opacity = '0';
+        setTimeout(() => msg.remove(), 500);
+    });
+}, 5000);
+
+// Sidebar mobile toggle
+const sidebar = document.getElementById('sidebar');
+const sidebarOverlay = document.getElementById('sidebarOverlay');
+
+if (mobileMenuToggle && sidebar && sidebarOverlay) {
+    // Open sidebar on mobile menu toggle
+    mobileMenuToggle.addEventListener('click', () => {
+        sidebar.classList.add('mobile-open');
+        sidebarOverlay.classList.add('active');
+    });
+
+    // Close sidebar when clicking overlay
+    sidebarOverlay.addEventListener('click', () => {
+        sidebar.classList.remove('mobile-open');
+        sidebarOverlay.classList.remove('active');
+    });
+}
+
+// Highlight active sidebar link
+document.addEventListener('DOMContentLoaded', () => {
+    const currentPath = window.location.pathname;
+    const sidebarLinks = document.querySelectorAll('.sidebar-nav-item');
+
+    // Convert NodeList to Array and sort by path length (longest first)
+    const sortedLinks = Array.from(sidebarLinks).sort((a, b) => {
+        const pathA = new URL(a.href).pathname;
+        const pathB = new URL(b.href).pathname;
+        return pathB.length - pathA.length;
+    });
+
+    let matched = false;
+    sortedLinks.forEach(link => {
+        const linkPath = new URL(link.href).pathname;
+
+        // Only match if we haven't found a match yet
+        if (!matched) {
+            // Exact match has highest priority
+            if (linkPath === currentPath) {
+                link.classList.add('active');
+                matched = true;
+            }
+            // For non-root paths, check if current path starts with link path
+            // and ensure it's a proper path segment (followed by / or end of string)
+            else if (linkPath !== '/' && currentPath.startsWith(linkPath)) {
+                const nextChar = currentPath.charAt(linkPath.length);
+                if (nextChar === '/' || nextChar === '' || nextChar === '?') {
+                    link.classList.add('active');
+                    matched = true;
+                }
+            }
+        }
+    });
+});
@@ -0,0 +1,50 @@
+// Tailwind CDN theme configuration (shared by every page via layout.html)
+tailwind.config = {
+    darkMode: 'class',
+    theme: {
+        extend: {
+            colors: {
+                // Modern color palette inspired by Web3 platforms
+                primary: {
+                    50: '#f0f9ff',
+                    100: '#e0f2fe',
+                    200: '#bae6fd',
+                    300: '#7dd3fc',
+                    400: '#38bdf8',
+                    500: '#0ea5e9',
+                    600: '#0284c7',
+                    700: '#0369a1',
+                    800: '#075985',
+                    900: '#0c4a6e',
+                },
+                // Charcoal and grey palette for modern UI
+                charcoal: {
+                    50: '#f8f9fa',
+                    100: '#f1f3f4',
+                    200: '#e8eaed',
+                    300: '#dadce0',
+                    400: '#bdc1c6',
+                    500: '#9aa0a6',
+                    600: '#80868b',
+                    700: '#5f6368',
+                    800: '#3c4043',
+                    900: '#202124',
+                },
+                // Soothing text colors
+                text: {
+                    primary: '#2d2d2d',
+                    secondary: '#6c757d',
+                    muted: '#8b949e',
+                    light: '#e6e6e6',
+                },
+                // Background colors
+                bg: {
+                    primary: '#f8f9fa',
+                    secondary: '#ffffff',
+                    dark: '#1a1a1a',
+                    darkSecondary: '#2d2d2d',
+                }
+            }
+        }
+    }
+}
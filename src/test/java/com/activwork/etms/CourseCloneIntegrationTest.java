@@ -0,0 +1,214 @@
+package com.activwork.etms;
+
+import com.activwork.etms.dto.CourseCloneJobDto;
+import com.activwork.etms.model.*;
+import com.activwork.etms.repository.*;
+import com.activwork.etms.service.CourseCloneService;
+import com.activwork.etms.service.CourseService;
+import com.activwork.etms.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for server-side course copies (needs the database with
+ * database/19_add_bulk_course_copy.sql applied).
+ *
+ * <p>Copies a course with a material chunk size of 3, so the materials are copied
+ * over several chunks. Verifies that:
+ * <ul>
+ *   <li>Every copied material points at the copy of its source section (or none)</li>
+ *   <li>Section durations are carried over while the section triggers are suppressed</li>
+ *   <li>The copy is only activated once complete</li>
+ *   <li>Deleting the source keeps the files the copy still references;
+ *       deleting the copy as well removes them</li>
+ * </ul>
+ * Test data is committed (the copy runs in its own transactions) and removed afterwards.
+ */
+@SpringBootTest(properties = "course-clone.chunk-size=3")
+public class CourseCloneIntegrationTest {
+
+    private static final int SECTIONS = 3;
+    private static final int MATERIALS = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseSectionRepository sectionRepository;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private CourseCloneService courseCloneService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @MockitoSpyBean
+    private FileStorageService fileStorageService;
+
+    private User instructor;
+    private Course source;
+
+    @BeforeEach
+    void setUp() {
+        instructor = userRepository.save(newInstructor());
+        source = courseRepository.save(newCourse(instructor));
+
+        List<CourseSection> sections = new ArrayList<>();
+        for (int i = 0; i < SECTIONS; i++) {
+            CourseSection section = new CourseSection();
+            section.setCourse(source);
+            section.setTitle("Clone Test Section " + i);
+            section.setSectionOrder(i);
+            sections.add(sectionRepository.save(section));
+        }
+        for (int i = 0; i < MATERIALS; i++) {
+            // The last material has no section
+            CourseSection section = i == MATERIALS - 1 ? null : sections.get(i % SECTIONS);
+            materialRepository.save(newMaterial(source, section, i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM etms.courses WHERE instructor_id = ?", instructor.getId());
+        jdbcTemplate.update("DELETE FROM etms.users WHERE id = ?", instructor.getId());
+    }
+
+    @Test
+    void testCopyMapsMaterialsToCopiedSectionsAcrossChunks() throws Exception {
+        CourseCloneJobDto job = copySource();
+
+        assertEquals(CourseCloneJobDto.Status.COMPLETED, job.getStatus(), job.getError());
+        assertEquals(SECTIONS, job.getCopiedSections());
+        assertEquals(MATERIALS, job.getCopiedMaterials());
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT is_active FROM etms.courses WHERE id = ?", Boolean.class, job.getCourseId()));
+        assertEquals("DRAFT", jdbcTemplate.queryForObject(
+                "SELECT status FROM etms.courses WHERE id = ?", String.class, job.getCourseId()));
+
+        // original filename -> section title, per course
+        Map<String, String> sourceSections = materialSections(source.getId());
+        Map<String, String> copiedSections = materialSections(job.getCourseId());
+        assertEquals(sourceSections, copiedSections);
+
+        // Copied materials only point at sections of the copy
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM etms.materials m JOIN etms.course_sections s ON s.id = m.section_id " +
+                        "WHERE m.course_id = ? AND s.course_id <> m.course_id", Integer.class, job.getCourseId()));
+
+        // Durations carried over from the source sections
+        assertEquals(sectionDurations(source.getId()), sectionDurations(job.getCourseId()));
+    }
+
+    @Test
+    void testDeletingSourceKeepsFilesTheCopyReferences() throws Exception {
+        CourseCloneJobDto job = copySource();
+        assertEquals(CourseCloneJobDto.Status.COMPLETED, job.getStatus(), job.getError());
+        List<String> filenames = materialRepository.findFilenamesByCourseId(source.getId());
+        assertEquals(MATERIALS, filenames.size());
+
+        courseService.deleteCourse(source.getId(), instructor.getId());
+        // File cleanup runs in the background; give it time to (wrongly) delete
+        verify(fileStorageService, after(2000).never()).deleteFile(anyString(), eq("material"));
+
+        courseService.deleteCourse(job.getCourseId(), instructor.getId());
+        for (String filename : filenames) {
+            verify(fileStorageService, timeout(5000)).deleteFile(filename, "material");
+        }
+    }
+
+    private CourseCloneJobDto copySource() throws InterruptedException {
+        CourseCloneJobDto job = courseCloneService.startClone(source.getId(), instructor.getId(), null);
+        assertEquals(source.getTitle() + " (Copy)", job.getTitle());
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            job = courseCloneService.getJob(job.getJobId(), instructor.getId());
+            if (job.getStatus() == CourseCloneJobDto.Status.COMPLETED
+                    || job.getStatus() == CourseCloneJobDto.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        fail("Course copy did not finish: " + job);
+        return job;
+    }
+
+    private Map<String, String> materialSections(UUID courseId) {
+        Map<String, String> sections = new HashMap<>();
+        jdbcTemplate.query("SELECT m.original_filename, s.title FROM etms.materials m " +
+                        "LEFT JOIN etms.course_sections s ON s.id = m.section_id WHERE m.course_id = ?",
+                rs -> {
+                    sections.put(rs.getString(1), rs.getString(2));
+                }, courseId);
+        return sections;
+    }
+
+    private Map<String, Integer> sectionDurations(UUID courseId) {
+        Map<String, Integer> durations = new HashMap<>();
+        jdbcTemplate.query("SELECT title, duration_minutes FROM etms.course_sections WHERE course_id = ?",
+                rs -> {
+                    durations.put(rs.getString(1), rs.getInt(2));
+                }, courseId);
+        return durations;
+    }
+
+    private static User newInstructor() {
+        User user = new User();
+        user.setName("Clone Test Instructor");
+        user.setEmail("clone-" + UUID.randomUUID() + "@test.etms");
+        user.setPasswordHash("{noop}not-a-real-password");
+        user.setRole(UserRole.INSTRUCTOR);
+        return user;
+    }
+
+    private static Course newCourse(User instructor) {
+        Course course = new Course();
+        course.setTitle("Course Clone Test Course");
+        course.setInstructor(instructor);
+        course.setCategory(CourseCategory.PROGRAMMING);
+        course.setDurationHours(1);
+        course.setStatus(CourseStatus.PUBLISHED);
+        return course;
+    }
+
+    private static Material newMaterial(Course course, CourseSection section, int index) {
+        Material material = new Material();
+        material.setCourse(course);
+        material.setSection(section);
+        material.setFilename(UUID.randomUUID() + ".mp4");
+        material.setOriginalFilename("clone-material-" + index + ".mp4");
+        material.setMimeType("video/mp4");
+        material.setMaterialType(MaterialType.VIDEO);
+        material.setPath("/uploads/materials/" + material.getFilename());
+        material.setFileSize(1024L);
+        material.setDurationSeconds(60 * (index + 1));
+        material.setDisplayOrder(index);
+        material.setMaterialOrder(index);
+        return material;
+    }
+}
@@ -0,0 +1,200 @@
+package com.activwork.etms;
+
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.model.*;
+import com.activwork.etms.repository.*;
+import com.activwork.etms.service.CacheInvalidationBus;
+import com.activwork.etms.service.CourseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for the chunked course deletion (needs the database with
+ * database/20_add_bulk_course_delete.sql applied).
+ *
+ * <p>Deletes with a chunk size of 2, so every child table goes in several chunks.
+ * Verifies that:
+ * <ul>
+ *   <li>The course and all its sections, materials and enrollments are deleted</li>
+ *   <li>Learners' cached enrollments are invalidated</li>
+ *   <li>A deletion failing after some enrollment chunks committed still invalidates them,
+ *       leaves the course hidden, and can be run again</li>
+ * </ul>
+ * Test data is committed (every chunk is its own transaction) and removed afterwards.
+ */
+@SpringBootTest(properties = "course-deletion.chunk-size=2")
+public class CourseDeletionIntegrationTest {
+
+    private static final int LEARNERS = 5;
+    private static final int SECTIONS = 3;
+    private static final int MATERIALS = 7;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseSectionRepository sectionRepository;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CourseService courseService;
+
+    @MockitoSpyBean
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private final List<UUID> userIds = new ArrayList<>();
+    private User instructor;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        instructor = saveUser(UserRole.INSTRUCTOR);
+        course = courseRepository.save(newCourse(instructor));
+
+        List<CourseSection> sections = new ArrayList<>();
+        for (int i = 0; i < SECTIONS; i++) {
+            CourseSection section = new CourseSection();
+            section.setCourse(course);
+            section.setTitle("Deletion Test Section " + i);
+            section.setSectionOrder(i);
+            sections.add(sectionRepository.save(section));
+        }
+        for (int i = 0; i < MATERIALS; i++) {
+            materialRepository.save(newMaterial(course, sections.get(i % SECTIONS), i));
+        }
+        for (int i = 0; i < LEARNERS; i++) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setLearner(saveUser(UserRole.LEARNER));
+            enrollment.setCourse(course);
+            enrollmentRepository.save(enrollment);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM etms.courses WHERE id = ?", course.getId());
+        for (UUID userId : userIds) {
+            jdbcTemplate.update("DELETE FROM etms.users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void testDeletesCourseAndChildrenInChunks() {
+        courseService.deleteCourse(course.getId(), instructor.getId());
+
+        assertEquals(0, count("courses", "id"));
+        assertEquals(0, count("course_sections", "course_id"));
+        assertEquals(0, count("materials", "course_id"));
+        assertEquals(0, count("enrollments", "course_id"));
+        verify(cacheInvalidationBus).publish(Region.ENROLLMENT, null);
+    }
+
+    @Test
+    void testFailureAfterEnrollmentChunkStillInvalidatesEnrollments() {
+        // Fail the deletion right after the first enrollment chunk commits
+        AtomicBoolean failed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Object result = invocation.callRealMethod();
+            int enrollments = count("enrollments", "course_id");
+            if (enrollments > 0 && enrollments < LEARNERS && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            return result;
+        }).when(transactionTemplate).execute(any(TransactionCallback.class));
+
+        assertThrows(IllegalStateException.class,
+                () -> courseService.deleteCourse(course.getId(), instructor.getId()));
+
+        verify(cacheInvalidationBus).publish(Region.ENROLLMENT, null);
+        assertEquals(LEARNERS - 2, count("enrollments", "course_id"));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT is_active FROM etms.courses WHERE id = ?", Boolean.class, course.getId()));
+
+        // Deleting again finishes the job
+        courseService.deleteCourse(course.getId(), instructor.getId());
+        assertEquals(0, count("courses", "id"));
+        assertEquals(0, count("enrollments", "course_id"));
+    }
+
+    @Test
+    void testOnlyOwnerCanDelete() {
+        User other = saveUser(UserRole.INSTRUCTOR);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> courseService.deleteCourse(course.getId(), other.getId()));
+
+        assertEquals(1, count("courses", "id"));
+        assertEquals(LEARNERS, count("enrollments", "course_id"));
+        verify(cacheInvalidationBus, never()).publish(Region.ENROLLMENT, null);
+    }
+
+    private int count(String table, String column) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM etms." + table + " WHERE " + column + " = ?", Integer.class, course.getId());
+    }
+
+    private User saveUser(UserRole role) {
+        User user = new User();
+        user.setName("Deletion Test " + role);
+        user.setEmail("delete-" + UUID.randomUUID() + "@test.etms");
+        user.setPasswordHash("{noop}not-a-real-password");
+        user.setRole(role);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return user;
+    }
+
+    private static Course newCourse(User instructor) {
+        Course course = new Course();
+        course.setTitle("Course Deletion Test Course");
+        course.setInstructor(instructor);
+        course.setCategory(CourseCategory.PROGRAMMING);
+        course.setDurationHours(1);
+        course.setStatus(CourseStatus.PUBLISHED);
+        return course;
+    }
+
+    private static Material newMaterial(Course course, CourseSection section, int index) {
+        Material material = new Material();
+        material.setCourse(course);
+        material.setSection(section);
+        material.setFilename(UUID.randomUUID() + ".pdf");
+        material.setOriginalFilename("deletion-material-" + index + ".pdf");
+        material.setMimeType("application/pdf");
+        material.setMaterialType(MaterialType.PDF);
+        material.setPath("/uploads/materials/" + material.getFilename());
+        material.setFileSize(1024L);
+        material.setDisplayOrder(index);
+        return material;
+    }
+}
@@ -0,0 +1,142 @@
+package com.activwork.etms;
+
+import com.activwork.etms.config.CacheInvalidationProperties;
+import com.activwork.etms.config.EnrollmentIndexProperties;
+import com.activwork.etms.dto.CacheInvalidationEventDto;
+import com.activwork.etms.dto.CacheInvalidationEventDto.Region;
+import com.activwork.etms.repository.EnrollmentRepository;
+import com.activwork.etms.repository.EnrollmentRepository.EnrollmentKeyView;
+import com.activwork.etms.service.CacheKeyVersions;
+import com.activwork.etms.service.EnrollmentIndex;
+import com.activwork.etms.service.LocalCacheInvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the in-memory enrollment index.
+ *
+ * <p>Uses a stand-in repository (no database needed) and verifies that:
+ * <ul>
+ *   <li>A loaded learner is answered from memory</li>
+ *   <li>A cancellation that overlaps a load never leaves the enrollment authorized,
+ *       whether it lands while the load queries or between its version check and install</li>
+ * </ul>
+ */
+public class EnrollmentIndexTest {
+
+    private final UUID learnerId = UUID.randomUUID();
+    private final UUID courseId = UUID.randomUUID();
+    private final UUID enrollmentId = UUID.randomUUID();
+
+    // The committed database state
+    private final AtomicBoolean enrolled = new AtomicBoolean(true);
+
+    private EnrollmentRepository enrollmentRepository;
+    private CacheKeyVersions cacheKeyVersions;
+    private EnrollmentIndex enrollmentIndex;
+
+    @BeforeEach
+    void setUp() {
+        enrollmentRepository = mock(EnrollmentRepository.class);
+        when(enrollmentRepository.findEnrollmentKeysByLearnerId(learnerId))
+                .thenAnswer(invocation -> enrolled.get() ? List.of(keyView(courseId, enrollmentId)) : List.of());
+        when(enrollmentRepository.findIdByLearnerIdAndCourseId(learnerId, courseId))
+                .thenAnswer(invocation -> enrolled.get() ? Optional.of(enrollmentId) : Optional.empty());
+
+        // Events go to the index, as the application context would deliver them
+        AtomicReference<EnrollmentIndex> listener = new AtomicReference<>();
+        cacheKeyVersions = spy(new CacheKeyVersions(
+                event -> listener.get().onCacheInvalidation((CacheInvalidationEventDto) event),
+                new CacheInvalidationProperties()));
+        enrollmentIndex = new EnrollmentIndex(enrollmentRepository, cacheKeyVersions,
+                new LocalCacheInvalidationBus(cacheKeyVersions), new EnrollmentIndexProperties());
+        listener.set(enrollmentIndex);
+    }
+
+    @Test
+    void testLoadedLearnerIsAnsweredFromMemory() {
+        assertEquals(Optional.of(enrollmentId), enrollmentIndex.findEnrollmentId(learnerId, courseId));
+        assertEquals(Optional.of(enrollmentId), enrollmentIndex.findEnrollmentId(learnerId, courseId));
+
+        verify(enrollmentRepository, times(1)).findEnrollmentKeysByLearnerId(learnerId);
+        verify(enrollmentRepository, never()).findIdByLearnerIdAndCourseId(any(), any());
+    }
+
+    @Test
+    void testCancellationDuringLoadQueryIsNotRolledBack() {
+        // The load reads "enrolled", then the cancellation commits before it installs
+        when(enrollmentRepository.findEnrollmentKeysByLearnerId(learnerId)).thenAnswer(invocation -> {
+            List<EnrollmentKeyView> rows = enrolled.get() ? List.of(keyView(courseId, enrollmentId)) : List.of();
+            cancel();
+            return rows;
+        });
+
+        enrollmentIndex.findEnrollmentId(learnerId, courseId);
+
+        assertEquals(Optional.empty(), enrollmentIndex.findEnrollmentId(learnerId, courseId));
+    }
+
+    @Test
+    void testCancellationBetweenVersionCheckAndInstallIsNotRolledBack() throws Exception {
+        // Run the whole cancellation on another thread right after the load's version
+        // re-check. If the install is atomic with the check, the cancellation's in-place
+        // update waits for it (hence the bounded wait) and then removes the course.
+        Thread loader = Thread.currentThread();
+        AtomicInteger loaderChecks = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicReference<Thread> canceller = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Object version = invocation.callRealMethod();
+            if (Thread.currentThread() == loader && loaderChecks.incrementAndGet() == 2) {
+                Thread thread = new Thread(() -> {
+                    cancel();
+                    cancelled.countDown();
+                });
+                canceller.set(thread);
+                thread.start();
+                cancelled.await(300, TimeUnit.MILLISECONDS);
+            }
+            return version;
+        }).when(cacheKeyVersions).current(eq(Region.ENROLLMENT), eq(learnerId));
+
+        enrollmentIndex.findEnrollmentId(learnerId, courseId);
+        canceller.get().join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(canceller.get().isAlive());
+
+        assertEquals(Optional.empty(), enrollmentIndex.findEnrollmentId(learnerId, courseId));
+    }
+
+    // What EnrollmentService.cancelEnrollment does: commit, then update the index
+    private void cancel() {
+        enrolled.set(false);
+        enrollmentIndex.cancelledAfterCommit(learnerId, courseId);
+    }
+
+    private static EnrollmentKeyView keyView(UUID courseId, UUID enrollmentId) {
+        return new EnrollmentKeyView() {
+            @Override
+            public UUID getCourseId() {
+                return courseId;
+            }
+
+            @Override
+            public UUID getEnrollmentId() {
+                return enrollmentId;
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package com.activwork.etms;
+
+import com.activwork.etms.model.*;
+import com.activwork.etms.repository.*;
+import com.activwork.etms.service.EnrollmentVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for enrollment version stamps (ETags).
+ *
+ * <p>Verifies that:
+ * <ul>
+ *   <li>Course counters (views, enrollments, ratings) leave the ETags unchanged</li>
+ *   <li>A change to the course's shown content or its sections changes them</li>
+ *   <li>Only the owning learner gets a stamp</li>
+ * </ul>
+ * Test data is committed and removed afterwards.
+ */
+@SpringBootTest
+public class EnrollmentVersionIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseSectionRepository sectionRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentVersionService enrollmentVersionService;
+
+    private final List<UUID> userIds = new ArrayList<>();
+    private Course course;
+    private User learner;
+    private Enrollment enrollment;
+
+    @BeforeEach
+    void setUp() {
+        course = new Course();
+        course.setTitle("Enrollment Version Test Course");
+        course.setInstructor(saveUser(UserRole.INSTRUCTOR));
+        course.setCategory(CourseCategory.PROGRAMMING);
+        course.setDurationHours(1);
+        course.setStatus(CourseStatus.PUBLISHED);
+        course = courseRepository.save(course);
+
+        learner = saveUser(UserRole.LEARNER);
+        enrollment = new Enrollment();
+        enrollment.setLearner(learner);
+        enrollment.setCourse(course);
+        enrollment = enrollmentRepository.save(enrollment);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM etms.courses WHERE id = ?", course.getId());
+        for (UUID userId : userIds) {
+            jdbcTemplate.update("DELETE FROM etms.users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void testCourseCountersKeepETags() {
+        String details = detailsETag();
+        String progress = progressETag();
+
+        jdbcTemplate.update("UPDATE etms.courses SET view_count = view_count + 1, " +
+                "enrollment_count = enrollment_count + 1, total_ratings = total_ratings + 1 WHERE id = ?",
+                course.getId());
+
+        assertEquals(details, detailsETag());
+        assertEquals(progress, progressETag());
+    }
+
+    @Test
+    void testCourseContentChangesETags() {
+        String details = detailsETag();
+        String progress = progressETag();
+
+        jdbcTemplate.update("UPDATE etms.courses SET title = ? WHERE id = ?",
+                "Enrollment Version Test Course (renamed)", course.getId());
+
+        assertNotEquals(details, detailsETag());
+        assertNotEquals(progress, progressETag());
+    }
+
+    @Test
+    void testSectionChangesDetailsETag() {
+        String details = detailsETag();
+
+        CourseSection section = new CourseSection();
+        section.setCourse(course);
+        section.setTitle("Enrollment Version Test Section");
+        section.setSectionOrder(0);
+        section = sectionRepository.save(section);
+        String added = detailsETag();
+        assertNotEquals(details, added);
+
+        jdbcTemplate.update("UPDATE etms.course_sections SET title = ? WHERE id = ?",
+                "Enrollment Version Test Section (renamed)", section.getId());
+        assertNotEquals(added, detailsETag());
+    }
+
+    @Test
+    void testOnlyOwnerGetsVersion() {
+        assertTrue(enrollmentVersionService.getVersion(enrollment.getId(), learner.getEmail()).isPresent());
+        assertTrue(enrollmentVersionService.getVersion(enrollment.getId(), "someone-else@test.etms").isEmpty());
+        assertTrue(enrollmentVersionService.getVersion(UUID.randomUUID(), learner.getEmail()).isEmpty());
+    }
+
+    private String detailsETag() {
+        return enrollmentVersionService.getVersion(enrollment.getId(), learner.getEmail())
+                .orElseThrow().detailsETag("viewer");
+    }
+
+    private String progressETag() {
+        return enrollmentVersionService.getVersion(enrollment.getId(), learner.getEmail())
+                .orElseThrow().progressETag();
+    }
+
+    private User saveUser(UserRole role) {
+        User user = new User();
+        user.setName("Version Test " + role);
+        user.setEmail("version-" + UUID.randomUUID() + "@test.etms");
+        user.setPasswordHash("{noop}not-a-real-password");
+        user.setRole(role);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return user;
+    }
+}
@@ -0,0 +1,141 @@
+package com.activwork.etms;
+
+import com.activwork.etms.config.FileStorageProperties;
+import com.activwork.etms.exception.FileStorageException;
+import com.activwork.etms.service.BlobStore;
+import com.activwork.etms.service.FileStorageService;
+import com.activwork.etms.service.HotFileCache;
+import com.activwork.etms.util.BannerVariants;
+import com.activwork.etms.util.StorageLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for FileStorageService key resolution against a stand-in blob store.
+ *
+ * <p>Verifies that:
+ * <ul>
+ *   <li>Sharded materials are loaded and presigned without existence checks</li>
+ *   <li>Legacy flat materials are found in either layout while the migration runs</li>
+ *   <li>Banner variants are written once, the primary variant last, with one existence check</li>
+ * </ul>
+ */
+public class FileStorageServiceTest {
+
+    private static final String FLAT = "0b7c6f4e-1f7a-4a51-9d0e-6a3c2f1d5e8b.pdf";
+    private static final String SHARDED = StorageLayout.shard(FLAT);
+
+    private BlobStore blobStore;
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = mock(BlobStore.class);
+        when(blobStore.presignedGetUrl(anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(URI.create("https://store.test/" + invocation.getArgument(0))));
+        fileStorageService = new FileStorageService(new FileStorageProperties(), blobStore, mock(HotFileCache.class));
+    }
+
+    @Test
+    void testShardedMaterialIsLoadedWithoutExistenceCheck() {
+        Resource stored = resource(true);
+        when(blobStore.get("materials/" + SHARDED)).thenReturn(stored);
+
+        assertSame(stored, fileStorageService.loadFileAsResource(SHARDED, "material"));
+        verify(blobStore, never()).exists(anyString());
+        verify(blobStore, times(1)).get(anyString());
+    }
+
+    @Test
+    void testShardedMaterialIsPresignedWithoutExistenceCheck() {
+        assertEquals(URI.create("https://store.test/materials/" + SHARDED),
+                fileStorageService.getPresignedMaterialUrl(SHARDED, "application/pdf", null).orElseThrow());
+        verify(blobStore, never()).exists(anyString());
+    }
+
+    @Test
+    void testLegacyFlatMaterialIsLoadedFromEitherLayout() {
+        // Not migrated yet
+        Resource flat = resource(true);
+        when(blobStore.get("materials/" + FLAT)).thenReturn(flat);
+        assertSame(flat, fileStorageService.loadFileAsResource(FLAT, "material"));
+
+        // Moved, row not re-pointed yet
+        Resource gone = resource(false);
+        Resource moved = resource(true);
+        when(blobStore.get("materials/" + FLAT)).thenReturn(gone);
+        when(blobStore.get("materials/" + SHARDED)).thenReturn(moved);
+        assertSame(moved, fileStorageService.loadFileAsResource(FLAT, "material"));
+    }
+
+    @Test
+    void testLegacyFlatMaterialIsPresignedInItsCurrentLayout() {
+        when(blobStore.exists("materials/" + FLAT)).thenReturn(true);
+        assertEquals(URI.create("https://store.test/materials/" + FLAT),
+                fileStorageService.getPresignedMaterialUrl(FLAT, null, null).orElseThrow());
+
+        when(blobStore.exists("materials/" + FLAT)).thenReturn(false);
+        assertEquals(URI.create("https://store.test/materials/" + SHARDED),
+                fileStorageService.getPresignedMaterialUrl(FLAT, null, null).orElseThrow());
+    }
+
+    @Test
+    void testMissingMaterialIsReported() {
+        Resource missing = resource(false);
+        when(blobStore.get(anyString())).thenReturn(missing);
+
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadFileAsResource(SHARDED, "material"));
+        assertThrows(FileStorageException.class, () -> fileStorageService.loadFileAsResource(FLAT, "material"));
+    }
+
+    @Test
+    void testBannerVariantsAreWrittenPrimaryLast() throws Exception {
+        MockMultipartFile upload = new MockMultipartFile("banner", "banner.png", "image/png", png(1600, 900));
+
+        String stored = fileStorageService.storeBanner(upload);
+
+        assertTrue(stored.endsWith("-" + BannerVariants.WIDTHS[BannerVariants.WIDTHS.length - 1] + ".jpg"));
+        verify(blobStore, times(1)).exists(anyString());
+        InOrder inOrder = inOrder(blobStore);
+        for (int width : BannerVariants.WIDTHS) {
+            inOrder.verify(blobStore).put(endsWith("-" + width + ".jpg"), any(), anyLong(), eq("image/jpeg"));
+        }
+        verify(blobStore, times(BannerVariants.WIDTHS.length)).put(anyString(), any(), anyLong(), anyString());
+    }
+
+    @Test
+    void testStoredBannerIsNotRewritten() throws Exception {
+        when(blobStore.exists(startsWith("banners/"))).thenReturn(true);
+        MockMultipartFile upload = new MockMultipartFile("banner", "banner.png", "image/png", png(1600, 900));
+
+        fileStorageService.storeBanner(upload);
+
+        verify(blobStore, times(1)).exists(anyString());
+        verify(blobStore, never()).put(anyString(), any(), anyLong(), any());
+    }
+
+    private static Resource resource(boolean exists) {
+        Resource resource = mock(Resource.class);
+        when(resource.exists()).thenReturn(exists);
+        return resource;
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,90 @@
+package com.activwork.etms;
+
+import com.activwork.etms.util.BannerVariants;
+import com.activwork.etms.util.ImageResizer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for banner variant generation.
+ *
+ * <p>Verifies that:
+ * <ul>
+ *   <li>Every variant has its width and the source's aspect ratio, and is never upscaled</li>
+ *   <li>Variants come back in the order the widths were asked for</li>
+ *   <li>Transparent areas become white in the opaque RGB result</li>
+ *   <li>Oversized images are refused from their header; unknown formats decode to null</li>
+ * </ul>
+ */
+public class ImageResizerTest {
+
+    @Test
+    void testVariantsKeepAspectRatio() {
+        BufferedImage source = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage[] variants = ImageResizer.scaleToWidths(source, BannerVariants.WIDTHS);
+
+        assertEquals(BannerVariants.WIDTHS.length, variants.length);
+        for (int i = 0; i < variants.length; i++) {
+            int width = BannerVariants.WIDTHS[i];
+            assertEquals(width, variants[i].getWidth());
+            assertEquals(Math.round(900.0 * width / 1600), variants[i].getHeight());
+            assertEquals(BufferedImage.TYPE_INT_RGB, variants[i].getType());
+        }
+    }
+
+    @Test
+    void testVariantsFollowRequestedOrderAndNeverUpscale() {
+        BufferedImage source = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage[] variants = ImageResizer.scaleToWidths(source, 1280, 320, 640);
+
+        assertEquals(800, variants[0].getWidth());
+        assertEquals(400, variants[0].getHeight());
+        assertEquals(320, variants[1].getWidth());
+        assertEquals(640, variants[2].getWidth());
+    }
+
+    @Test
+    void testTransparencyBecomesWhite() {
+        BufferedImage source = new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB);
+
+        for (BufferedImage variant : ImageResizer.scaleToWidths(source, BannerVariants.WIDTHS)) {
+            assertEquals(BufferedImage.TYPE_INT_RGB, variant.getType());
+            assertEquals(Color.WHITE.getRGB(), variant.getRGB(variant.getWidth() / 2, variant.getHeight() / 2));
+        }
+    }
+
+    @Test
+    void testDecodeChecksPixelLimit() throws Exception {
+        byte[] png = png(300, 200);
+
+        BufferedImage decoded = ImageResizer.decode(png, 300 * 200);
+        assertEquals(300, decoded.getWidth());
+        assertEquals(200, decoded.getHeight());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ImageResizer.decode(png, 300 * 200 - 1));
+        assertTrue(ex.getMessage().contains("300x200"));
+    }
+
+    @Test
+    void testUnknownFormatDecodesToNull() throws Exception {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8);
+
+        assertNull(ImageResizer.decode(svg, Long.MAX_VALUE));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
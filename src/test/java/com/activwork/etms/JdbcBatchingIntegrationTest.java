@@ -0,0 +1,182 @@
+package com.activwork.etms;
+
+import com.activwork.etms.dto.EnrollmentRequestDto;
+import com.activwork.etms.dto.MaterialProgressUpdateDto;
+import com.activwork.etms.model.*;
+import com.activwork.etms.repository.*;
+import com.activwork.etms.service.CourseSectionService;
+import com.activwork.etms.service.EnrollmentService;
+import com.activwork.etms.service.MaterialService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests proving the bulk write paths emit batched JDBC statements
+ * under the production profile.
+ *
+ * <p>Each test builds its own data, runs one bulk operation and flushes it with
+ * Hibernate statistics reset just before the flush. Without batching, Hibernate
+ * prepares one statement per row; with batching, one statement per table and batch.
+ * <ul>
+ *   <li>Section reorder: N course_sections UPDATEs</li>
+ *   <li>Enrollment cancel: N material_progress DELETEs plus the enrollment</li>
+ * </ul>
+ * All changes are rolled back after each test.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("prod")
+@Transactional
+public class JdbcBatchingIntegrationTest {
+
+    private static final int MATERIALS = 12;
+    private static final int SECTIONS = 12;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private CourseSectionRepository sectionRepository;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private MaterialService materialService;
+
+    @Autowired
+    private CourseSectionService courseSectionService;
+
+    private Statistics statistics;
+    private Course course;
+    private List<Material> materials;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled(), "Hibernate statistics should be enabled");
+
+        course = courseRepository.save(newCourse(userRepository.save(newUser(UserRole.INSTRUCTOR))));
+        materials = new ArrayList<>();
+        for (int i = 0; i < MATERIALS; i++) {
+            materials.add(newMaterial(course, i));
+        }
+        materials = materialRepository.saveAll(materials);
+        entityManager.flush();
+    }
+
+    @Test
+    void testSectionReorderUpdatesInOneBatch() {
+        List<UUID> sectionIds = new ArrayList<>();
+        for (int i = 0; i < SECTIONS; i++) {
+            CourseSection section = new CourseSection();
+            section.setCourse(course);
+            section.setTitle("Section " + i);
+            section.setSectionOrder(i);
+            sectionIds.add(sectionRepository.save(section).getId());
+        }
+        entityManager.flush();
+
+        Collections.reverse(sectionIds);
+        courseSectionService.reorderSections(course.getId(), sectionIds);
+        flushWithFreshStatistics();
+
+        assertEquals(SECTIONS, statistics.getEntityUpdateCount(), "Every moved section should be updated");
+        assertEquals(1, statistics.getPrepareStatementCount(),
+                "Section UPDATEs should share one batched statement");
+    }
+
+    @Test
+    void testEnrollmentCancelDeletesInBatches() {
+        User learner = userRepository.save(newUser(UserRole.LEARNER));
+        entityManager.flush();
+        UUID enrollmentId = enrollmentService.enrollLearner(
+                new EnrollmentRequestDto(learner.getId(), course.getId(), null)).getId();
+
+        for (Material material : materials) {
+            materialService.updateMaterialProgress(enrollmentId, progressUpdate(material.getId(), 10.0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        enrollmentService.cancelEnrollment(enrollmentId, learner.getId());
+        flushWithFreshStatistics();
+
+        assertEquals(MATERIALS + 1, statistics.getEntityDeleteCount(),
+                "All progress rows and the enrollment should be deleted");
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected one batched DELETE per table but prepared " + statistics.getPrepareStatementCount());
+    }
+
+    private void flushWithFreshStatistics() {
+        statistics.clear();
+        entityManager.flush();
+    }
+
+    private static MaterialProgressUpdateDto progressUpdate(UUID materialId, double percent) {
+        MaterialProgressUpdateDto dto = new MaterialProgressUpdateDto();
+        dto.setMaterialId(materialId);
+        dto.setCompletionPercent(percent);
+        dto.setLastPositionSeconds(0);
+        dto.setIsCompleted(false);
+        return dto;
+    }
+
+    private static User newUser(UserRole role) {
+        User user = new User();
+        user.setName("Batch Test " + role);
+        user.setEmail("batch-" + UUID.randomUUID() + "@test.etms");
+        user.setPasswordHash("{noop}not-a-real-password");
+        user.setRole(role);
+        return user;
+    }
+
+    private static Course newCourse(User instructor) {
+        Course course = new Course();
+        course.setTitle("JDBC Batching Test Course");
+        course.setInstructor(instructor);
+        course.setCategory(CourseCategory.PROGRAMMING);
+        course.setDurationHours(1);
+        course.setStatus(CourseStatus.PUBLISHED);
+        return course;
+    }
+
+    private static Material newMaterial(Course course, int index) {
+        Material material = new Material();
+        material.setCourse(course);
+        material.setFilename(UUID.randomUUID() + ".pdf");
+        material.setOriginalFilename("material-" + index + ".pdf");
+        material.setMimeType("application/pdf");
+        material.setMaterialType(MaterialType.PDF);
+        material.setPath("/uploads/materials/" + material.getFilename());
+        material.setFileSize(1024L);
+        material.setDisplayOrder(index);
+        return material;
+    }
+}
@@ -0,0 +1,196 @@
+package com.activwork.etms;
+
+import com.activwork.etms.model.User;
+import com.activwork.etms.model.UserRole;
+import com.activwork.etms.repository.UserRepository;
+import com.activwork.etms.security.BCryptWorkFactor;
+import com.activwork.etms.security.BoundedLoginAuthenticationProvider;
+import com.activwork.etms.security.CustomUserDetailsService;
+import com.activwork.etms.security.LoginThrottledException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for sign-in throughput protection and BCrypt strength handling.
+ *
+ * <p>No database needed. Verifies that:
+ * <ul>
+ *   <li>Sign-ins beyond the login threads and queue are turned away, not run</li>
+ *   <li>A stored hash weaker than the current strength is re-hashed on sign-in and
+ *       saved through CustomUserDetailsService</li>
+ *   <li>Calibration stays within its bounds</li>
+ * </ul>
+ *
+ * <p>The logins/sec benchmark only runs with {@code mvn test -Dtest=LoginThroughputTest -Dbenchmark=true}.
+ */
+@Slf4j
+public class LoginThroughputTest {
+
+    private static final String PASSWORD = "Secret-Pa55word";
+
+    @Test
+    void testSignInsBeyondQueueAreTurnedAway() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AuthenticationProvider slow = mock(AuthenticationProvider.class);
+        when(slow.authenticate(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+
+        // 1 login thread + 1 queue slot: the third concurrent sign-in is rejected
+        ThreadPoolTaskExecutor loginExecutor = loginExecutor(1, 1);
+        BoundedLoginAuthenticationProvider provider = new BoundedLoginAuthenticationProvider(slow, loginExecutor, 10_000);
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            Future<Authentication> running = clients.submit(() -> provider.authenticate(token()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Authentication> queued = clients.submit(() -> provider.authenticate(token()));
+            awaitQueued(loginExecutor, queued);
+
+            assertThrows(LoginThrottledException.class, () -> provider.authenticate(token()));
+
+            release.countDown();
+            assertNotNull(running.get(5, TimeUnit.SECONDS));
+            assertNotNull(queued.get(5, TimeUnit.SECONDS));
+            verify(slow, times(2)).authenticate(any());
+        } finally {
+            release.countDown();
+            clients.shutdownNow();
+            loginExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testSignInTimesOut() {
+        AuthenticationProvider stuck = mock(AuthenticationProvider.class);
+        when(stuck.authenticate(any())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return invocation.getArgument(0);
+        });
+
+        ThreadPoolTaskExecutor loginExecutor = loginExecutor(1, 1);
+        BoundedLoginAuthenticationProvider provider = new BoundedLoginAuthenticationProvider(stuck, loginExecutor, 100);
+        try {
+            assertThrows(LoginThrottledException.class, () -> provider.authenticate(token()));
+        } finally {
+            loginExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testWeakHashIsUpgradedOnSignIn() {
+        User learner = new User();
+        learner.setEmail("learner@example.com");
+        learner.setPasswordHash(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        learner.setRole(UserRole.LEARNER);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("learner@example.com")).thenReturn(Optional.of(learner));
+        when(userRepository.updatePasswordHashByEmail(eq("learner@example.com"), anyString())).thenReturn(1);
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+
+        BCryptPasswordEncoder current = new BCryptPasswordEncoder(5);
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(current);
+        dao.setUserDetailsService(userDetailsService);
+        dao.setUserDetailsPasswordService(userDetailsService);
+
+        Authentication result = dao.authenticate(
+                new UsernamePasswordAuthenticationToken("learner@example.com", PASSWORD));
+
+        ArgumentCaptor<String> upgradedHash = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePasswordHashByEmail(eq("learner@example.com"), upgradedHash.capture());
+        assertTrue(result.isAuthenticated());
+        assertEquals(5, BCryptWorkFactor.strengthOf(upgradedHash.getValue()));
+        assertTrue(current.matches(PASSWORD, upgradedHash.getValue()));
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        // An impossible target clamps to the minimum, a huge one to the maximum
+        assertEquals(4, BCryptWorkFactor.calibrate(0, 4, 6));
+        assertEquals(6, BCryptWorkFactor.calibrate(60_000, 4, 6));
+        assertEquals(12, BCryptWorkFactor.strengthOf("$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW"));
+        assertEquals(-1, BCryptWorkFactor.strengthOf("plain-text"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkLoginsPerSecondPerCore() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int strength = Integer.getInteger("benchmark.strength",
+                BCryptWorkFactor.calibrate(250, 10, 14));
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode(PASSWORD);
+        long durationMillis = Long.getLong("benchmark.millis", 10_000L);
+
+        for (int threads : new int[]{1, cores}) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<Integer>> counts = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            for (int t = 0; t < threads; t++) {
+                counts.add(pool.submit(() -> {
+                    int logins = 0;
+                    while (System.nanoTime() < deadline) {
+                        assertTrue(encoder.matches(PASSWORD, hash));
+                        logins++;
+                    }
+                    return logins;
+                }));
+            }
+            long total = 0;
+            for (Future<Integer> count : counts) {
+                total += count.get();
+            }
+            pool.shutdown();
+
+            double perSecond = total * 1000.0 / durationMillis;
+            log.info("BCrypt strength {}, {} thread(s) on {} cores: {} logins/sec, {} logins/sec per core",
+                    strength, threads, cores, String.format("%.1f", perSecond),
+                    String.format("%.1f", perSecond / Math.min(threads, cores)));
+        }
+    }
+
+    private static UsernamePasswordAuthenticationToken token() {
+        return new UsernamePasswordAuthenticationToken("learner@example.com", PASSWORD);
+    }
+
+    private static ThreadPoolTaskExecutor loginExecutor(int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("login-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    private static void awaitQueued(ThreadPoolTaskExecutor loginExecutor, Future<?> queued) throws InterruptedException {
+        // The second sign-in is accepted (queued) once submit() returned; give its thread a moment
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!queued.isDone() && System.nanoTime() < deadline && loginExecutor.getQueueSize() == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, loginExecutor.getQueueSize());
+    }
+}
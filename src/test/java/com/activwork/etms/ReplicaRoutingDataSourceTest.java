@@ -0,0 +1,137 @@
+package com.activwork.etms;
+
+import com.activwork.etms.config.ReplicaRoutingContext;
+import com.activwork.etms.config.ReplicaRoutingDataSource;
+import com.activwork.etms.config.ReplicaRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for read-replica routing decisions.
+ *
+ * <p>Uses stand-in DataSources (no database needed) and verifies that:
+ * <ul>
+ *   <li>Read-only transactions go to the replica</li>
+ *   <li>Read-write transactions and non-transactional work go to the primary</li>
+ *   <li>A write pins later reads on the same thread (read-your-writes)</li>
+ *   <li>Outside a request a write only pins until its transaction completes</li>
+ *   <li>A lagging or unreachable replica falls back to the primary</li>
+ * </ul>
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private final AtomicBoolean replicaAvailable = new AtomicBoolean(true);
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, replicaAvailable::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() throws Exception {
+        beginTransaction(true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testReadWriteTransactionUsesPrimary() throws Exception {
+        beginTransaction(false);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testNoTransactionUsesPrimary() throws Exception {
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testWritePinsLaterReadsToPrimary() {
+        ReplicaRoutingContext.beginRequest();
+        beginTransaction(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+        assertTrue(ReplicaRoutingContext.hasWritten(), "Read-write transaction should be recorded");
+
+        beginTransaction(true);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute(), "Read after write should stay on the primary");
+
+        ReplicaRoutingContext.clear();
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute(), "New request should read from the replica");
+    }
+
+    @Test
+    void testWriteOutsideRequestEndsWithItsTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        beginTransaction(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+        assertTrue(ReplicaRoutingContext.hasWritten());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertFalse(ReplicaRoutingContext.hasWritten(), "Pooled thread should not keep the pin");
+        beginTransaction(true);
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute(), "Next job should read from the replica");
+    }
+
+    @Test
+    void testWriteWithoutSynchronizationIsNotKeptOutsideRequest() {
+        beginTransaction(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+        assertFalse(ReplicaRoutingContext.hasWritten());
+    }
+
+    @Test
+    void testPinnedSessionReadsFromPrimary() {
+        ReplicaRoutingContext.pinToPrimary();
+        beginTransaction(true);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+        assertFalse(ReplicaRoutingContext.hasWritten(), "Pinning alone is not a write");
+    }
+
+    @Test
+    void testUnavailableReplicaFallsBackToPrimary() {
+        beginTransaction(true);
+        replicaAvailable.set(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+
+        replicaAvailable.set(true);
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute());
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -0,0 +1,233 @@
+package com.activwork.etms;
+
+import com.activwork.etms.config.SignedSessionProperties;
+import com.activwork.etms.model.UserRole;
+import com.activwork.etms.security.SessionVersionCache;
+import com.activwork.etms.security.SessionVersionCache.UserSession;
+import com.activwork.etms.security.SignedSessionAuthenticationFilter;
+import com.activwork.etms.security.SignedSessionCodec;
+import com.activwork.etms.security.SignedSessionCodec.Claims;
+import com.activwork.etms.security.SignedSessionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for stateless signed-cookie sessions.
+ *
+ * <p>Uses a stand-in session version cache (no database needed) and verifies that:
+ * <ul>
+ *   <li>Cookies round-trip through the codec; tampered, truncated or garbled ones do not decode</li>
+ *   <li>Expired cookies, cookies of a replaced session (version bump), of an inactive user
+ *       or with a changed role are refused and cleared</li>
+ *   <li>The authentication filter restores the signed-in user from a valid cookie</li>
+ * </ul>
+ */
+public class SignedSessionTest {
+
+    private static final String SECRET = "signed-session-test-secret-of-at-least-32-bytes";
+    private static final String COOKIE = "ETMS_SESSION";
+    private static final String EMAIL = "learner@example.com";
+
+    private final UUID userId = UUID.randomUUID();
+    private final SignedSessionCodec codec = new SignedSessionCodec(SECRET.getBytes(StandardCharsets.UTF_8));
+    private SessionVersionCache sessionVersionCache;
+    private SignedSessionService signedSessionService;
+
+    @BeforeEach
+    void setUp() {
+        SignedSessionProperties properties = new SignedSessionProperties();
+        properties.setEnabled(true);
+        properties.setSecret(SECRET);
+        properties.setCookieName(COOKIE);
+        properties.setTtlMinutes(30);
+        sessionVersionCache = mock(SessionVersionCache.class);
+        signedSessionService = new SignedSessionService(properties, sessionVersionCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testCodecRoundTrip() {
+        Claims claims = new Claims(userId, UserRole.INSTRUCTOR, 1_900_000_000L, 42);
+
+        assertEquals(Optional.of(claims), codec.decode(codec.encode(claims)));
+    }
+
+    @Test
+    void testTamperedCookieIsRejected() {
+        String value = codec.encode(new Claims(userId, UserRole.LEARNER, 1_900_000_000L, 1));
+        int separator = value.indexOf('.');
+
+        // Flipped signature character
+        assertTrue(codec.decode(flip(value, value.length() - 2)).isEmpty());
+        // Flipped payload character (e.g. an attempt to change the role or expiry)
+        assertTrue(codec.decode(flip(value, separator - 2)).isEmpty());
+        // Signed with another key
+        SignedSessionCodec other = new SignedSessionCodec("another-secret-that-is-at-least-32-bytes".getBytes(StandardCharsets.UTF_8));
+        assertTrue(codec.decode(other.encode(new Claims(userId, UserRole.LEARNER, 1_900_000_000L, 1))).isEmpty());
+    }
+
+    @Test
+    void testTruncatedOrGarbledCookieIsRejected() {
+        String value = codec.encode(new Claims(userId, UserRole.LEARNER, 1_900_000_000L, 1));
+        int separator = value.indexOf('.');
+
+        assertTrue(codec.decode(null).isEmpty());
+        assertTrue(codec.decode("").isEmpty());
+        assertTrue(codec.decode(value.substring(0, separator)).isEmpty());
+        assertTrue(codec.decode(value.substring(0, separator + 1)).isEmpty());
+        assertTrue(codec.decode(value.substring(0, value.length() - 4)).isEmpty());
+        assertTrue(codec.decode(value.substring(4)).isEmpty());
+        assertTrue(codec.decode("not base64!." + value.substring(separator + 1)).isEmpty());
+        assertTrue(codec.decode("....").isEmpty());
+
+        // Well formed, but not a session payload
+        byte[] shortPayload = new byte[8];
+        String encodedShort = Base64.getUrlEncoder().withoutPadding().encodeToString(shortPayload);
+        assertTrue(codec.decode(encodedShort + "." + encodedShort).isEmpty());
+    }
+
+    @Test
+    void testShortSecretIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new SignedSessionCodec(new byte[16]));
+    }
+
+    @Test
+    void testValidCookieAuthenticates() {
+        stubSession(UserRole.LEARNER, true, 3);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Authentication authentication = signedSessionService.authenticate(
+                request(new Claims(userId, UserRole.LEARNER, inMinutes(25), 3)), response);
+
+        assertNotNull(authentication);
+        assertEquals(EMAIL, authentication.getName());
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("LEARNER")));
+        // More than half of the lifetime left: not re-issued
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void testCookiePastHalfLifeIsReissued() {
+        stubSession(UserRole.LEARNER, true, 3);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNotNull(signedSessionService.authenticate(
+                request(new Claims(userId, UserRole.LEARNER, inMinutes(5), 3)), response));
+
+        String reissued = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(reissued);
+        Claims claims = codec.decode(cookieValue(reissued)).orElseThrow();
+        assertTrue(claims.expiresAtEpochSecond() > inMinutes(25));
+        assertEquals(3, claims.sessionVersion());
+    }
+
+    @Test
+    void testExpiredCookieIsRefused() {
+        stubSession(UserRole.LEARNER, true, 3);
+        assertRefused(new Claims(userId, UserRole.LEARNER, inMinutes(-1), 3));
+    }
+
+    @Test
+    void testSessionVersionBumpRevokesCookie() {
+        // Signed in again elsewhere (or logged out): the user's version moved on
+        stubSession(UserRole.LEARNER, true, 4);
+        assertRefused(new Claims(userId, UserRole.LEARNER, inMinutes(25), 3));
+    }
+
+    @Test
+    void testRoleMismatchIsRefused() {
+        stubSession(UserRole.LEARNER, true, 3);
+        assertRefused(new Claims(userId, UserRole.INSTRUCTOR, inMinutes(25), 3));
+    }
+
+    @Test
+    void testInactiveOrDeletedUserIsRefused() {
+        stubSession(UserRole.LEARNER, false, 3);
+        assertRefused(new Claims(userId, UserRole.LEARNER, inMinutes(25), 3));
+
+        when(sessionVersionCache.get(userId)).thenReturn(Optional.empty());
+        assertRefused(new Claims(userId, UserRole.LEARNER, inMinutes(25), 3));
+    }
+
+    @Test
+    void testLogoutEndsOnlyTheCookiesSession() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        signedSessionService.endSession(request(new Claims(userId, UserRole.LEARNER, inMinutes(25), 3)), response);
+
+        verify(sessionVersionCache).endSession(userId, 3);
+        assertEquals("", cookieValue(response.getHeader(HttpHeaders.SET_COOKIE)));
+    }
+
+    @Test
+    void testFilterRestoresSignedInUser() throws Exception {
+        stubSession(UserRole.INSTRUCTOR, true, 7);
+        MockHttpServletRequest request = request(new Claims(userId, UserRole.INSTRUCTOR, inMinutes(25), 7));
+        Authentication[] seen = new Authentication[1];
+        FilterChain chain = (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication();
+
+        new SignedSessionAuthenticationFilter(signedSessionService)
+                .doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(seen[0]);
+        assertEquals(EMAIL, seen[0].getName());
+    }
+
+    private void assertRefused(Claims claims) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(signedSessionService.authenticate(request(claims), response));
+
+        // The refused cookie is cleared
+        String cleared = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(cleared);
+        assertTrue(cleared.contains("Max-Age=0"));
+    }
+
+    private void stubSession(UserRole role, boolean active, int sessionVersion) {
+        when(sessionVersionCache.get(userId))
+                .thenReturn(Optional.of(new UserSession(userId, EMAIL, role, active, sessionVersion)));
+    }
+
+    private MockHttpServletRequest request(Claims claims) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/learner/dashboard");
+        request.setCookies(new Cookie(COOKIE, codec.encode(claims)));
+        return request;
+    }
+
+    private static long inMinutes(long minutes) {
+        return Instant.now().getEpochSecond() + minutes * 60;
+    }
+
+    private static String cookieValue(String setCookie) {
+        String pair = setCookie.substring(0, setCookie.indexOf(';'));
+        return pair.substring(pair.indexOf('=') + 1);
+    }
+
+    private static String flip(String value, int index) {
+        char c = value.charAt(index);
+        char replacement = c == 'A' ? 'B' : 'A';
+        return value.substring(0, index) + replacement + value.substring(index + 1);
+    }
+}
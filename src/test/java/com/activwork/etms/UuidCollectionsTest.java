@@ -0,0 +1,198 @@
+package com.activwork.etms;
+
+import com.activwork.etms.util.collections.UuidHashMap;
+import com.activwork.etms.util.collections.UuidHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the compact UUID-keyed collections.
+ *
+ * <p>No database needed. Verifies that:
+ * <ul>
+ *   <li>UuidHashMap and UuidHashSet behave like HashMap/HashSet under random puts and removes</li>
+ *   <li>The nil UUID is an ordinary key</li>
+ * </ul>
+ *
+ * <p>The comparison with HashMap&lt;UUID, ...&gt; (lookup time and heap per key) only runs with
+ * {@code mvn test -Dtest=UuidCollectionsTest -Dbenchmark=true}.
+ */
+@Slf4j
+public class UuidCollectionsTest {
+
+    private static final UUID NIL = new UUID(0L, 0L);
+
+    // Keeps lookup results alive so the timed loops are not optimized away
+    private static volatile long sink;
+
+    @Test
+    void testMapMatchesHashMapUnderChurn() {
+        // A small key pool keeps probe runs long, so removals shift entries often
+        List<UUID> pool = randomUuids(new Random(1), 200);
+        Random random = new Random(2);
+        UuidHashMap<Integer> map = new UuidHashMap<>(4);
+        Map<UUID, Integer> expected = new HashMap<>();
+
+        for (int step = 0; step < 100_000; step++) {
+            UUID key = random.nextInt(50) == 0 ? NIL : pool.get(random.nextInt(pool.size()));
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(expected.put(key, step), map.put(key, step));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.putIfAbsent(key, step), map.putIfAbsent(key, step));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (UUID key : pool) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<UUID, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(pool.get(0)));
+    }
+
+    @Test
+    void testSetMatchesHashSetUnderChurn() {
+        List<UUID> pool = randomUuids(new Random(3), 200);
+        Random random = new Random(4);
+        UuidHashSet set = new UuidHashSet(4);
+        Set<UUID> expected = new HashSet<>();
+
+        for (int step = 0; step < 100_000; step++) {
+            UUID value = random.nextInt(50) == 0 ? NIL : pool.get(random.nextInt(pool.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        for (UUID value : pool) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.contains(NIL), set.contains(NIL));
+        assertEquals(expected, new HashSet<>(set.toList()));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstHashMap() {
+        int size = Integer.getInteger("benchmark.keys", 100_000);
+        int rounds = Integer.getInteger("benchmark.rounds", 20);
+        List<UUID> keys = randomUuids(new Random(6), size);
+        // Lookups with fresh UUID objects, as when keys arrive from requests or rows
+        List<UUID> probes = keys.stream().map(UuidCollectionsTest::copyOf).toList();
+        List<UUID> misses = randomUuids(new Random(7), size);
+        Object value = new Object();
+
+        // Cache/index use case: UUID -> entry
+        report("HashMap<UUID, Object>", size, rounds, probes, misses,
+                () -> {
+                    // A HashMap owns its UUID key objects (read from rows), so count them too
+                    Map<UUID, Object> map = new HashMap<>();
+                    keys.forEach(key -> map.put(copyOf(key), value));
+                    return map;
+                },
+                (map, key) -> ((Map<?, ?>) map).get(key) != null);
+        report("UuidHashMap<Object>", size, rounds, probes, misses,
+                () -> {
+                    UuidHashMap<Object> map = new UuidHashMap<>();
+                    keys.forEach(key -> map.put(key, value));
+                    return map;
+                },
+                (map, key) -> ((UuidHashMap<?>) map).get(key) != null);
+
+        // Membership use case: set of ids
+        report("HashSet<UUID>", size, rounds, probes, misses,
+                () -> {
+                    Set<UUID> set = new HashSet<>();
+                    keys.forEach(key -> set.add(copyOf(key)));
+                    return set;
+                },
+                (set, key) -> ((Set<?>) set).contains(key));
+        report("UuidHashSet", size, rounds, probes, misses,
+                () -> {
+                    UuidHashSet set = new UuidHashSet();
+                    keys.forEach(set::add);
+                    return set;
+                },
+                (set, key) -> ((UuidHashSet) set).contains(key));
+    }
+
+    private static void report(String name, int size, int rounds, List<UUID> hits, List<UUID> misses,
+                               Supplier<Object> build, Lookup lookup) {
+        long heapBefore = usedHeap();
+        long buildStart = System.nanoTime();
+        Object collection = build.get();
+        long buildNanos = System.nanoTime() - buildStart;
+        long bytesPerKey = Math.max(0, usedHeap() - heapBefore) / size;
+
+        // Warm up, then time hits and misses separately
+        run(collection, hits, lookup, 3);
+        double hitNanos = (double) run(collection, hits, lookup, rounds) / ((long) rounds * size);
+        double missNanos = (double) run(collection, misses, lookup, rounds) / ((long) rounds * size);
+
+        log.info(String.format("%-24s %,d keys: build %.1f ns/key, hit %.1f ns/op, miss %.1f ns/op, ~%d bytes/key",
+                name, size, (double) buildNanos / size, hitNanos, missNanos, bytesPerKey));
+        assertNotNull(collection);
+    }
+
+    private static long run(Object collection, List<UUID> keys, Lookup lookup, int rounds) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (UUID key : keys) {
+                if (lookup.find(collection, key)) {
+                    found++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += found;
+        return elapsed;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static List<UUID> randomUuids(Random random, int count) {
+        List<UUID> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return values;
+    }
+
+    private static UUID copyOf(UUID value) {
+        return new UUID(value.getMostSignificantBits(), value.getLeastSignificantBits());
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        boolean find(Object collection, UUID key);
+    }
+}